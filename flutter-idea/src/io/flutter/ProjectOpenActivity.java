@@ -87,9 +87,7 @@ public class ProjectOpenActivity implements StartupActivity, DumbAware {
       );
     });
 
-    ApplicationManager.getApplication().executeOnPooledThread(() -> {
-      sdk.queryFlutterConfig("android-studio-dir", false);
-    });
+    ApplicationManager.getApplication().executeOnPooledThread(sdk::refreshConfigValuesIfStale);
     if (FlutterUtils.isAndroidStudio() && !FLUTTER_PROJECT_TYPE.equals(ProjectTypeService.getProjectType(project))) {
       if (!AndroidUtils.isAndroidProject(project)) {
         ProjectTypeService.setProjectType(project, FLUTTER_PROJECT_TYPE);
@@ -17,13 +17,18 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.EnvironmentUtil;
 import io.flutter.FlutterUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A wrapper around an Android SDK on disk.
@@ -74,9 +79,14 @@ public class AndroidSdk {
     return home.findFileByRelativePath("tools/" + (SystemInfo.isWindows ? "emulator.exe" : "emulator"));
   }
 
+  /**
+   * Returns the emulators in this SDK, sorted by name.
+   * <p>
+   * Listing them runs the emulator tool, so the names are reused for as long as the tool and the AVD directory
+   * are unchanged.
+   */
   @NotNull
   public List<AndroidEmulator> getEmulators() {
-    // Execute $ANDROID_HOME/emulator/emulator -list-avds and parse the results.
     final VirtualFile emulator = getEmulatorToolExecutable();
     if (emulator == null) {
       return Collections.emptyList();
@@ -85,6 +95,30 @@ public class AndroidSdk {
     final String emulatorPath = emulator.getCanonicalPath();
     assert (emulatorPath != null);
 
+    final AvdListing current = AvdListing.current(emulatorPath);
+    final AvdListing cached = cachedListing.get(emulatorPath);
+    List<String> names = current.equals(cached) ? cached.names : null;
+    if (names == null) {
+      names = listAvds(emulatorPath);
+      if (names == null) {
+        return Collections.emptyList();
+      }
+      cachedListing.put(emulatorPath, current.withNames(names));
+    }
+
+    final List<AndroidEmulator> emulators = new ArrayList<>();
+    for (String name : names) {
+      emulators.add(new AndroidEmulator(this, name));
+    }
+    emulators.sort((emulator1, emulator2) -> emulator1.getName().compareToIgnoreCase(emulator2.getName()));
+    return emulators;
+  }
+
+  /**
+   * Runs $ANDROID_HOME/emulator/emulator -list-avds and returns the names, or null if it fails.
+   */
+  @Nullable
+  private List<String> listAvds(@NotNull String emulatorPath) {
     final GeneralCommandLine cmd = new GeneralCommandLine()
       .withParentEnvironmentType(GeneralCommandLine.ParentEnvironmentType.CONSOLE)
       .withWorkDirectory(home.getCanonicalPath())
@@ -106,30 +140,105 @@ public class AndroidSdk {
 
       // We wait a maximum of 10s.
       if (!process.waitFor(10000)) {
-        return Collections.emptyList();
+        return null;
       }
 
       final Integer exitCode = process.getExitCode();
       if (exitCode == null || process.getExitCode() != 0) {
-        return Collections.emptyList();
+        return null;
       }
 
       // 'emulator -list-avds' results are in the form "foo\nbar\nbaz\n".
-      final List<AndroidEmulator> emulators = new ArrayList<>();
+      final List<String> names = new ArrayList<>();
 
       for (String str : stringBuilder.toString().split("\n")) {
         str = str.trim();
         if (str.isEmpty()) {
           continue;
         }
-        emulators.add(new AndroidEmulator(this, str));
+        names.add(str);
       }
 
-      return emulators;
+      return names;
     }
     catch (ExecutionException | RuntimeException e) {
       FlutterUtils.warn(LOG, "Error listing android emulators", e);
-      return Collections.emptyList();
+      return null;
+    }
+  }
+
+  /**
+   * The AVD names listed by each emulator tool, by the tool's path.
+   */
+  private static final Map<String, AvdListing> cachedListing = new ConcurrentHashMap<>();
+
+  /**
+   * The AVD names listed by an emulator tool, and the state of the files that they depend on.
+   */
+  static class AvdListing {
+    private final long emulatorModified;
+    @NotNull private final String avdHome;
+    private final long avdHomeModified;
+    @Nullable final List<String> names;
+
+    AvdListing(long emulatorModified, @NotNull String avdHome, long avdHomeModified, @Nullable List<String> names) {
+      this.emulatorModified = emulatorModified;
+      this.avdHome = avdHome;
+      this.avdHomeModified = avdHomeModified;
+      this.names = names;
+    }
+
+    /**
+     * Returns the current state of the files, without names.
+     * <p>
+     * Creating, renaming or deleting an AVD changes the entries in the AVD directory, which updates its modification time.
+     */
+    @NotNull
+    static AvdListing current(@NotNull String emulatorPath) {
+      final File avdHome = findAvdHome();
+      return new AvdListing(new File(emulatorPath).lastModified(), avdHome.getPath(), avdHome.lastModified(), null);
+    }
+
+    @NotNull
+    AvdListing withNames(@NotNull List<String> names) {
+      return new AvdListing(emulatorModified, avdHome, avdHomeModified, List.copyOf(names));
+    }
+
+    /**
+     * Returns the directory the emulator reads AVDs from, following the emulator's own lookup order.
+     */
+    @NotNull
+    static File findAvdHome() {
+      final String avdHome = EnvironmentUtil.getValue("ANDROID_AVD_HOME");
+      if (avdHome != null) {
+        return new File(avdHome);
+      }
+      final String userHome = EnvironmentUtil.getValue("ANDROID_USER_HOME");
+      if (userHome != null) {
+        return new File(userHome, "avd");
+      }
+      final String sdkHome = EnvironmentUtil.getValue("ANDROID_SDK_HOME");
+      if (sdkHome != null) {
+        return new File(sdkHome, ".android/avd");
+      }
+      return new File(System.getProperty("user.home"), ".android/avd");
+    }
+
+    /**
+     * Listings are equal when the files they depend on are unchanged; the names aren't compared.
+     */
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof AvdListing)) {
+        return false;
+      }
+      final AvdListing other = (AvdListing)obj;
+      return emulatorModified == other.emulatorModified && avdHome.equals(other.avdHome) && avdHomeModified == other.avdHomeModified;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(emulatorModified, avdHome, avdHomeModified);
     }
   }
 }
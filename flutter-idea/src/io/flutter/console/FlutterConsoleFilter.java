@@ -19,9 +19,11 @@ import com.intellij.openapi.editor.markup.TextAttributes;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.ui.JBColor;
 import com.intellij.util.ui.UIUtil;
 import io.flutter.FlutterMessages;
@@ -31,6 +33,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -40,8 +45,18 @@ import java.util.regex.Pattern;
  * - linking an action to the term 'flutter doctor'
  * - linking the text "Launching lib/main.dart" or "open ios/Runner.xcworkspace"
  * - some embedded paths, like "MyApp.xzzzz (lib/main.dart:6)"
+ * <p>
+ * This runs on every console line, so lines are first checked for the markers that can start a link in a single
+ * pass, and the files that paths resolve to are cached.
  */
 public class FlutterConsoleFilter implements Filter {
+  private static final int MAX_CACHED_PATHS = 256;
+
+  /**
+   * Matches, e.g., "lib/registerC.dart:104:73: Error: Expected ';' after this."
+   */
+  private static final Pattern ERROR_LOCATION = Pattern.compile("(^.*?):(\\d+?):\\d+?:\\s*?Error");
+
   private static class OpenExternalFileHyperlink implements HyperlinkInfo {
     private final String myPath;
 
@@ -75,6 +90,22 @@ public class FlutterConsoleFilter implements Filter {
 
   private final @NotNull Module module;
 
+  /**
+   * Files by the path they were looked up with, or empty if there was no file, in least recently used order.
+   */
+  private final Map<String, Optional<VirtualFile>> files = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Optional<VirtualFile>> eldest) {
+      return size() > MAX_CACHED_PATHS;
+    }
+  };
+
+  /**
+   * The modification counts of the file system and the project roots when the files were looked up.
+   */
+  private long filesModificationCount = -1;
+  private long rootsModificationCount = -1;
+
   public FlutterConsoleFilter(@NotNull Module module) {
     this.module = module;
   }
@@ -83,7 +114,10 @@ public class FlutterConsoleFilter implements Filter {
   @Nullable
   public VirtualFile fileAtPath(@NotNull String pathPart) {
     // "lib/main.dart:6"
-    pathPart = pathPart.split(":")[0];
+    final int colon = pathPart.indexOf(':');
+    if (colon >= 0) {
+      pathPart = pathPart.substring(0, colon);
+    }
 
     // We require the pathPart reference to be a file reference, otherwise we'd match things like
     // "Build: Running build completed, took 191ms".
@@ -91,6 +125,30 @@ public class FlutterConsoleFilter implements Filter {
       return null;
     }
 
+    final long modificationCount = VirtualFileManager.getInstance().getModificationCount();
+    final long rootsCount = ProjectRootManager.getInstance(module.getProject()).getModificationCount();
+    synchronized (files) {
+      if (modificationCount != filesModificationCount || rootsCount != rootsModificationCount) {
+        // Files may have been created or deleted, or the content roots changed.
+        files.clear();
+        filesModificationCount = modificationCount;
+        rootsModificationCount = rootsCount;
+      }
+      final Optional<VirtualFile> cached = files.get(pathPart);
+      if (cached != null && (cached.isEmpty() || cached.get().isValid())) {
+        return cached.orElse(null);
+      }
+    }
+
+    final VirtualFile file = findFileInContentRoots(pathPart);
+    synchronized (files) {
+      files.put(pathPart, Optional.ofNullable(file));
+    }
+    return file;
+  }
+
+  @Nullable
+  private VirtualFile findFileInContentRoots(@NotNull String pathPart) {
     final VirtualFile[] roots = ModuleRootManager.getInstance(module).getContentRoots();
     for (VirtualFile root : roots) {
       if (!pathPart.isEmpty()) {
@@ -137,25 +195,37 @@ public class FlutterConsoleFilter implements Filter {
     // Check for, e.g.,
     //   * "Launching lib/main.dart"
     //   * "open ios/Runner.xcworkspace"
-    if (pathPart.startsWith("Launching ") || pathPart.startsWith("open ")) {
-      final String[] parts = pathPart.split(" ");
-      if (parts.length > 1) {
-        pathPart = parts[1];
-        file = fileAtPath(pathPart);
-        if (file != null) {
-          lineStart = entireLength - line.length() + line.indexOf(pathPart);
-          highlightLength = pathPart.length();
-        }
+    final boolean isLaunching = pathPart.startsWith("Launching ") || pathPart.startsWith("open ");
+    if (!isLaunching && !mayContainLink(line)) {
+      return null;
+    }
+    if (isLaunching) {
+      final int start = pathPart.indexOf(' ') + 1;
+      final int end = pathPart.indexOf(' ', start);
+      pathPart = end < 0 ? pathPart.substring(start) : pathPart.substring(start, end);
+      file = fileAtPath(pathPart);
+      if (file != null) {
+        lineStart = entireLength - line.length() + line.indexOf(pathPart);
+        highlightLength = pathPart.length();
       }
     }
 
     // Check for embedded paths, e.g.,
     //    * "  • MyApp.xzzzz (lib/main.dart:6)"
     //    * "  • _MyHomePageState._incrementCounter (lib/main.dart:49)"
-    final String[] parts = pathPart.split(" ");
-    for (String part : parts) {
+    int partStart = pathPart.indexOf('(');
+    while (partStart >= 0) {
+      // Parts are separated by spaces, so a part that starts with "(" starts the text or follows a space.
+      if (partStart > 0 && pathPart.charAt(partStart - 1) != ' ') {
+        partStart = pathPart.indexOf('(', partStart + 1);
+        continue;
+      }
+      final int partEnd = pathPart.indexOf(' ', partStart);
+      String part = partEnd < 0 ? pathPart.substring(partStart) : pathPart.substring(partStart, partEnd);
+      partStart = partEnd < 0 ? -1 : pathPart.indexOf('(', partEnd);
+
       // "(lib/main.dart:49)"
-      if (part.startsWith("(") && part.endsWith(")")) {
+      if (part.endsWith(")")) {
         part = part.substring(1, part.length() - 1);
         final String[] split = part.split(":");
         if (split.length == 2) {
@@ -193,31 +263,21 @@ public class FlutterConsoleFilter implements Filter {
 
     if (lineStart < 0) {
       // lib/registerC.dart:104:73: Error: Expected ';' after this.
-      final String filePathAndLineNumberExpr = "(^.*?):(\\d+?):\\d+?:\\s*?Error";
-      final Pattern pattern = Pattern.compile(filePathAndLineNumberExpr);
-      final Matcher matcher = pattern.matcher(line);
-      final boolean found = matcher.find();
-      if (found) {
-        final String filePathExpr = "((?:[^/]*/)*)(.*)";
-        final Pattern pathPattern = Pattern.compile(filePathExpr);
-        final Matcher pathMatcher = pathPattern.matcher(matcher.group(1));
-        if (pathMatcher.find()) {
-          final String path = pathMatcher.group(1) + pathMatcher.group(2);
-          file = fileAtPath(path);
-          if (file == null) {
-            return null;
-          }
-          lineNumber = Integer.parseInt(matcher.group(2));
-          lineStart = entireLength - line.length();
-          highlightLength = path.length();
-        }
-        else {
-          return null;
-        }
+      if (!line.contains("Error")) {
+        return null;
+      }
+      final Matcher matcher = ERROR_LOCATION.matcher(line);
+      if (!matcher.find()) {
+        return null;
       }
-      else {
+      final String path = matcher.group(1);
+      file = fileAtPath(path);
+      if (file == null) {
         return null;
       }
+      lineNumber = Integer.parseInt(matcher.group(2));
+      lineStart = entireLength - line.length();
+      highlightLength = path.length();
     }
 
     if (file == null) {
@@ -236,6 +296,19 @@ public class FlutterConsoleFilter implements Filter {
     return null;
   }
 
+  /**
+   * Returns false if the line has none of the markers that start an embedded path or an error location.
+   */
+  private static boolean mayContainLink(@NotNull String line) {
+    for (int i = 0; i < line.length(); i++) {
+      final char c = line.charAt(i);
+      if (c == '(' || (c == 'E' && line.startsWith("rror", i + 1))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private String findRelativePath(String threeSlashFileName) {
     final VirtualFile[] roots = ModuleRootManager.getInstance(module).getContentRoots();
     for (VirtualFile root : roots) {
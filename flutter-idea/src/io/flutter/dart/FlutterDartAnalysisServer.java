@@ -16,6 +16,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.io.FileUtil;
@@ -33,6 +34,7 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class FlutterDartAnalysisServer implements Disposable {
@@ -42,14 +44,23 @@ public class FlutterDartAnalysisServer implements Disposable {
   @NotNull final Project project;
 
   /**
-   * Each key is a notification identifier.
-   * Each value is the set of files subscribed to the notification.
+   * The files subscribed to each notification.
+   * <p>
+   * Changes are sent to the server once per UI event so that opening or switching between many
+   * editors results in a single request.
    */
-  private final Map<String, List<String>> subscriptions = new HashMap<>();
+  private final SubscriptionBatcher subscriptions = new SubscriptionBatcher();
+  private final AtomicBoolean isSendScheduled = new AtomicBoolean();
 
   @VisibleForTesting
   protected final Map<String, List<FlutterOutlineListener>> fileOutlineListeners = new HashMap<>();
 
+  /**
+   * The most recent outline of each file with outline listeners, used to
+   * reuse unchanged subtrees when the next outline arrives.
+   */
+  private final Map<String, FlutterOutline> lastOutlines = new HashMap<>();
+
   /**
    * Each key is a request identifier.
    * Each value is the {@link Consumer} for the response.
@@ -79,8 +90,9 @@ public class FlutterDartAnalysisServer implements Disposable {
       public void serverConnected(String s) {
         // If the server reconnected we need to let it know that we still care
         // about our subscriptions.
+        subscriptions.reset();
         if (!subscriptions.isEmpty()) {
-          sendSubscriptions();
+          scheduleSendSubscriptions();
         }
       }
 
@@ -113,7 +125,13 @@ public class FlutterDartAnalysisServer implements Disposable {
     final boolean removeSubscription;
     synchronized (fileOutlineListeners) {
       final List<FlutterOutlineListener> listeners = fileOutlineListeners.get(filePath);
-      removeSubscription = listeners != null && listeners.remove(listener);
+      // Keep the subscription while other listeners need the outline.
+      removeSubscription = listeners != null && listeners.remove(listener) && listeners.isEmpty();
+    }
+    if (removeSubscription) {
+      synchronized (lastOutlines) {
+        lastOutlines.remove(filePath);
+      }
     }
     if (removeSubscription) {
       removeSubscription(FlutterService.OUTLINE, filePath);
@@ -126,10 +144,8 @@ public class FlutterDartAnalysisServer implements Disposable {
    * Note that <code>filePath</code> must be an absolute path.
    */
   private void addSubscription(@NotNull final String service, @NotNull final String filePath) {
-    final List<String> files = subscriptions.computeIfAbsent(service, k -> new ArrayList<>());
-    if (!files.contains(filePath)) {
-      files.add(filePath);
-      sendSubscriptions();
+    if (subscriptions.add(service, filePath)) {
+      scheduleSendSubscriptions();
     }
   }
 
@@ -139,16 +155,28 @@ public class FlutterDartAnalysisServer implements Disposable {
    * Note that <code>filePath</code> must be an absolute path.
    */
   private void removeSubscription(@NotNull final String service, @NotNull final String filePath) {
-    final List<String> files = subscriptions.get(service);
-    if (files != null && files.remove(filePath)) {
-      sendSubscriptions();
+    if (subscriptions.remove(service, filePath)) {
+      scheduleSendSubscriptions();
+    }
+  }
+
+  private void scheduleSendSubscriptions() {
+    if (isSendScheduled.compareAndSet(false, true)) {
+      ApplicationManager.getApplication().invokeLater(this::sendSubscriptions, ModalityState.any());
     }
   }
 
   private void sendSubscriptions() {
+    isSendScheduled.set(false);
+    if (isDisposed || project.isDisposed()) return;
+
+    // This is empty if the changes cancelled each other out.
+    final List<Map<String, List<String>>> requests = subscriptions.takeChanges();
     DartAnalysisServerService analysisService = getAnalysisService();
-    final String id = analysisService.generateUniqueId();
-    analysisService.sendRequest(id, FlutterRequestUtilities.generateAnalysisSetSubscriptions(id, subscriptions));
+    for (Map<String, List<String>> request : requests) {
+      final String id = analysisService.generateUniqueId();
+      analysisService.sendRequest(id, FlutterRequestUtilities.generateAnalysisSetSubscriptions(id, request));
+    }
   }
 
   @NotNull
@@ -175,7 +203,8 @@ public class FlutterDartAnalysisServer implements Disposable {
           }
           result.complete(properties);
         }
-        catch (Throwable ignored) {
+        catch (Throwable t) {
+          result.completeExceptionally(t);
         }
       });
     }
@@ -218,6 +247,14 @@ public class FlutterDartAnalysisServer implements Disposable {
       // Short circuit just in case we have been disposed in the time it took
       // for us to get around to listening for the response.
       if (isDisposed) return;
+      if (jsonString.contains(FLUTTER_NOTIFICATION_OUTLINE_KEY)) {
+        // Outlines are large so read them without building a Gson tree.
+        final FlutterOutlineReader.Notification notification = FlutterOutlineReader.readNotification(jsonString);
+        if (notification != null) {
+          outlineUpdated(notification.file, notification.outline, notification.instrumentedCode);
+          return;
+        }
+      }
       processResponse(JsonUtils.parseString(jsonString).getAsJsonObject());
     });
   }
@@ -272,18 +309,27 @@ public class FlutterDartAnalysisServer implements Disposable {
       final String instrumentedCode = instrumentedCodeElement != null ? instrumentedCodeElement.getAsString() : null;
 
       final JsonObject outlineObject = paramsObject.get("outline").getAsJsonObject();
-      final FlutterOutline outline = FlutterOutline.fromJson(outlineObject);
+      outlineUpdated(file, FlutterOutline.fromJson(outlineObject), instrumentedCode);
+    }
+  }
 
-      final List<FlutterOutlineListener> listenersUpdated;
-      synchronized (fileOutlineListeners) {
-        final List<FlutterOutlineListener> listeners = fileOutlineListeners.get(file);
-        listenersUpdated = listeners != null ? Lists.newArrayList(listeners) : null;
-      }
-      if (listenersUpdated != null) {
-        for (FlutterOutlineListener listener : listenersUpdated) {
-          listener.outlineUpdated(file, outline, instrumentedCode);
-        }
-      }
+  private void outlineUpdated(@NotNull String file, @NotNull FlutterOutline freshOutline, @Nullable String instrumentedCode) {
+    final List<FlutterOutlineListener> listenersUpdated;
+    synchronized (fileOutlineListeners) {
+      final List<FlutterOutlineListener> listeners = fileOutlineListeners.get(file);
+      listenersUpdated = listeners != null ? Lists.newArrayList(listeners) : null;
+    }
+    if (listenersUpdated == null || listenersUpdated.isEmpty()) {
+      return;
+    }
+
+    final FlutterOutlineDiff diff;
+    synchronized (lastOutlines) {
+      diff = FlutterOutlineDiff.compute(lastOutlines.get(file), freshOutline);
+      lastOutlines.put(file, diff.getOutline());
+    }
+    for (FlutterOutlineListener listener : listenersUpdated) {
+      listener.outlineUpdated(file, diff.getOutline(), instrumentedCode, diff);
     }
   }
 
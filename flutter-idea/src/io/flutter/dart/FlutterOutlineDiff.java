@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import org.dartlang.analysis.server.protocol.FlutterOutline;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The difference between two successive {@link FlutterOutline}s of a file.
+ * <p>
+ * Computing a diff structurally matches the new outline against the previous
+ * one and replaces every subtree that did not change with the instance from
+ * the previous outline. Listeners can then compare nodes by identity and only
+ * process the nodes reported by {@link #isChanged(FlutterOutline)}.
+ */
+public class FlutterOutlineDiff {
+  /**
+   * How far ahead in the previous children to look for a match when children
+   * were inserted or removed.
+   */
+  private static final int MAX_LOOKAHEAD = 8;
+
+  @Nullable private final FlutterOutline previous;
+  @NotNull private final FlutterOutline outline;
+  @NotNull private final Set<FlutterOutline> changed;
+
+  private FlutterOutlineDiff(@Nullable FlutterOutline previous, @NotNull FlutterOutline outline, @NotNull Set<FlutterOutline> changed) {
+    this.previous = previous;
+    this.outline = outline;
+    this.changed = changed;
+  }
+
+  /**
+   * Diff fresh against previous.
+   * <p>
+   * The outline returned by {@link #getOutline()} is equal to fresh but shares
+   * all unchanged subtrees with previous.
+   */
+  @NotNull
+  public static FlutterOutlineDiff compute(@Nullable FlutterOutline previous, @NotNull FlutterOutline fresh) {
+    final Set<FlutterOutline> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    final FlutterOutline outline = reuse(previous, fresh, changed);
+    return new FlutterOutlineDiff(previous, outline, changed);
+  }
+
+  /**
+   * The outline the new outline was compared against, or null if there was
+   * no previous outline for the file.
+   */
+  @Nullable
+  public FlutterOutline getPrevious() {
+    return previous;
+  }
+
+  @NotNull
+  public FlutterOutline getOutline() {
+    return outline;
+  }
+
+  /**
+   * Whether the outline is identical to the previous outline.
+   */
+  public boolean isEmpty() {
+    return outline == previous;
+  }
+
+  /**
+   * Whether node is new in this outline, either because it was added or
+   * because it or one of its descendants changed.
+   */
+  public boolean isChanged(@NotNull FlutterOutline node) {
+    return changed.contains(node);
+  }
+
+  /**
+   * The nodes that are new in this outline.
+   */
+  @NotNull
+  public Set<FlutterOutline> getChangedNodes() {
+    return Collections.unmodifiableSet(changed);
+  }
+
+  @NotNull
+  private static FlutterOutline reuse(@Nullable FlutterOutline previous, @NotNull FlutterOutline fresh, @NotNull Set<FlutterOutline> changed) {
+    final List<FlutterOutline> freshChildren = fresh.getChildren();
+    final List<FlutterOutline> previousChildren = previous != null ? previous.getChildren() : null;
+    List<FlutterOutline> children = freshChildren;
+    boolean childrenReused = previous != null && (freshChildren == null) == (previousChildren == null);
+    if (freshChildren != null) {
+      children = new ArrayList<>(freshChildren.size());
+      int next = 0;
+      for (int i = 0; i < freshChildren.size(); ++i) {
+        final FlutterOutline freshChild = freshChildren.get(i);
+        final int match = previousChildren != null ? findMatch(previousChildren, next, freshChild) : -1;
+        final FlutterOutline child;
+        if (match >= 0) {
+          child = reuse(previousChildren.get(match), freshChild, changed);
+          next = match + 1;
+        }
+        else {
+          child = reuse(null, freshChild, changed);
+        }
+        children.add(child);
+        if (previousChildren == null || i >= previousChildren.size() || previousChildren.get(i) != child) {
+          childrenReused = false;
+        }
+      }
+      if (previousChildren != null && previousChildren.size() != freshChildren.size()) {
+        childrenReused = false;
+      }
+      if (identical(children, freshChildren)) {
+        // No child was replaced by a previous instance so fresh can be used as is.
+        children = freshChildren;
+      }
+    }
+
+    if (childrenReused && sameNode(previous, fresh)) {
+      return previous;
+    }
+    final FlutterOutline result = children == freshChildren
+                                  ? fresh
+                                  : new FlutterOutline(fresh.getKind(), fresh.getOffset(), fresh.getLength(), fresh.getCodeOffset(),
+                                                       fresh.getCodeLength(), fresh.getLabel(), fresh.getDartElement(),
+                                                       fresh.getAttributes(), fresh.getClassName(), fresh.getParentAssociationLabel(),
+                                                       fresh.getVariableName(), children);
+    changed.add(result);
+    return result;
+  }
+
+  private static boolean identical(@NotNull List<FlutterOutline> a, @NotNull List<FlutterOutline> b) {
+    for (int i = 0; i < a.size(); ++i) {
+      if (a.get(i) != b.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the first child of previous at or after start that represents the
+   * same widget as fresh.
+   */
+  private static int findMatch(@NotNull List<FlutterOutline> previous, int start, @NotNull FlutterOutline fresh) {
+    final int end = Math.min(previous.size(), start + MAX_LOOKAHEAD);
+    for (int i = start; i < end; ++i) {
+      if (sameIdentity(previous.get(i), fresh)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Whether a and b represent the same widget or declaration, ignoring
+   * offsets, attributes and children.
+   */
+  public static boolean sameIdentity(@NotNull FlutterOutline a, @NotNull FlutterOutline b) {
+    return Objects.equals(a.getKind(), b.getKind()) &&
+           Objects.equals(a.getClassName(), b.getClassName()) &&
+           Objects.equals(a.getVariableName(), b.getVariableName()) &&
+           Objects.equals(a.getParentAssociationLabel(), b.getParentAssociationLabel());
+  }
+
+  /**
+   * Compares everything except the children.
+   */
+  private static boolean sameNode(@NotNull FlutterOutline a, @NotNull FlutterOutline b) {
+    return sameIdentity(a, b) &&
+           a.getOffset() == b.getOffset() &&
+           a.getLength() == b.getLength() &&
+           a.getCodeOffset() == b.getCodeOffset() &&
+           a.getCodeLength() == b.getCodeLength() &&
+           Objects.equals(a.getLabel(), b.getLabel()) &&
+           Objects.equals(a.getDartElement(), b.getDartElement()) &&
+           Objects.equals(a.getAttributes(), b.getAttributes());
+  }
+}
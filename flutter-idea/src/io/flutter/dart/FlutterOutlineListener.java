@@ -15,4 +15,18 @@ public interface FlutterOutlineListener extends EventListener {
   void outlineUpdated(@NotNull final String filePath,
                       @NotNull final FlutterOutline outline,
                       @Nullable final String instrumentedCode);
+
+  /**
+   * Called with the difference from the previous outline of the file.
+   * <p>
+   * Subtrees of outline that did not change are the same instances as in the
+   * previous outline. Listeners that can update incrementally should override
+   * this method.
+   */
+  default void outlineUpdated(@NotNull final String filePath,
+                              @NotNull final FlutterOutline outline,
+                              @Nullable final String instrumentedCode,
+                              @NotNull final FlutterOutlineDiff diff) {
+    outlineUpdated(filePath, outline, instrumentedCode);
+  }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.FlutterOutline;
+import org.dartlang.analysis.server.protocol.FlutterOutlineAttribute;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads <code>flutter.outline</code> notifications directly from the JSON
+ * text sent by the analysis server.
+ * <p>
+ * Outlines of large widget files contain thousands of nodes. Streaming them
+ * into {@link FlutterOutline}s avoids building an intermediate Gson tree for
+ * the whole notification. Only the small <code>dartElement</code> and
+ * attribute objects are parsed into trees so that the generated protocol
+ * classes can decode them.
+ */
+public class FlutterOutlineReader {
+  /**
+   * The contents of a <code>flutter.outline</code> notification.
+   */
+  public static class Notification {
+    @NotNull public final String file;
+    @NotNull public final FlutterOutline outline;
+    @Nullable public final String instrumentedCode;
+
+    Notification(@NotNull String file, @NotNull FlutterOutline outline, @Nullable String instrumentedCode) {
+      this.file = file;
+      this.outline = outline;
+      this.instrumentedCode = instrumentedCode;
+    }
+  }
+
+  private FlutterOutlineReader() {
+  }
+
+  /**
+   * Reads json as a <code>flutter.outline</code> notification.
+   * <p>
+   * Returns null if json is some other response or notification.
+   */
+  @Nullable
+  public static Notification readNotification(@NotNull String json) {
+    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+      String event = null;
+      String file = null;
+      String instrumentedCode = null;
+      FlutterOutline outline = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        final String name = reader.nextName();
+        if (name.equals("event")) {
+          event = nextStringOrNull(reader);
+        }
+        else if (name.equals("params") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+          reader.beginObject();
+          while (reader.hasNext()) {
+            final String paramName = reader.nextName();
+            switch (paramName) {
+              case "file":
+                file = nextStringOrNull(reader);
+                break;
+              case "instrumentedCode":
+                instrumentedCode = nextStringOrNull(reader);
+                break;
+              case "outline":
+                outline = readOutline(reader);
+                break;
+              default:
+                reader.skipValue();
+            }
+          }
+          reader.endObject();
+        }
+        else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+      if (!"flutter.outline".equals(event) || file == null || outline == null) {
+        return null;
+      }
+      return new Notification(file, outline, instrumentedCode);
+    }
+    catch (IOException | IllegalStateException | JsonParseException | NumberFormatException e) {
+      // Not an outline notification.
+      return null;
+    }
+  }
+
+  /**
+   * Reads a single outline node and its children.
+   */
+  @NotNull
+  public static FlutterOutline readOutline(@NotNull JsonReader reader) throws IOException {
+    String kind = null;
+    int offset = 0;
+    int length = 0;
+    int codeOffset = 0;
+    int codeLength = 0;
+    String label = null;
+    Element dartElement = null;
+    List<FlutterOutlineAttribute> attributes = null;
+    String className = null;
+    String parentAssociationLabel = null;
+    String variableName = null;
+    List<FlutterOutline> children = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      final String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "kind":
+          kind = reader.nextString();
+          break;
+        case "offset":
+          offset = reader.nextInt();
+          break;
+        case "length":
+          length = reader.nextInt();
+          break;
+        case "codeOffset":
+          codeOffset = reader.nextInt();
+          break;
+        case "codeLength":
+          codeLength = reader.nextInt();
+          break;
+        case "label":
+          label = reader.nextString();
+          break;
+        case "dartElement":
+          dartElement = Element.fromJson(readTree(reader).getAsJsonObject());
+          break;
+        case "attributes":
+          attributes = new ArrayList<>();
+          reader.beginArray();
+          while (reader.hasNext()) {
+            attributes.add(FlutterOutlineAttribute.fromJson(readTree(reader).getAsJsonObject()));
+          }
+          reader.endArray();
+          break;
+        case "className":
+          className = reader.nextString();
+          break;
+        case "parentAssociationLabel":
+          parentAssociationLabel = reader.nextString();
+          break;
+        case "variableName":
+          variableName = reader.nextString();
+          break;
+        case "children":
+          children = new ArrayList<>();
+          reader.beginArray();
+          while (reader.hasNext()) {
+            children.add(readOutline(reader));
+          }
+          reader.endArray();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    if (kind == null) {
+      throw new IllegalStateException("outline node without a kind");
+    }
+    return new FlutterOutline(kind, offset, length, codeOffset, codeLength, label, dartElement, attributes, className,
+                              parentAssociationLabel, variableName, children);
+  }
+
+  @NotNull
+  private static JsonElement readTree(@NotNull JsonReader reader) {
+    return JsonParser.parseReader(reader);
+  }
+
+  @Nullable
+  private static String nextStringOrNull(@NotNull JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+}
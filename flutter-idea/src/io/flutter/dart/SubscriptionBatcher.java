@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Tracks the files subscribed to each analysis server notification so that many subscription
+ * changes can be sent to the server as a single request.
+ * <p>
+ * Methods from this class may be invoked on any thread.
+ */
+class SubscriptionBatcher {
+  /**
+   * Each key is a notification identifier.
+   * Each value is the set of files subscribed to the notification, in the order they were added.
+   */
+  private final Map<String, Set<String>> subscriptions = new HashMap<>();
+
+  /**
+   * The subscriptions last sent to the server, or null if they have never been sent.
+   */
+  @Nullable private Map<String, Set<String>> sent;
+
+  /**
+   * Subscriptions removed since they were last sent, by notification identifier.
+   * <p>
+   * The server only sends a notification for a file when the file is newly subscribed. A file that is removed and
+   * added again before the change is sent has to be unsubscribed and subscribed again so that the new listener
+   * gets a notification.
+   */
+  private final Map<String, Set<String>> removedSinceSent = new HashMap<>();
+
+  /**
+   * Returns true if the subscriptions changed.
+   */
+  synchronized boolean add(@NotNull String service, @NotNull String filePath) {
+    return subscriptions.computeIfAbsent(service, k -> new LinkedHashSet<>()).add(filePath);
+  }
+
+  /**
+   * Returns true if the subscriptions changed.
+   */
+  synchronized boolean remove(@NotNull String service, @NotNull String filePath) {
+    final Set<String> files = subscriptions.get(service);
+    if (files == null || !files.remove(filePath)) {
+      return false;
+    }
+    if (sent != null && sent.getOrDefault(service, Collections.emptySet()).contains(filePath)) {
+      removedSinceSent.computeIfAbsent(service, k -> new HashSet<>()).add(filePath);
+    }
+    return true;
+  }
+
+  synchronized boolean isEmpty() {
+    for (Set<String> files : subscriptions.values()) {
+      if (!files.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Forgets what was sent, e.g. because the server restarted.
+   */
+  synchronized void reset() {
+    sent = null;
+    removedSinceSent.clear();
+  }
+
+  /**
+   * Returns the requests to send to the server, in order, or an empty list if the subscriptions have not changed
+   * since they were last sent.
+   * <p>
+   * Usually this is a single request with the current subscriptions. If files were removed and added again since
+   * the last request, it is preceded by a request without those files, so the server notifies the new listeners.
+   */
+  @NotNull
+  synchronized List<Map<String, List<String>>> takeChanges() {
+    final Map<String, Set<String>> current = copy(subscriptions);
+    final Map<String, Set<String>> withoutResubscribed = copy(subscriptions);
+    boolean hasResubscribed = false;
+    for (Map.Entry<String, Set<String>> entry : removedSinceSent.entrySet()) {
+      final Set<String> files = withoutResubscribed.get(entry.getKey());
+      if (files != null && files.removeAll(entry.getValue())) {
+        hasResubscribed = true;
+      }
+    }
+    removedSinceSent.clear();
+    if (!hasResubscribed && current.equals(sent)) {
+      return Collections.emptyList();
+    }
+    sent = current;
+
+    final List<Map<String, List<String>>> requests = new ArrayList<>();
+    if (hasResubscribed) {
+      requests.add(toRequest(withoutResubscribed));
+    }
+    requests.add(toRequest(current));
+    return requests;
+  }
+
+  @NotNull
+  private static Map<String, Set<String>> copy(@NotNull Map<String, Set<String>> subscriptions) {
+    final Map<String, Set<String>> result = new HashMap<>();
+    for (Map.Entry<String, Set<String>> entry : subscriptions.entrySet()) {
+      result.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
+    }
+    return result;
+  }
+
+  @NotNull
+  private static Map<String, List<String>> toRequest(@NotNull Map<String, Set<String>> subscriptions) {
+    final Map<String, List<String>> result = new HashMap<>();
+    for (Map.Entry<String, Set<String>> entry : subscriptions.entrySet()) {
+      result.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+    }
+    return result;
+  }
+}
@@ -7,16 +7,22 @@ package io.flutter.editor;
 
 import com.google.common.collect.Lists;
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.ex.EditorEx;
 import com.intellij.openapi.fileEditor.*;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.jetbrains.lang.dart.analyzer.DartAnalysisServerService;
 import io.flutter.FlutterUtils;
 import io.flutter.dart.FlutterDartAnalysisServer;
+import io.flutter.dart.FlutterOutlineDiff;
 import io.flutter.dart.FlutterOutlineListener;
 import org.dartlang.analysis.server.protocol.FlutterOutline;
 import org.jetbrains.annotations.NotNull;
@@ -38,6 +44,10 @@ import java.util.*;
  * <li>The collection of currently active editors has changed</li>
  * <li>Each outline for a currently active editor has updated.</li>
  * </ul>
+ *
+ * <p>
+ * Outlines of files that are no longer visible are saved to the {@link OutlineCache} so that reopening an
+ * unchanged file can show the cached outline until the analysis server sends a fresh one.
  */
 public class ActiveEditorsOutlineService implements Disposable {
   @NotNull private final Project project;
@@ -46,6 +56,11 @@ public class ActiveEditorsOutlineService implements Disposable {
    * Outlines for the currently visible files.
    */
   @NotNull private final Map<String, FlutterOutline> pathToOutline = new HashMap<>();
+  /**
+   * The modification stamp of each visible file's document when its outline arrived, for outlines that matched
+   * the document then. Guarded by {@link #pathToOutline}.
+   */
+  @NotNull private final Map<String, Long> pathToStamp = new HashMap<>();
   /**
    * Outline listeners for the currently visible files.
    */
@@ -151,17 +166,115 @@ public class ActiveEditorsOutlineService implements Disposable {
         final FlutterOutlineListener listener = new OutlineListener(path);
         outlineListeners.put(path, listener);
         getAnalysisServer().addOutlineListener(FileUtil.toSystemDependentName(path), listener);
+        ApplicationManager.getApplication().executeOnPooledThread(() -> loadCachedOutline(path, listener));
       }
     }
 
     synchronized (pathToOutline) {
       for (final String path : obsoletePaths) {
         // Clear the current outline as it may become out of date before the file is visible again.
-        pathToOutline.remove(path);
+        final FlutterOutline outline = pathToOutline.remove(path);
+        final Long stamp = pathToStamp.remove(path);
+        if (outline != null && stamp != null) {
+          // Cache the outline so it can be shown immediately if the file is reopened unchanged.
+          ApplicationManager.getApplication().executeOnPooledThread(() -> cacheOutline(path, outline, stamp));
+        }
+      }
+    }
+  }
+
+  /**
+   * Shows the cached outline for path if the file has not changed since it was cached and the analysis
+   * server has not sent an outline yet.
+   */
+  private void loadCachedOutline(@NotNull String path, @NotNull FlutterOutlineListener listener) {
+    final Pair<Long, Long> hashAndStamp = ReadAction.compute(() -> {
+      final Document document = getDocument(path, true);
+      return document == null
+             ? null
+             : Pair.create(OutlineCache.hashContents(document.getImmutableCharSequence()), document.getModificationStamp());
+    });
+    if (hashAndStamp == null) {
+      return;
+    }
+    final FlutterOutline outline = OutlineCache.getInstance().get(path, hashAndStamp.first);
+    if (outline == null) {
+      return;
+    }
+    synchronized (outlineListeners) {
+      if (outlineListeners.get(path) != listener) {
+        // The file is no longer visible.
+        return;
+      }
+    }
+    synchronized (pathToOutline) {
+      if (pathToOutline.containsKey(path)) {
+        // A fresh outline already arrived.
+        return;
       }
+      pathToOutline.put(path, outline);
+      pathToStamp.put(path, hashAndStamp.second);
+      notifyOutlineUpdated(path);
     }
   }
 
+  /**
+   * Saves outline to the {@link OutlineCache} if the file at path has not changed since the outline arrived.
+   */
+  private void cacheOutline(@NotNull String path, @NotNull FlutterOutline outline, long stamp) {
+    final CharSequence contents = ReadAction.compute(() -> getContentsIfUnchanged(path, stamp));
+    if (contents != null) {
+      OutlineCache.getInstance().put(path, OutlineCache.hashContents(contents), outline);
+    }
+  }
+
+  /**
+   * Returns the modification stamp of the document for path if outline matches its length, or null otherwise.
+   */
+  @Nullable
+  private Long getStampMatching(@NotNull String path, @NotNull FlutterOutline outline) {
+    if (project.isDisposed()) {
+      return null;
+    }
+    final VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path);
+    final Document document = getDocument(path, false);
+    if (file == null || document == null) {
+      return null;
+    }
+    final long stamp = document.getModificationStamp();
+    final int length = document.getTextLength();
+    final DartAnalysisServerService das = DartAnalysisServerService.getInstance(project);
+    if (length != outline.getLength() && length != das.getConvertedOffset(file, outline.getLength())) {
+      return null;
+    }
+    return stamp;
+  }
+
+  /**
+   * Returns the current contents of the file at path, or null if its document has changed since it had stamp.
+   */
+  @Nullable
+  private CharSequence getContentsIfUnchanged(@NotNull String path, long stamp) {
+    if (project.isDisposed()) {
+      return null;
+    }
+    final Document document = getDocument(path, false);
+    if (document == null || document.getModificationStamp() != stamp) {
+      return null;
+    }
+    return document.getImmutableCharSequence();
+  }
+
+  @Nullable
+  private static Document getDocument(@NotNull String path, boolean load) {
+    final VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path);
+    if (file == null) {
+      return null;
+    }
+    final FileDocumentManager documentManager = FileDocumentManager.getInstance();
+    return load ? documentManager.getDocument(file) : documentManager.getCachedDocument(file);
+  }
+
   private void notifyOutlineUpdated(String path) {
     final ArrayList<Listener> listenerList;
     synchronized (listeners) {
@@ -245,8 +358,31 @@ public class ActiveEditorsOutlineService implements Disposable {
       outlineListeners.clear();
     }
 
+    final Map<String, FlutterOutline> toCache;
+    final Map<String, Long> stamps;
     synchronized (pathToOutline) {
+      toCache = new HashMap<>(pathToOutline);
+      stamps = new HashMap<>(pathToStamp);
       pathToOutline.clear();
+      pathToStamp.clear();
+    }
+    if (!toCache.isEmpty()) {
+      // Check the outlines against the documents while the project is still open, but hash and store them on a
+      // pooled thread so that disposal isn't blocked.
+      final Map<String, CharSequence> contents = new HashMap<>();
+      ReadAction.run(() -> {
+        for (Map.Entry<String, Long> entry : stamps.entrySet()) {
+          final CharSequence current = getContentsIfUnchanged(entry.getKey(), entry.getValue());
+          if (current != null) {
+            contents.put(entry.getKey(), current);
+          }
+        }
+      });
+      ApplicationManager.getApplication().executeOnPooledThread(() -> {
+        for (Map.Entry<String, CharSequence> entry : contents.entrySet()) {
+          OutlineCache.getInstance().put(entry.getKey(), OutlineCache.hashContents(entry.getValue()), toCache.get(entry.getKey()));
+        }
+      });
     }
 
     synchronized (listeners) {
@@ -268,7 +404,8 @@ public class ActiveEditorsOutlineService implements Disposable {
    * Listener called by the {@link FlutterDartAnalysisServer} when an open file's outline changes.
    *
    * <p>
-   * This class caches the updated outline inside {@link ActiveEditorsOutlineService#pathToOutline} for the file.
+   * This class caches the updated outline inside {@link ActiveEditorsOutlineService#pathToOutline} for the file,
+   * along with the modification stamp of the document it describes.
    */
   private class OutlineListener implements FlutterOutlineListener {
     private final String path;
@@ -289,10 +426,33 @@ public class ActiveEditorsOutlineService implements Disposable {
           return;
         }
       }
+      // Remember which version of the document this outline describes, so that it is only cached while the
+      // document is unchanged.
+      final Long stamp = getStampMatching(path, outline);
       synchronized (pathToOutline) {
         pathToOutline.put(path, outline);
+        if (stamp != null) {
+          pathToStamp.put(path, stamp);
+        }
+        else {
+          pathToStamp.remove(path);
+        }
         notifyOutlineUpdated(path);
       }
     }
+
+    @Override
+    public void outlineUpdated(@NotNull String systemDependentPath,
+                               @NotNull FlutterOutline outline,
+                               @Nullable String instrumentedCode,
+                               @NotNull FlutterOutlineDiff diff) {
+      synchronized (pathToOutline) {
+        if (diff.isEmpty() && pathToOutline.get(path) == outline) {
+          // The analysis server sent the same outline again.
+          return;
+        }
+      }
+      outlineUpdated(systemDependentPath, outline, instrumentedCode);
+    }
   }
 }
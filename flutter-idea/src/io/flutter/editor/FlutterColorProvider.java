@@ -10,8 +10,11 @@ import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.ElementColorProvider;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.impl.PsiFileFactoryImpl;
 import com.intellij.psi.impl.source.tree.AstBufferUtil;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.jetbrains.lang.dart.DartLanguage;
 import com.jetbrains.lang.dart.DartTokenTypes;
 import com.jetbrains.lang.dart.psi.DartArgumentList;
@@ -25,6 +28,9 @@ import org.jetbrains.annotations.Nullable;
 import java.awt.*;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.flutter.dart.DartPsiUtil.getNewExprFromType;
 import static io.flutter.dart.DartPsiUtil.topmostReferenceExpression;
@@ -40,6 +46,25 @@ public class FlutterColorProvider implements ElementColorProvider {
     final String name = element.getText();
     if (!(name.equals("Colors") || name.equals("CupertinoColors") || name.equals("Color"))) return null;
 
+    // Colors are requested for every identifier on each highlighting pass, so remember the colors found in each
+    // file until it changes. Files like themes may contain hundreds of colors.
+    final PsiFile file = element.getContainingFile();
+    if (file == null) {
+      return computeColor(element, name);
+    }
+    final Map<Integer, Optional<Color>> colors = CachedValuesManager.getCachedValue(
+      file, () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), file));
+    final int offset = element.getTextRange().getStartOffset();
+    Optional<Color> color = colors.get(offset);
+    if (color == null) {
+      color = Optional.ofNullable(computeColor(element, name));
+      colors.put(offset, color);
+    }
+    return color.orElse(null);
+  }
+
+  @Nullable
+  private Color computeColor(@NotNull PsiElement element, @NotNull String name) {
     final PsiElement refExpr = topmostReferenceExpression(element);
     if (refExpr == null) return null;
     PsiElement parent = refExpr.getParent();
@@ -12,6 +12,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -42,11 +43,14 @@ public class FlutterColors {
   static final String primarySuffix = ".primary";
   static final String defaultShade = "[500]";
 
-  private static final Properties colors;
+  /**
+   * Colors by key, including the primary color of each swatch under the key without the primary suffix.
+   */
+  private static final Map<String, FlutterColor> colorsByKey;
   private static final Map<Color, String> colorToName;
 
   static {
-    colors = new Properties();
+    final Properties colors = new Properties();
 
     try {
       colors.load(FlutterUtils.class.getResourceAsStream("/flutter/colors/material.properties"));
@@ -64,6 +68,7 @@ public class FlutterColors {
         colorToName.put(color, name);
       }
     }
+    colorsByKey = createColorTable(colors);
   }
 
   /**
@@ -75,21 +80,7 @@ public class FlutterColors {
     if (key.contains(".shade")) {
       key = key.replace(".shade", "[") + "]";
     }
-
-    if (colors.containsKey(key)) {
-      final Color color = getColorValue(key);
-      if (color != null) {
-        return new FlutterColor(color, false);
-      }
-    }
-    else if (colors.containsKey(key + primarySuffix)) {
-      final Color color = getColorValue(key + primarySuffix);
-      if (color != null) {
-        return new FlutterColor(color, true);
-      }
-    }
-
-    return null;
+    return colorsByKey.get(key);
   }
 
   /**
@@ -105,6 +96,28 @@ public class FlutterColors {
     return name;
   }
 
+  /**
+   * Parses color properties into an immutable table so lookups don't parse or allocate.
+   */
+  @NotNull
+  static Map<String, FlutterColor> createColorTable(@NotNull Properties colors) {
+    final Map<String, FlutterColor> table = new HashMap<>();
+    for (String name : colors.stringPropertyNames()) {
+      final Color color = parseColor(colors.getProperty(name));
+      if (color != null) {
+        table.put(name, new FlutterColor(color, false));
+      }
+    }
+    for (String name : colors.stringPropertyNames()) {
+      final Color color = parseColor(colors.getProperty(name));
+      if (color != null && name.endsWith(primarySuffix)) {
+        // An explicit color takes precedence over the primary color of a swatch with the same name.
+        table.putIfAbsent(name.substring(0, name.length() - primarySuffix.length()), new FlutterColor(color, true));
+      }
+    }
+    return Collections.unmodifiableMap(table);
+  }
+
   private static String maybeTrimSuffix(String value, String suffix) {
     if (value.endsWith(suffix)) {
       return value.substring(0, value.length() - suffix.length());
@@ -128,9 +141,4 @@ public class FlutterColors {
       return null;
     }
   }
-
-  private static Color getColorValue(String name) {
-    final String hexValue = colors.getProperty(name);
-    return parseColor(hexValue);
-  }
 }
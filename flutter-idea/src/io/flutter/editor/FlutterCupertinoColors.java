@@ -19,12 +19,12 @@ import java.util.Properties;
 public class FlutterCupertinoColors {
   private static final Logger LOG = Logger.getInstance(FlutterCupertinoColors.class);
 
-  private static final Properties colors;
+  private static final Map<String, FlutterColors.FlutterColor> colorsByKey;
 
   private static final Map<Color, String> colorToName;
 
   static {
-    colors = new Properties();
+    final Properties colors = new Properties();
 
     try {
       colors.load(FlutterUtils.class.getResourceAsStream("/flutter/colors/cupertino.properties"));
@@ -42,6 +42,7 @@ public class FlutterCupertinoColors {
         colorToName.put(color, name);
       }
     }
+    colorsByKey = FlutterColors.createColorTable(colors);
   }
 
   /**
@@ -53,21 +54,7 @@ public class FlutterCupertinoColors {
     if (key.contains(".shade")) {
       key = key.replace(".shade", "[") + "]";
     }
-
-    if (colors.containsKey(key)) {
-      final Color color = getColorValue(key);
-      if (color != null) {
-        return new FlutterColors.FlutterColor(color, false);
-      }
-    }
-    else if (colors.containsKey(key + FlutterColors.primarySuffix)) {
-      final Color color = getColorValue(key + FlutterColors.primarySuffix);
-      if (color != null) {
-        return new FlutterColors.FlutterColor(color, true);
-      }
-    }
-
-    return null;
+    return colorsByKey.get(key);
   }
 
   /**
@@ -106,9 +93,4 @@ public class FlutterCupertinoColors {
       return null;
     }
   }
-
-  private static Color getColorValue(String name) {
-    final String hexValue = colors.getProperty(name);
-    return parseColor(hexValue);
-  }
 }
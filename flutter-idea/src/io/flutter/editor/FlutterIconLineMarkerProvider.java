@@ -16,9 +16,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.LocalFileSystem;
-import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
@@ -345,20 +343,7 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
     if (parent == null) {
       return null;
     }
-    final List<VirtualFile> ttfFiles = new ArrayList<>();
-    VfsUtilCore.visitChildrenRecursively(parent, new VirtualFileVisitor<Void>() {
-      @Override
-      public boolean visitFile(@NotNull VirtualFile file) {
-        final String ext = file.getExtension();
-        if ("ttf".equals(ext)) {
-          ttfFiles.add(file);
-          return false;
-        }
-        else {
-          return super.visitFile(file);
-        }
-      }
-    });
+    final List<VirtualFile> ttfFiles = IconFontIndex.getInstance().getFontFiles(parent);
     double match = -1;
     final String family = iconDef.familyName;
     VirtualFile bestFileMatch = null;
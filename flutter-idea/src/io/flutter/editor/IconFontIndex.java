@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.vfs.*;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import io.flutter.utils.IconPreviewGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the icon font files in each package, used to render custom icons in the gutter.
+ * <p>
+ * A package is scanned the first time its fonts are requested. The index and the fonts cached by
+ * {@link IconPreviewGenerator} are kept up to date from VFS events.
+ */
+public class IconFontIndex implements Disposable {
+  /**
+   * Font files by the path of the package directory containing them.
+   */
+  private final Map<String, List<VirtualFile>> fontFiles = new ConcurrentHashMap<>();
+
+  @NotNull
+  public static IconFontIndex getInstance() {
+    return ApplicationManager.getApplication().getService(IconFontIndex.class);
+  }
+
+  public IconFontIndex() {
+    ApplicationManager.getApplication().getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          handleEvent(event);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the icon font files anywhere below packageDir.
+   */
+  @NotNull
+  public List<VirtualFile> getFontFiles(@NotNull VirtualFile packageDir) {
+    final List<VirtualFile> files = fontFiles.computeIfAbsent(packageDir.getPath(), (path) -> scan(packageDir));
+    for (VirtualFile file : files) {
+      if (!file.isValid()) {
+        // An event was missed; rescan.
+        fontFiles.remove(packageDir.getPath());
+        return fontFiles.computeIfAbsent(packageDir.getPath(), (path) -> scan(packageDir));
+      }
+    }
+    return files;
+  }
+
+  @NotNull
+  private static List<VirtualFile> scan(@NotNull VirtualFile packageDir) {
+    final List<VirtualFile> files = new ArrayList<>();
+    VfsUtilCore.visitChildrenRecursively(packageDir, new VirtualFileVisitor<Void>() {
+      @Override
+      public boolean visitFile(@NotNull VirtualFile file) {
+        if (!file.isDirectory() && isFontFile(file.getPath())) {
+          files.add(file);
+          return false;
+        }
+        return super.visitFile(file);
+      }
+    });
+    return Collections.unmodifiableList(files);
+  }
+
+  private void handleEvent(@NotNull VFileEvent event) {
+    final List<String> paths = new ArrayList<>();
+    paths.add(event.getPath());
+    if (event instanceof VFileMoveEvent) {
+      paths.add(((VFileMoveEvent)event).getOldPath());
+    }
+    else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent)event).isRename()) {
+      paths.add(((VFilePropertyChangeEvent)event).getOldPath());
+    }
+
+    for (String path : paths) {
+      if (isFontFile(path)) {
+        IconPreviewGenerator.invalidateFont(path);
+      }
+    }
+    if (event instanceof VFileContentChangeEvent) {
+      // The set of font files is unchanged.
+      return;
+    }
+    final VirtualFile file = event.getFile();
+    final boolean isDirectory = event instanceof VFileCreateEvent ? ((VFileCreateEvent)event).isDirectory()
+                                                                 : file != null && file.isDirectory();
+    for (String path : paths) {
+      if (isDirectory || isFontFile(path)) {
+        invalidate(path);
+      }
+    }
+  }
+
+  /**
+   * Discards the packages containing path, or contained in path.
+   */
+  private void invalidate(@NotNull String path) {
+    fontFiles.keySet().removeIf((packagePath) -> FileUtil.isAncestor(packagePath, path, false) ||
+                                                 FileUtil.isAncestor(path, packagePath, false));
+  }
+
+  private static boolean isFontFile(@NotNull String path) {
+    return "ttf".equals(FileUtilRt.getExtension(path));
+  }
+
+  @Override
+  public void dispose() {
+    fontFiles.clear();
+  }
+}
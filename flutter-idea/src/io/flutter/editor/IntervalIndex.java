@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable index of closed intervals supporting stabbing and overlap queries
+ * in O(log n + k) time where k is the number of matches.
+ * <p>
+ * The intervals are stored in flat arrays sorted by start. The array is
+ * treated as an implicit balanced binary search tree whose root is the middle
+ * element, and each node is augmented with the maximum end of its subtree so
+ * whole subtrees that end before the query can be skipped.
+ * <p>
+ * Matches are always reported in order of increasing start.
+ */
+public class IntervalIndex<T> {
+  private final int[] starts;
+  private final int[] ends;
+  private final int[] maxEnds;
+  private final Object[] values;
+
+  private IntervalIndex(int[] starts, int[] ends, Object[] values) {
+    this.starts = starts;
+    this.ends = ends;
+    this.values = values;
+    this.maxEnds = new int[starts.length];
+    computeMaxEnds(0, starts.length);
+  }
+
+  /**
+   * Builds an index over items using the closed interval [start, end] of
+   * each item.
+   * <p>
+   * Items with the same start keep their relative order.
+   */
+  @NotNull
+  public static <T> IntervalIndex<T> create(@NotNull List<T> items,
+                                            @NotNull ToIntFunction<? super T> start,
+                                            @NotNull ToIntFunction<? super T> end) {
+    final int size = items.size();
+    final int[] itemStarts = new int[size];
+    final int[] itemEnds = new int[size];
+    final Integer[] order = new Integer[size];
+    for (int i = 0; i < size; ++i) {
+      final T item = items.get(i);
+      itemStarts[i] = start.applyAsInt(item);
+      itemEnds[i] = end.applyAsInt(item);
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingInt((Integer i) -> itemStarts[i]));
+
+    final int[] starts = new int[size];
+    final int[] ends = new int[size];
+    final Object[] values = new Object[size];
+    for (int i = 0; i < size; ++i) {
+      starts[i] = itemStarts[order[i]];
+      ends[i] = itemEnds[order[i]];
+      values[i] = items.get(order[i]);
+    }
+    return new IntervalIndex<>(starts, ends, values);
+  }
+
+  public int size() {
+    return starts.length;
+  }
+
+  /**
+   * Reports every interval that contains point.
+   */
+  @NotNull
+  public List<T> findContaining(int point) {
+    return findOverlapping(point, point);
+  }
+
+  /**
+   * Reports every interval that shares at least one point with [start, end].
+   */
+  @NotNull
+  public List<T> findOverlapping(int start, int end) {
+    final List<T> results = new ArrayList<>();
+    findOverlapping(start, end, results::add);
+    return results;
+  }
+
+  public void findOverlapping(int start, int end, @NotNull Consumer<? super T> consumer) {
+    findOverlapping(0, starts.length, start, end, consumer);
+  }
+
+  /**
+   * Whether any interval shares at least one point with [start, end].
+   */
+  public boolean overlapsAny(int start, int end) {
+    int lo = 0;
+    int hi = starts.length;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (maxEnds[mid] < start) {
+        return false;
+      }
+      if (starts[mid] <= end && ends[mid] >= start) {
+        return true;
+      }
+      // The left subtree must be searched first if it could contain a match
+      // as the right subtree only contains intervals starting later.
+      final int leftMid = (lo + mid) >>> 1;
+      if (lo < mid && maxEnds[leftMid] >= start) {
+        hi = mid;
+      }
+      else if (starts[mid] <= end) {
+        lo = mid + 1;
+      }
+      else {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void findOverlapping(int lo, int hi, int start, int end, @NotNull Consumer<? super T> consumer) {
+    if (lo >= hi) {
+      return;
+    }
+    final int mid = (lo + hi) >>> 1;
+    if (maxEnds[mid] < start) {
+      // Every interval in this subtree ends before the query.
+      return;
+    }
+    findOverlapping(lo, mid, start, end, consumer);
+    if (starts[mid] > end) {
+      // This interval and every interval to its right start after the query.
+      return;
+    }
+    if (ends[mid] >= start) {
+      consumer.accept((T)values[mid]);
+    }
+    findOverlapping(mid + 1, hi, start, end, consumer);
+  }
+
+  private int computeMaxEnds(int lo, int hi) {
+    if (lo >= hi) {
+      return Integer.MIN_VALUE;
+    }
+    final int mid = (lo + hi) >>> 1;
+    final int max = Math.max(ends[mid], Math.max(computeMaxEnds(lo, mid), computeMaxEnds(mid + 1, hi)));
+    maxEnds[mid] = max;
+    return max;
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.stream.JsonReader;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import io.flutter.dart.FlutterOutlineReader;
+import org.dartlang.analysis.server.protocol.FlutterOutline;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LRU cache of {@link FlutterOutline}s keyed by file path and a hash of the
+ * file contents the outline was computed for.
+ * <p>
+ * Outlines are stored as gzipped JSON. Recently used outlines are kept in
+ * memory and every outline is also written to a directory under the IDE system
+ * path so it survives closing the file and restarting the IDE. Both tiers are
+ * bounded by bytes and only the outline of the latest contents of each file is
+ * kept.
+ */
+public class OutlineCache {
+  private static final Logger LOG = Logger.getInstance(OutlineCache.class);
+
+  private static final long DEFAULT_MEMORY_BYTES = 8 * 1024 * 1024;
+  private static final long DEFAULT_DISK_BYTES = 64 * 1024 * 1024;
+
+  /**
+   * Written at the start of each cache file so files from an incompatible
+   * format are ignored.
+   */
+  private static final int FORMAT_VERSION = 1;
+
+  @NotNull
+  public static OutlineCache getInstance() {
+    return ApplicationManager.getApplication().getService(OutlineCache.class);
+  }
+
+  /**
+   * Returns the hash used to check a cached outline matches contents.
+   */
+  public static long hashContents(@NotNull CharSequence contents) {
+    return Hashing.murmur3_128().hashUnencodedChars(contents).asLong();
+  }
+
+  private static class Entry {
+    final long contentHash;
+    @NotNull final byte[] data;
+
+    Entry(long contentHash, @NotNull byte[] data) {
+      this.contentHash = contentHash;
+      this.data = data;
+    }
+  }
+
+  @Nullable private final Path directory;
+  private final long maxMemoryBytes;
+  private final long maxDiskBytes;
+
+  /**
+   * In memory entries by path in least recently used order.
+   */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long memoryBytes;
+
+  @SuppressWarnings("unused")
+  public OutlineCache() {
+    this(Paths.get(PathManager.getSystemPath(), "flutter", "outlines"), DEFAULT_MEMORY_BYTES, DEFAULT_DISK_BYTES);
+  }
+
+  /**
+   * Creates a cache. If directory is null the cache is only kept in memory.
+   */
+  OutlineCache(@Nullable Path directory, long maxMemoryBytes, long maxDiskBytes) {
+    this.directory = directory;
+    this.maxMemoryBytes = maxMemoryBytes;
+    this.maxDiskBytes = maxDiskBytes;
+  }
+
+  /**
+   * Returns the cached outline for path if it was computed for contents with
+   * the given hash.
+   * <p>
+   * This may read from disk so should not be called on the UI thread.
+   */
+  @Nullable
+  public FlutterOutline get(@NotNull String path, long contentHash) {
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(path);
+    }
+    if (entry == null) {
+      entry = readFromDisk(path);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.contentHash == contentHash) {
+        addToMemory(path, entry);
+      }
+    }
+    if (entry.contentHash != contentHash) {
+      // The file has changed since the outline was cached.
+      return null;
+    }
+    try {
+      return decode(entry.data);
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.info("Discarding unreadable cached outline for " + path, e);
+      remove(path);
+      return null;
+    }
+  }
+
+  /**
+   * Caches outline as the outline of contents with the given hash, replacing
+   * any outline previously cached for path.
+   * <p>
+   * This writes to disk so should not be called on the UI thread.
+   */
+  public void put(@NotNull String path, long contentHash, @NotNull FlutterOutline outline) {
+    final Entry entry;
+    try {
+      entry = new Entry(contentHash, encode(outline));
+    }
+    catch (IOException e) {
+      LOG.info("Unable to cache outline for " + path, e);
+      return;
+    }
+    addToMemory(path, entry);
+    writeToDisk(path, entry);
+  }
+
+  public void remove(@NotNull String path) {
+    synchronized (entries) {
+      final Entry entry = entries.remove(path);
+      if (entry != null) {
+        memoryBytes -= entry.data.length;
+      }
+    }
+    if (directory != null) {
+      try {
+        Files.deleteIfExists(getCacheFile(path));
+      }
+      catch (IOException e) {
+        // Ignore; the entry will be evicted eventually.
+      }
+    }
+  }
+
+  long getMemoryBytes() {
+    synchronized (entries) {
+      return memoryBytes;
+    }
+  }
+
+  private void addToMemory(@NotNull String path, @NotNull Entry entry) {
+    synchronized (entries) {
+      final Entry previous = entries.put(path, entry);
+      if (previous != null) {
+        memoryBytes -= previous.data.length;
+      }
+      memoryBytes += entry.data.length;
+      final Iterator<Entry> iterator = entries.values().iterator();
+      while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+        memoryBytes -= iterator.next().data.length;
+        iterator.remove();
+      }
+    }
+  }
+
+  @NotNull
+  private Path getCacheFile(@NotNull String path) {
+    assert directory != null;
+    final String name = Hashing.murmur3_128().hashString(path, StandardCharsets.UTF_8).toString();
+    return directory.resolve(name + ".outline");
+  }
+
+  @Nullable
+  private Entry readFromDisk(@NotNull String path) {
+    if (directory == null) {
+      return null;
+    }
+    final Path file = getCacheFile(path);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != FORMAT_VERSION || !path.equals(in.readUTF())) {
+        return null;
+      }
+      final long contentHash = in.readLong();
+      final byte[] data = new byte[in.readInt()];
+      in.readFully(data);
+      // Track recency on disk so the least recently used files are pruned.
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      return new Entry(contentHash, data);
+    }
+    catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private void writeToDisk(@NotNull String path, @NotNull Entry entry) {
+    if (directory == null) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      final Path file = getCacheFile(path);
+      final Path temp = Files.createTempFile(directory, "outline", ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(path);
+        out.writeLong(entry.contentHash);
+        out.writeInt(entry.data.length);
+        out.write(entry.data);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      pruneDisk();
+    }
+    catch (IOException e) {
+      LOG.info("Unable to write cached outline for " + path, e);
+    }
+  }
+
+  /**
+   * Deletes the least recently used cache files until the directory is within
+   * its byte budget.
+   */
+  private void pruneDisk() throws IOException {
+    assert directory != null;
+    final List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.outline")) {
+      for (Path file : stream) {
+        files.add(file);
+      }
+    }
+    final Map<Path, Long> sizes = new HashMap<>();
+    final Map<Path, Long> times = new HashMap<>();
+    long total = 0;
+    for (Path file : files) {
+      try {
+        sizes.put(file, Files.size(file));
+        times.put(file, Files.getLastModifiedTime(file).toMillis());
+        total += sizes.get(file);
+      }
+      catch (IOException e) {
+        // Deleted concurrently.
+        sizes.put(file, 0L);
+        times.put(file, 0L);
+      }
+    }
+    if (total <= maxDiskBytes) {
+      return;
+    }
+    files.sort(Comparator.comparingLong(times::get));
+    for (Path file : files) {
+      if (total <= maxDiskBytes) {
+        break;
+      }
+      Files.deleteIfExists(file);
+      total -= sizes.get(file);
+    }
+  }
+
+  @NotNull
+  static byte[] encode(@NotNull FlutterOutline outline) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+      writer.write(outline.toJson().toString());
+    }
+    return bytes.toByteArray();
+  }
+
+  @NotNull
+  static FlutterOutline decode(@NotNull byte[] data) throws IOException {
+    try (JsonReader reader = new JsonReader(
+      new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(data)), StandardCharsets.UTF_8))) {
+      return FlutterOutlineReader.readOutline(reader);
+    }
+  }
+}
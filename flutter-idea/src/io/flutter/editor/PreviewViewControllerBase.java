@@ -535,9 +535,25 @@ public abstract class PreviewViewControllerBase extends WidgetViewController {
 
     final Dimension previewSize = getPreviewSize();
     final long startTime = System.currentTimeMillis();
+    final InspectorService.Location location = getLocation();
+    final int width = toPixels(previewSize.width);
+    final int height = toPixels(previewSize.height);
     // 0.7 is a tweak to ensure we do not try to download enormous screenshots.
+    final double maxPixelRatio = getDPI() * 0.7;
     final CompletableFuture<InspectorService.InteractiveScreenshot> screenshotFuture =
-      group.getScreenshotAtLocation(getLocation(), 10, toPixels(previewSize.width), toPixels(previewSize.height), getDPI() * 0.7);
+      group.getScreenshotAtLocation(location, 10, width, height, maxPixelRatio);
+    if (screenshot == null) {
+      // Show a downscaled version of a screenshot we already have, if any,
+      // until the screenshot for the current frame arrives.
+      group.safeWhenComplete(
+        group.getScreenshotPlaceholderAtLocation(location, width, height, maxPixelRatio),
+        (placeholder, error) -> {
+          if (error != null || placeholder == null || screenshot != null || screenshotFuture.isDone() || group.isDisposed()) return;
+          screenshot = placeholder;
+          computeScreenshotBounds();
+          forceRender();
+        });
+    }
     group.safeWhenComplete(
       screenshotFuture,
       (pair, e2) -> {
@@ -42,6 +42,7 @@ import io.flutter.run.FlutterReloadManager;
 import io.flutter.run.daemon.FlutterApp;
 import io.flutter.utils.AsyncRateLimiter;
 import io.flutter.utils.AsyncUtils;
+import io.flutter.utils.CoalescingRequestCache;
 import io.flutter.utils.EventStream;
 import net.miginfocom.swing.MigLayout;
 import org.dartlang.analysis.server.protocol.*;
@@ -204,6 +205,15 @@ public class PropertyEditorPanel extends SimpleToolWindowPanel {
   private boolean needHotReload;
   private CompletableFuture<List<FlutterWidgetProperty>> propertyFuture;
 
+  /**
+   * Widget descriptions keyed by file, widget range and document modification stamp.
+   * <p>
+   * Moving the caret within the same widget reuses the last description and at most one
+   * request is sent to the analysis server at a time.
+   */
+  private final CoalescingRequestCache<String, List<FlutterWidgetProperty>> widgetDescriptions =
+    new CoalescingRequestCache<>(16, 5000, (properties) -> !properties.isEmpty());
+
   public PropertyEditorPanel(
     @Nullable InspectorGroupManagerService inspectorGroupManagerService,
     @Nullable Project project,
@@ -363,8 +373,11 @@ public class PropertyEditorPanel extends SimpleToolWindowPanel {
       return;
     }
 
+    final Document document = FileDocumentManager.getInstance().getDocument(file);
+    final long modificationStamp = document != null ? document.getModificationStamp() : file.getModificationStamp();
+    final String key = file.getPath() + ":" + offset + ":" + outline.getLength() + ":" + modificationStamp;
     final CompletableFuture<List<FlutterWidgetProperty>> future =
-      flutterDartAnalysisService.getWidgetDescription(file, offset);
+      widgetDescriptions.request(key, () -> flutterDartAnalysisService.getWidgetDescription(file, offset));
     propertyFuture = future;
 
     if (propertyFuture == null) return;
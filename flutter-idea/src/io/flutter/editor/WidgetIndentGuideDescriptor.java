@@ -104,7 +104,14 @@ public class WidgetIndentGuideDescriptor {
     this.outlineNode = outlineNode;
   }
 
+  /**
+   * Stops tracking document edits.
+   * <p>
+   * The descriptor may be tracked again later; this happens when its guide is
+   * scrolled out of the materialized viewport and back in.
+   */
   void dispose() {
+    tracked = false;
     if (widget != null) {
       widget.dispose();
     }
@@ -112,8 +119,6 @@ public class WidgetIndentGuideDescriptor {
     for (OutlineLocation childLine : childLines) {
       childLine.dispose();
     }
-
-    childLines.clear();
   }
 
   /**
@@ -7,7 +7,9 @@ package io.flutter.editor;
 
 import com.intellij.openapi.editor.Document;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import static java.lang.Math.max;
@@ -29,28 +31,42 @@ import static java.lang.Math.min;
  */
 public class WidgetIndentHitTester {
   /**
-   * Whether each line overlaps a Widget Indent Guide.
+   * Sorted, disjoint ranges of lines that overlap a Widget Indent Guide.
+   * <p>
+   * Range i covers lines segments[2 * i] to segments[2 * i + 1] inclusive.
    */
-  private final boolean[] lines;
+  private final int[] segments;
 
   WidgetIndentHitTester(List<WidgetIndentGuideDescriptor> descriptors, Document document) {
     final int lineCount = document.getLineCount();
-    lines = new boolean[lineCount];
-    // TODO(jacobr): optimize using a more clever data structure.
+    final List<int[]> ranges = new ArrayList<>(descriptors.size());
     for (WidgetIndentGuideDescriptor descriptor : descriptors) {
-      // if (descriptor.parent)
-      {
-        final int last = min(lines.length, descriptor.endLine + 1);
-        for (int i = max(descriptor.startLine - 1, 0); i < last; i++) {
-          lines[i] = true;
-        }
+      final int first = max(descriptor.startLine - 1, 0);
+      final int last = min(lineCount - 1, descriptor.endLine);
+      if (first <= last) {
+        ranges.add(new int[]{first, last});
       }
     }
+    ranges.sort(Comparator.comparingInt((int[] range) -> range[0]));
+
+    // Merge overlapping and adjacent ranges.
+    final int[] merged = new int[ranges.size() * 2];
+    int count = 0;
+    for (int[] range : ranges) {
+      if (count > 0 && range[0] <= merged[count - 1] + 1) {
+        merged[count - 1] = max(merged[count - 1], range[1]);
+      }
+      else {
+        merged[count++] = range[0];
+        merged[count++] = range[1];
+      }
+    }
+    segments = Arrays.copyOf(merged, count);
   }
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(lines);
+    return Arrays.hashCode(segments);
   }
 
   @Override
@@ -58,7 +74,7 @@ public class WidgetIndentHitTester {
     if (this == o) return true;
     if (!(o instanceof WidgetIndentHitTester)) return false;
     final WidgetIndentHitTester other = (WidgetIndentHitTester)o;
-    return Arrays.equals(lines, other.lines);
+    return Arrays.equals(segments, other.segments);
   }
 
   // TODO(jacobr): we could be smarter about intersection detection by
@@ -70,13 +86,27 @@ public class WidgetIndentHitTester {
   // complaining about the missing regular indent guides for cases where the
   // guides overlap horizontally.
   public boolean intersects(LineRange lineRange) {
-    final int last = min(lines.length, lineRange.endLine + 1);
     // TODO(jacobr): why the -1 on startLine?
-    for (int i = max(lineRange.startLine - 1, 0); i < last; i++) {
-      if (lines[i]) {
-        return true;
+    final int first = max(lineRange.startLine - 1, 0);
+    final int last = lineRange.endLine;
+    if (first > last) {
+      return false;
+    }
+    // Binary search for the last segment starting at or before last.
+    int lo = 0;
+    int hi = segments.length / 2 - 1;
+    int found = -1;
+    while (lo <= hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (segments[2 * mid] <= last) {
+        found = mid;
+        lo = mid + 1;
+      }
+      else {
+        hi = mid - 1;
       }
     }
-    return false;
+    // Segments are disjoint so only that segment can reach first.
+    return found >= 0 && segments[2 * found + 1] >= first;
   }
 }
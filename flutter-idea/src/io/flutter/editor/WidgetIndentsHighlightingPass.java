@@ -7,6 +7,8 @@
 package io.flutter.editor;
 
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.*;
 import com.intellij.openapi.editor.colors.EditorColors;
@@ -27,6 +29,7 @@ import com.intellij.ui.Gray;
 import com.intellij.ui.JBColor;
 import com.intellij.ui.paint.LinePainter2D;
 import com.intellij.util.DocumentUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.text.CharArrayUtil;
 import com.jetbrains.lang.dart.analyzer.DartAnalysisServerService;
 import com.jetbrains.lang.dart.psi.DartCallExpression;
@@ -107,6 +110,18 @@ public class WidgetIndentsHighlightingPass {
 
   private static final Key<WidgetIndentsPassData> INDENTS_PASS_DATA_KEY = Key.create("INDENTS_PASS_DATA_KEY");
 
+  /**
+   * Files with at least this many widget indent guides only create
+   * highlighters for the guides near the visible area of the editor.
+   */
+  static final int VIEWPORT_MODE_MIN_DESCRIPTORS = 200;
+
+  /**
+   * Number of visible area heights above and below the viewport to create
+   * highlighters for so that scrolling a short distance is free.
+   */
+  private static final int VIEWPORT_MARGIN_SCREENS = 1;
+
   /**
    * When this debugging flag is true, problematic text ranges are reported.
    */
@@ -131,6 +146,28 @@ public class WidgetIndentsHighlightingPass {
       descriptor.dispose();
     }
 
+    /**
+     * Returns the offset of the first non-whitespace character on the line
+     * containing startOffset, skipping up past blank lines.
+     */
+    static int findIndentOffset(@NotNull Document doc, int startOffset) {
+      int off;
+      int startLine = doc.getLineNumber(startOffset);
+      final CharSequence chars = doc.getCharsSequence();
+      do {
+        final int start = doc.getLineStartOffset(startLine);
+        final int end = doc.getLineEndOffset(startLine);
+        off = CharArrayUtil.shiftForward(chars, start, end, " \t");
+        startLine--;
+      }
+      while (startLine > 1 && off < doc.getTextLength() && chars.charAt(off) == '\n');
+      return off;
+    }
+
+    boolean isSelected() {
+      return isSelected;
+    }
+
     boolean setSelection(boolean value) {
       if (value == isSelected) return false;
       isSelected = value;
@@ -152,18 +189,8 @@ public class WidgetIndentsHighlightingPass {
 
       final int endOffset = highlighter.getEndOffset();
 
-      int off;
-      int startLine = doc.getLineNumber(startOffset);
-      {
-        final CharSequence chars = doc.getCharsSequence();
-        do {
-          final int start = doc.getLineStartOffset(startLine);
-          final int end = doc.getLineEndOffset(startLine);
-          off = CharArrayUtil.shiftForward(chars, start, end, " \t");
-          startLine--;
-        }
-        while (startLine > 1 && off < doc.getTextLength() && chars.charAt(off) == '\n');
-      }
+      final int off = findIndentOffset(doc, startOffset);
+      final int startLine = doc.getLineNumber(off) - 1;
 
       final VisualPosition startPosition = editor.offsetToVisualPosition(off);
       final int indentColumn = startPosition.column;
@@ -474,6 +501,36 @@ public class WidgetIndentsHighlightingPass {
     }
   }
 
+  /**
+   * Widget indent guide geometry computed on a background thread.
+   */
+  private static class IndentsSnapshot {
+    @NotNull final FlutterOutline outline;
+    final long modificationStamp;
+    @NotNull final List<WidgetIndentGuideDescriptor> descriptors;
+    @NotNull final List<TextRangeDescriptorPair> ranges;
+    @NotNull final IntervalIndex<TextRangeDescriptorPair> rangesIndex;
+    @NotNull final WidgetIndentHitTester hitTester;
+
+    IndentsSnapshot(@NotNull FlutterOutline outline,
+                    long modificationStamp,
+                    @NotNull List<WidgetIndentGuideDescriptor> descriptors,
+                    @NotNull List<TextRangeDescriptorPair> ranges,
+                    @NotNull WidgetIndentHitTester hitTester) {
+      this.outline = outline;
+      this.modificationStamp = modificationStamp;
+      this.descriptors = Collections.unmodifiableList(descriptors);
+      this.ranges = Collections.unmodifiableList(ranges);
+      this.rangesIndex = createRangesIndex(ranges);
+      this.hitTester = hitTester;
+    }
+  }
+
+  @NotNull
+  private static IntervalIndex<TextRangeDescriptorPair> createRangesIndex(@NotNull List<TextRangeDescriptorPair> ranges) {
+    return IntervalIndex.create(ranges, (entry) -> entry.range.getStartOffset(), (entry) -> entry.range.getEndOffset());
+  }
+
   private final EditorEx myEditor;
   private final Document myDocument;
   private final Project myProject;
@@ -549,7 +606,15 @@ public class WidgetIndentsHighlightingPass {
   public static void onCaretPositionChanged(EditorEx editor, Caret caret) {
     final WidgetIndentsPassData data = getIndentsPassData(editor);
     if (data == null || data.highlighters == null) return;
-    for (RangeHighlighter h : data.highlighters) {
+    // Only the guides that are selected and the guides containing the caret
+    // can change selection state.
+    final Set<RangeHighlighter> candidates = new LinkedHashSet<>(data.selectedHighlighters);
+    if (caret != null) {
+      getHighlightersIndex(editor, data).findOverlapping(caret.getOffset(), caret.getOffset(), candidates::add);
+    }
+    final List<RangeHighlighter> selected = new ArrayList<>();
+    for (RangeHighlighter h : candidates) {
+      if (!h.isValid()) continue;
       if (h.getCustomRenderer() instanceof WidgetIndentsHighlightingPass.WidgetCustomHighlighterRenderer) {
         final WidgetIndentsHighlightingPass.WidgetCustomHighlighterRenderer renderer =
           (WidgetIndentsHighlightingPass.WidgetCustomHighlighterRenderer)h.getCustomRenderer();
@@ -557,8 +622,40 @@ public class WidgetIndentsHighlightingPass {
         if (changed) {
           editor.repaint(h.getStartOffset(), h.getEndOffset());
         }
+        if (renderer.isSelected()) {
+          selected.add(h);
+        }
       }
     }
+    data.selectedHighlighters = selected;
+  }
+
+  /**
+   * Returns an index of the offsets where the caret could select each
+   * highlighter, rebuilding it if the document has changed.
+   */
+  @NotNull
+  private static IntervalIndex<RangeHighlighter> getHighlightersIndex(@NotNull Editor editor, @NotNull WidgetIndentsPassData data) {
+    final Document doc = editor.getDocument();
+    if (data.highlightersIndex != null && data.highlightersIndexStamp == doc.getModificationStamp()) {
+      return data.highlightersIndex;
+    }
+    final List<RangeHighlighter> valid = new ArrayList<>();
+    for (RangeHighlighter h : data.highlighters) {
+      if (h.isValid() && h.getStartOffset() < doc.getTextLength()) {
+        valid.add(h);
+      }
+    }
+    // A guide can be selected from anywhere on the line its indent starts on
+    // through to the end of its range.
+    final Map<RangeHighlighter, int[]> bounds = new IdentityHashMap<>();
+    for (RangeHighlighter h : valid) {
+      final int line = doc.getLineNumber(WidgetCustomHighlighterRenderer.findIndentOffset(doc, h.getStartOffset()));
+      bounds.put(h, new int[]{doc.getLineStartOffset(line), max(h.getEndOffset(), doc.getLineEndOffset(line))});
+    }
+    data.highlightersIndex = IntervalIndex.create(valid, (h) -> bounds.get(h)[0], (h) -> bounds.get(h)[1]);
+    data.highlightersIndexStamp = doc.getModificationStamp();
+    return data.highlightersIndex;
   }
 
   private static WidgetIndentsPassData getIndentsPassData(Editor editor) {
@@ -584,6 +681,9 @@ public class WidgetIndentsHighlightingPass {
         disposeHighlighter(highlighter);
       }
     }
+    if (data.visibleAreaListener != null) {
+      editor.getScrollingModel().removeVisibleAreaListener(data.visibleAreaListener);
+    }
     setIndentsPassData(editor, null);
   }
 
@@ -611,29 +711,53 @@ public class WidgetIndentsHighlightingPass {
   /**
    * This method must be called on the main UI thread.
    * <p>
-   * Some of this logic would appear to be safe to call on a background thread but
-   * there are race conditions where the data will be out of order if the document
-   * is being edited while the code is executing.
-   * <p>
-   * If there are performance concerns we can work to perform more of this
-   * computation on a separate thread.
+   * The guide geometry is computed on a background thread against the
+   * current version of the document and then applied on the main UI thread.
+   * The computation is abandoned if the document is edited before it
+   * completes as the next outline from the analysis server will supersede
+   * it.
    */
   public void setOutline(FlutterOutline outline) {
     assert (outline != null);
 
     final WidgetIndentsPassData data = getIndentsPassData();
-    if (data.outline == outline) {
+    final long modificationStamp = myDocument.getModificationStamp();
+    if (data.outline == outline || (data.pendingOutline == outline && data.pendingModificationStamp == modificationStamp)) {
       // The outline has not changed. There is nothing we need to do.
       return;
     }
+    data.pendingOutline = outline;
+    data.pendingModificationStamp = modificationStamp;
+    setIndentsPassData(data);
 
-    final ArrayList<WidgetIndentGuideDescriptor> descriptors = new ArrayList<>();
+    ReadAction.nonBlocking(() -> computeSnapshot(outline, modificationStamp))
+      .expireWhen(() -> myEditor.isDisposed() || myDocument.getModificationStamp() != modificationStamp)
+      .finishOnUiThread(ModalityState.any(), this::applySnapshot)
+      .submit(AppExecutorUtil.getAppExecutorService());
+  }
 
+  @NotNull
+  private IndentsSnapshot computeSnapshot(@NotNull FlutterOutline outline, long modificationStamp) {
+    final ArrayList<WidgetIndentGuideDescriptor> descriptors = new ArrayList<>();
     buildWidgetDescriptors(descriptors, outline, null);
-    updateHitTester(new WidgetIndentHitTester(descriptors, myDocument), data);
+    final WidgetIndentHitTester hitTester = new WidgetIndentHitTester(descriptors, myDocument);
+    return new IndentsSnapshot(outline, modificationStamp, descriptors, computeRanges(descriptors), hitTester);
+  }
+
+  private void applySnapshot(@NotNull IndentsSnapshot snapshot) {
+    final WidgetIndentsPassData data = getIndentsPassData();
+    if (data.pendingOutline != snapshot.outline || myDocument.getModificationStamp() != snapshot.modificationStamp) {
+      // A newer outline has been requested or the guides were cleaned up.
+      return;
+    }
+    data.pendingOutline = null;
+    data.outline = snapshot.outline;
+    data.modificationStamp = snapshot.modificationStamp;
+    updateHitTester(snapshot.hitTester, data);
     // TODO(jacobr): we need to trigger a rerender of highlighters that will render differently due to the changes in highlighters?
-    data.myDescriptors = descriptors;
-    doCollectInformationUpdateOutline(data);
+    data.myDescriptors = snapshot.descriptors;
+    data.myRangesWidgets = snapshot.ranges;
+    data.rangesIndex = snapshot.rangesIndex;
     doApplyIndentInformationToEditor(data);
     setIndentsPassData(data);
     updatePreviewHighlighter(myEditor.getMarkupModel(), data);
@@ -667,38 +791,116 @@ public class WidgetIndentsHighlightingPass {
     assert myDocument != null;
 
     if (data.myDescriptors != null) {
-      final ArrayList<TextRangeDescriptorPair> ranges = new ArrayList<>();
-      for (WidgetIndentGuideDescriptor descriptor : data.myDescriptors) {
-        ProgressManager.checkCanceled();
-        final TextRange range;
-        if (descriptor.widget != null) {
-          range = descriptor.widget.getFullRange();
-        }
-        else {
-          final int endOffset =
-            descriptor.endLine < myDocument.getLineCount() ? myDocument.getLineStartOffset(descriptor.endLine) : myDocument.getTextLength();
-          range = new TextRange(myDocument.getLineStartOffset(descriptor.startLine), endOffset);
-        }
-        // TODO(jacobr): calling trackLocations multiple times is harmless
-        // but we should still audit where we are calling it so that we
-        // only call it once on each descriptor for typical use cases.
-        descriptor.trackLocations(myDocument);
-        ranges.add(new TextRangeDescriptorPair(range, descriptor));
+      data.myRangesWidgets = computeRanges(data.myDescriptors);
+      data.rangesIndex = createRangesIndex(data.myRangesWidgets);
+    }
+  }
+
+  /**
+   * Computes the ranges of the descriptors sorted by start offset.
+   * <p>
+   * Descriptors do not start tracking document edits until a highlighter is
+   * created for them.
+   */
+  @NotNull
+  private List<TextRangeDescriptorPair> computeRanges(@NotNull List<WidgetIndentGuideDescriptor> descriptors) {
+    final ArrayList<TextRangeDescriptorPair> ranges = new ArrayList<>();
+    for (WidgetIndentGuideDescriptor descriptor : descriptors) {
+      ProgressManager.checkCanceled();
+      final TextRange range;
+      if (descriptor.widget != null) {
+        range = descriptor.widget.getFullRange();
+      }
+      else {
+        final int endOffset =
+          descriptor.endLine < myDocument.getLineCount() ? myDocument.getLineStartOffset(descriptor.endLine) : myDocument.getTextLength();
+        range = new TextRange(myDocument.getLineStartOffset(descriptor.startLine), endOffset);
       }
-      ranges.sort((a, b) -> Segment.BY_START_OFFSET_THEN_END_OFFSET.compare(a.range, b.range));
-      data.myRangesWidgets = ranges;
+      ranges.add(new TextRangeDescriptorPair(range, descriptor));
     }
+    ranges.sort((a, b) -> Segment.BY_START_OFFSET_THEN_END_OFFSET.compare(a.range, b.range));
+    return ranges;
   }
 
   public void doApplyIndentInformationToEditor(WidgetIndentsPassData data) {
-    final MarkupModel mm = myEditor.getMarkupModel();
+    if (data.myRangesWidgets.size() >= VIEWPORT_MODE_MIN_DESCRIPTORS && data.visibleAreaListener == null) {
+      data.visibleAreaListener = (event) -> onVisibleAreaChanged(myEditor);
+      myEditor.getScrollingModel().addVisibleAreaListener(data.visibleAreaListener);
+    }
+    applyHighlighters(myEditor, data);
+  }
+
+  /**
+   * Create highlighters for the visible guides after the editor scrolls.
+   */
+  private static void onVisibleAreaChanged(@NotNull EditorEx editor) {
+    final WidgetIndentsPassData data = getIndentsPassData(editor);
+    if (data == null || data.materializedRange == null || editor.isDisposed()) {
+      return;
+    }
+    if (editor.getDocument().getModificationStamp() != data.modificationStamp) {
+      // The descriptors that have no highlighters do not track edits so their
+      // ranges are stale. The next outline will bring the guides up to date.
+      return;
+    }
+    if (data.materializedRange.contains(getViewportRange(editor, 0))) {
+      return;
+    }
+    applyHighlighters(editor, data);
+  }
+
+  /**
+   * Returns the range of whole lines visible in the editor expanded by
+   * marginScreens visible area heights in each direction.
+   */
+  @NotNull
+  static TextRange getViewportRange(@NotNull Editor editor, int marginScreens) {
+    final Document doc = editor.getDocument();
+    if (doc.getLineCount() == 0) {
+      return new TextRange(0, 0);
+    }
+    final Rectangle visible = editor.getScrollingModel().getVisibleArea();
+    final int margin = visible.height * marginScreens;
+    final int lastLine = doc.getLineCount() - 1;
+    final int startLine = min(editor.xyToLogicalPosition(new Point(0, max(0, visible.y - margin))).line, lastLine);
+    final int endLine = min(editor.xyToLogicalPosition(new Point(0, visible.y + visible.height + margin)).line, lastLine);
+    return new TextRange(doc.getLineStartOffset(startLine), doc.getLineEndOffset(max(startLine, endLine)));
+  }
+
+  /**
+   * Returns the ranges highlighters should exist for, updating
+   * data.materializedRange.
+   * <p>
+   * Small files get highlighters for every guide. Large files only get
+   * highlighters for the guides intersecting the visible area plus a margin.
+   */
+  @NotNull
+  private static List<TextRangeDescriptorPair> getRangesToMaterialize(@NotNull Editor editor, @NotNull WidgetIndentsPassData data) {
+    final List<TextRangeDescriptorPair> ranges = data.myRangesWidgets;
+    if (ranges.size() < VIEWPORT_MODE_MIN_DESCRIPTORS) {
+      data.materializedRange = null;
+      return ranges;
+    }
+    final TextRange window = getViewportRange(editor, VIEWPORT_MARGIN_SCREENS);
+    data.materializedRange = window;
+    if (data.rangesIndex == null) {
+      data.rangesIndex = createRangesIndex(ranges);
+    }
+    // Matches are reported in start order so they remain sorted the same way
+    // as myRangesWidgets.
+    return data.rangesIndex.findOverlapping(window.getStartOffset(), window.getEndOffset());
+  }
+
+  private static void applyHighlighters(@NotNull EditorEx editor, @NotNull WidgetIndentsPassData data) {
+    final MarkupModel mm = editor.getMarkupModel();
+    final Document document = editor.getDocument();
 
     final List<RangeHighlighter> oldHighlighters = data.highlighters;
     final List<RangeHighlighter> newHighlighters = new ArrayList<>();
 
     int curRange = 0;
 
-    final List<TextRangeDescriptorPair> ranges = data.myRangesWidgets;
+    final List<TextRangeDescriptorPair> ranges = getRangesToMaterialize(editor, data);
     if (oldHighlighters != null) {
       // after document change some range highlighters could have become
       // invalid, or the order could have been broken.
@@ -718,7 +920,7 @@ public class WidgetIndentsHighlightingPass {
 
         final int cmp = compare(entry, highlighter);
         if (cmp < 0) {
-          newHighlighters.add(createHighlighter(mm, entry, data));
+          newHighlighters.add(createHighlighter(mm, entry, document));
           curRange++;
         }
         else if (cmp > 0) {
@@ -741,14 +943,14 @@ public class WidgetIndentsHighlightingPass {
 
 
     final int startRangeIndex = curRange;
-    assert myDocument != null;
-    DocumentUtil.executeInBulk(myDocument, ranges.size() > 10000, () -> {
+    DocumentUtil.executeInBulk(document, ranges.size() > 10000, () -> {
       for (int i = startRangeIndex; i < ranges.size(); i++) {
-        newHighlighters.add(createHighlighter(mm, ranges.get(i), data));
+        newHighlighters.add(createHighlighter(mm, ranges.get(i), document));
       }
     });
 
     data.highlighters = newHighlighters;
+    data.highlightersIndex = null;
   }
 
   private DartAnalysisServerService getAnalysisService() {
@@ -845,7 +1047,6 @@ public class WidgetIndentsHighlightingPass {
         childrenOffsets.add(childLocation.getGuideOffset());
       }
 
-      final PsiElement element = psiFile.findElementAt(location.getGuideOffset());
       if (!childrenLocations.isEmpty()) {
         // The indent is only used for sorting and disambiguating descriptors
         // as at render time we will pick the real indent for the outline based
@@ -872,20 +1073,19 @@ public class WidgetIndentsHighlightingPass {
   }
 
   @NotNull
-  private RangeHighlighter createHighlighter(MarkupModel mm, TextRangeDescriptorPair entry, WidgetIndentsPassData data) {
+  private static RangeHighlighter createHighlighter(MarkupModel mm, TextRangeDescriptorPair entry, Document document) {
     final TextRange range = entry.range;
-    final FlutterSettings settings = FlutterSettings.getInstance();
-    if (range.getEndOffset() >= myDocument.getTextLength() && DEBUG_WIDGET_INDENTS) {
+    if (range.getEndOffset() >= document.getTextLength() && DEBUG_WIDGET_INDENTS) {
       LOG.info("Warning: highlighter extends past the end of document.");
     }
     final RangeHighlighter highlighter = mm.addRangeHighlighter(
       Math.max(range.getStartOffset(), 0),
-      Math.min(range.getEndOffset(), myDocument.getTextLength()),
+      Math.min(range.getEndOffset(), document.getTextLength()),
       HighlighterLayer.FIRST,
       null,
       HighlighterTargetArea.EXACT_RANGE
     );
-    highlighter.setCustomRenderer(new WidgetCustomHighlighterRenderer(entry.descriptor, myDocument));
+    highlighter.setCustomRenderer(new WidgetCustomHighlighterRenderer(entry.descriptor, document));
     return highlighter;
   }
 
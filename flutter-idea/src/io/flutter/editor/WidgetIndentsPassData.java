@@ -5,7 +5,9 @@
  */
 package io.flutter.editor;
 
+import com.intellij.openapi.editor.event.VisibleAreaListener;
 import com.intellij.openapi.editor.markup.RangeHighlighter;
+import com.intellij.openapi.util.TextRange;
 import org.dartlang.analysis.server.protocol.FlutterOutline;
 
 import java.util.Collections;
@@ -31,12 +33,33 @@ public class WidgetIndentsPassData {
    */
   java.util.List<TextRangeDescriptorPair> myRangesWidgets = Collections.emptyList();
 
+  /**
+   * Index of {@link #myRangesWidgets} used to find the guides intersecting
+   * the viewport.
+   */
+  IntervalIndex<TextRangeDescriptorPair> rangesIndex;
+
   /**
    * Highlighters that perform the actual rendering of the widget indent
    * guides.
    */
   List<RangeHighlighter> highlighters;
 
+  /**
+   * Index of the lines spanned by each highlighter used to find the guides
+   * affected by caret moves.
+   * <p>
+   * Highlighters move as the document is edited so the index is rebuilt
+   * lazily when the document modification stamp changes.
+   */
+  IntervalIndex<RangeHighlighter> highlightersIndex;
+  long highlightersIndexStamp;
+
+  /**
+   * Highlighters currently rendered as selected.
+   */
+  List<RangeHighlighter> selectedHighlighters = Collections.emptyList();
+
   /**
    * Source of truth for whether other UI overlaps with the widget indents.
    */
@@ -46,4 +69,26 @@ public class WidgetIndentsPassData {
    * Outline the widget indents are based on.
    */
   FlutterOutline outline;
+
+  /**
+   * Outline whose descriptors are being computed on a background thread.
+   */
+  FlutterOutline pendingOutline;
+  long pendingModificationStamp;
+
+  /**
+   * Document modification stamp the descriptors were computed against.
+   */
+  long modificationStamp;
+
+  /**
+   * Range of the document highlighters have been created for, or null if
+   * highlighters have been created for all descriptors.
+   */
+  TextRange materializedRange;
+
+  /**
+   * Listener that materializes highlighters as the editor scrolls.
+   */
+  VisibleAreaListener visibleAreaListener;
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.font;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent results of icon font discovery for each analyzed package.
+ * <p>
+ * Results map the names of classes defining icons to the files declaring them. They are keyed by package name,
+ * package version and a hash of the project's resolved dependencies so that they are reused as long as the
+ * dependencies do not change.
+ */
+public class FontPackageCache {
+  private static final Logger LOG = Logger.getInstance(FontPackageCache.class);
+
+  private static final int MAX_PACKAGES = 256;
+  private static final int FORMAT_VERSION = 1;
+
+  private static final Pattern LOCK_PACKAGE_PATTERN = Pattern.compile("^  ([-_.A-Za-z0-9]+):\\s*$");
+  private static final Pattern LOCK_VERSION_PATTERN = Pattern.compile("^    version:\\s*\"?([^\"\\s]+)\"?\\s*$");
+
+  @Nullable private final Path file;
+
+  /**
+   * Results by key in least recently used order.
+   */
+  private final LinkedHashMap<String, Map<String, Set<String>>> packages = new LinkedHashMap<>(16, 0.75f, true);
+  private boolean isLoaded = false;
+
+  /**
+   * Creates a cache stored in file, or only kept in memory if file is null.
+   */
+  public FontPackageCache(@Nullable Path file) {
+    this.file = file;
+  }
+
+  @NotNull
+  public static String getKey(@NotNull String packageName, @Nullable String version, @NotNull String dependencyHash) {
+    return packageName + "@" + (version == null ? "" : version) + "#" + dependencyHash;
+  }
+
+  /**
+   * Returns the icon classes found in the package with the given key, or null if it has not been analyzed.
+   */
+  @Nullable
+  public synchronized Map<String, Set<String>> get(@NotNull String key) {
+    load();
+    return packages.get(key);
+  }
+
+  public synchronized void put(@NotNull String key, @NotNull Map<String, Set<String>> iconClasses) {
+    load();
+    final Map<String, Set<String>> copy = new TreeMap<>();
+    for (Map.Entry<String, Set<String>> entry : iconClasses.entrySet()) {
+      copy.put(entry.getKey(), Collections.unmodifiableSet(new TreeSet<>(entry.getValue())));
+    }
+    packages.put(key, Collections.unmodifiableMap(copy));
+    final Iterator<String> iterator = packages.keySet().iterator();
+    while (packages.size() > MAX_PACKAGES && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+    save();
+  }
+
+  /**
+   * Returns the version of each package listed in the contents of a <code>pubspec.lock</code> file.
+   */
+  @NotNull
+  public static Map<String, String> parseLockedVersions(@NotNull String lockFile) {
+    final Map<String, String> versions = new HashMap<>();
+    boolean inPackages = false;
+    String packageName = null;
+    for (String line : lockFile.split("\r?\n")) {
+      if (!line.startsWith(" ")) {
+        inPackages = line.trim().equals("packages:");
+        packageName = null;
+        continue;
+      }
+      if (!inPackages) {
+        continue;
+      }
+      final Matcher packageMatcher = LOCK_PACKAGE_PATTERN.matcher(line);
+      if (packageMatcher.matches()) {
+        packageName = packageMatcher.group(1);
+        continue;
+      }
+      final Matcher versionMatcher = LOCK_VERSION_PATTERN.matcher(line);
+      if (packageName != null && versionMatcher.matches()) {
+        versions.put(packageName, versionMatcher.group(1));
+      }
+    }
+    return versions;
+  }
+
+  private void load() {
+    if (isLoaded) {
+      return;
+    }
+    isLoaded = true;
+    if (file == null || !Files.isRegularFile(file)) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      final JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+      if (json.get("version").getAsInt() != FORMAT_VERSION) {
+        return;
+      }
+      for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("packages").entrySet()) {
+        final Map<String, Set<String>> iconClasses = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> iconClass : entry.getValue().getAsJsonObject().entrySet()) {
+          final Set<String> paths = new TreeSet<>();
+          for (JsonElement path : iconClass.getValue().getAsJsonArray()) {
+            paths.add(path.getAsString());
+          }
+          iconClasses.put(iconClass.getKey(), Collections.unmodifiableSet(paths));
+        }
+        packages.put(entry.getKey(), Collections.unmodifiableMap(iconClasses));
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.info("Discarding unreadable icon font cache " + file, e);
+      packages.clear();
+    }
+  }
+
+  private void save() {
+    if (file == null) {
+      return;
+    }
+    final JsonObject packagesJson = new JsonObject();
+    for (Map.Entry<String, Map<String, Set<String>>> entry : packages.entrySet()) {
+      final JsonObject iconClasses = new JsonObject();
+      for (Map.Entry<String, Set<String>> iconClass : entry.getValue().entrySet()) {
+        final JsonArray paths = new JsonArray();
+        for (String path : iconClass.getValue()) {
+          paths.add(path);
+        }
+        iconClasses.add(iconClass.getKey(), paths);
+      }
+      packagesJson.add(entry.getKey(), iconClasses);
+    }
+    final JsonObject json = new JsonObject();
+    json.addProperty("version", FORMAT_VERSION);
+    json.add("packages", packagesJson);
+    try {
+      Files.createDirectories(file.getParent());
+      final Path temp = Files.createTempFile(file.getParent(), "icon-fonts", ".tmp");
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        writer.write(json.toString());
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException e) {
+      LOG.info("Unable to save icon font cache " + file, e);
+    }
+  }
+}
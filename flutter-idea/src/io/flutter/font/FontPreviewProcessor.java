@@ -5,10 +5,15 @@
  */
 package io.flutter.font;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
@@ -24,6 +29,7 @@ import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.FileTypeIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.ProjectAndLibrariesScope;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.jetbrains.lang.dart.DartFileType;
 import com.jetbrains.lang.dart.ide.index.DartLibraryIndex;
 import com.jetbrains.lang.dart.psi.DartComponentName;
@@ -34,6 +40,8 @@ import gnu.trove.THashMap;
 import gnu.trove.THashSet;
 import io.flutter.FlutterBundle;
 import io.flutter.editor.FlutterIconLineMarkerProvider;
+import io.flutter.pub.PubRoot;
+import io.flutter.pub.PubRoots;
 import io.flutter.settings.FlutterSettings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -45,7 +53,7 @@ import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -60,8 +68,15 @@ public class FontPreviewProcessor {
   // If there are triple quotes around a package URL they won't be recognized.
   private static final Pattern EXPORT_STATEMENT_PATTERN = Pattern.compile("^\\s*export\\s+[\"']([-_. $A-Za-z0-9/]+\\.dart)[\"'].*");
   private static final Pattern IMPORT_STATEMENT_PATTERN = Pattern.compile("^\\s*import\\s+[\"']([-_. $A-Za-z0-9/]+\\.dart)[\"'].*");
-  private static final Map<String, Set<String>> ANALYZED_PROJECT_FILES = new THashMap<>();
-  private static final Map<String, WorkItem> WORK_ITEMS = new THashMap<>();
+  /**
+   * The maximum number of packages analyzed at the same time.
+   */
+  private static final int MAX_PARALLEL_PACKAGES = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+  // Packages are analyzed in parallel so these are accessed from several threads.
+  // The files analyzed in each project, by their package and path; see analyzedFileKey().
+  private static final Map<String, Set<String>> ANALYZED_PROJECT_FILES = new ConcurrentHashMap<>();
+  private static final Map<String, Set<WorkItem>> WORK_ITEMS = new ConcurrentHashMap<>();
   private static Logger LOG = Logger.getInstance(FontPreviewProcessor.class);
 
   static {
@@ -70,6 +85,13 @@ public class FontPreviewProcessor {
     UNSUPPORTED_PACKAGES.put("material_design_icons_flutter", FlutterBundle.message("icon.preview.disallow.material_design_icons_flutter"));
   }
 
+  /**
+   * Results of previously analyzed packages, so that packages are only analyzed again when the project's
+   * dependencies change.
+   */
+  private final FontPackageCache packageCache =
+    new FontPackageCache(Paths.get(PathManager.getSystemPath(), "flutter", "icon-font-packages.json"));
+
   public static void analyze(@NotNull Project project) {
     final FontPreviewProcessor service = ApplicationManager.getApplication().getService(FontPreviewProcessor.class);
     service.generate(project);
@@ -86,7 +108,7 @@ public class FontPreviewProcessor {
     }
     LOG = FlutterSettings.getInstance().isVerboseLogging() ? Logger.getInstance(FontPreviewProcessor.class) : null;
     log("Analyzing project ", project.getName());
-    ANALYZED_PROJECT_FILES.put(project.getBasePath(), new THashSet<>());
+    ANALYZED_PROJECT_FILES.put(project.getBasePath(), ConcurrentHashMap.newKeySet());
     ProjectManager.getInstance().addProjectManagerListener(project, new ProjectManagerListener() {
       @Override
       public void projectClosed(@NotNull Project project) {
@@ -95,61 +117,102 @@ public class FontPreviewProcessor {
       }
     });
     final String projectPath = project.getBasePath();
-    final WorkItem item = new WorkItem(projectPath);
-    WORK_ITEMS.put(projectPath, item);
+    WORK_ITEMS.put(projectPath, ConcurrentHashMap.newKeySet());
 
     final String packagesText = FlutterSettings.getInstance().getFontPackages();
     final String[] packages = packagesText.split(PACKAGE_SEPARATORS);
-    item.addPackages(
-      Arrays.stream(packages)
-        .map(String::trim)
-        .filter((each) -> !each.isEmpty() || FontPreviewProcessor.UNSUPPORTED_PACKAGES.get(each) != null)
-        .collect(Collectors.toList()));
-    processItems(project);
+    final List<String> packageNames = Arrays.stream(packages)
+      .map(String::trim)
+      .filter((each) -> !each.isEmpty() && FontPreviewProcessor.UNSUPPORTED_PACKAGES.get(each) == null)
+      .distinct()
+      .collect(Collectors.toList());
+    processItems(project, packageNames);
   }
 
-  void processItems(@NotNull Project project) {
+  void processItems(@NotNull Project project, @NotNull List<String> packageNames) {
     final Task.Backgroundable task = new Task.Backgroundable(project, FlutterBundle.message("icon.preview.analysis"), true) {
 
       public void run(@NotNull final ProgressIndicator indicator) {
-        final AtomicBoolean isRunning = new AtomicBoolean(true);
         final long startTime = System.currentTimeMillis();
-        while (isRunning.get()) {
-          final String path = project.getBasePath();
-          final WorkItem item = WORK_ITEMS.get(path);
-          if (!processNextItem(project, item)) {
-            if (item.filesWithNoClasses.isEmpty()) {
-              // Finished, clean up and exit.
-              synchronized (this) {
-                if (item == WORK_ITEMS.get(path)) {
-                  WORK_ITEMS.remove(path);
-                }
-                isRunning.set(false);
-                if (System.currentTimeMillis() - startTime > 1000) {
-                  // If this analysis takes too long there is a good chance the highlighting pass completed before all
-                  // icon classes were found. That might cause some icons to not get displayed, so just run it again.
-                  DaemonCodeAnalyzer.getInstance(project).restart();
-                }
+        final String projectPath = project.getBasePath();
+        final Set<WorkItem> items = WORK_ITEMS.get(projectPath);
+        if (items == null) {
+          return;
+        }
+
+        // Reuse the results of packages analyzed with the same dependencies, e.g. before the project was closed.
+        final Dependencies dependencies = Dependencies.forProject(project);
+        final Map<String, String> keys = new LinkedHashMap<>();
+        boolean foundCachedIcons = false;
+        for (String packageName : packageNames) {
+          final String key = dependencies.getKey(packageName);
+          final Map<String, Set<String>> cached = key == null ? null : packageCache.get(key);
+          if (cached != null && allPathsExist(cached)) {
+            log("Using cached results for ", packageName);
+            for (Map.Entry<String, Set<String>> entry : cached.entrySet()) {
+              for (String path : entry.getValue()) {
+                addKnownPath(entry.getKey(), path);
+                foundCachedIcons = true;
               }
             }
-            else {
-              for (String key : item.filesWithNoClasses.keySet()) {
-                final PathInfo info = item.filesWithNoClasses.get(key);
-                final VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(info.filePath);
-                if (virtualFile != null) {
-                  item.addFileToCheck(info.packageName, info.filePath, virtualFile);
-                }
+          }
+          else {
+            keys.put(packageName, key);
+          }
+        }
+        if (foundCachedIcons) {
+          DaemonCodeAnalyzer.getInstance(project).restart();
+        }
+
+        // Analyze the remaining packages in parallel. Each package checkpoints its results when it completes so
+        // cancelled analysis only repeats the packages that did not complete.
+        final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("FontPreviewProcessor", MAX_PARALLEL_PACKAGES);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (Map.Entry<String, String> entry : keys.entrySet()) {
+          final WorkItem item = new WorkItem(projectPath);
+          item.addPackages(Collections.singletonList(entry.getKey()));
+          items.add(item);
+          futures.add(executor.submit(() -> analyzePackage(project, item, entry.getKey(), entry.getValue(), indicator)));
+        }
+        try {
+          for (Future<?> future : futures) {
+            while (true) {
+              indicator.checkCanceled();
+              try {
+                future.get(100, TimeUnit.MILLISECONDS);
+                break;
+              }
+              catch (TimeoutException ignored) {
               }
-              item.filesWithNoClasses.clear();
             }
           }
         }
+        catch (InterruptedException | ExecutionException e) {
+          log("Analysis failed", e);
+        }
+        finally {
+          executor.shutdownNow();
+        }
+
+        WORK_ITEMS.remove(projectPath, items);
+        if (!futures.isEmpty() && System.currentTimeMillis() - startTime > 1000) {
+          // If this analysis takes too long there is a good chance the highlighting pass completed before all
+          // icon classes were found. That might cause some icons to not get displayed, so just run it again.
+          DaemonCodeAnalyzer.getInstance(project).restart();
+        }
       }
 
       public void onCancel() {
         if (project.isDisposed()) {
           return;
         }
+        final Set<WorkItem> items = WORK_ITEMS.get(project.getBasePath());
+        if (items != null) {
+          for (WorkItem item : items) {
+            item.isCancelled = true;
+          }
+        }
+        // Packages that completed were saved to the package cache so will not be analyzed again.
         clearProjectCaches(project);
         DaemonCodeAnalyzer.getInstance(project).restart();
       }
@@ -158,6 +221,67 @@ public class FontPreviewProcessor {
     ProgressManager.getInstance().run(task);
   }
 
+  private void analyzePackage(@NotNull Project project,
+                              @NotNull WorkItem item,
+                              @NotNull String packageName,
+                              @Nullable String key,
+                              @NotNull ProgressIndicator indicator) {
+    try {
+      while (!indicator.isCanceled() && !item.isCancelled) {
+        if (processNextItem(project, item)) {
+          continue;
+        }
+        if (item.filesWithNoClasses.isEmpty()) {
+          // Finished.
+          if (key != null && !item.isCancelled) {
+            packageCache.put(key, item.iconClasses);
+          }
+          return;
+        }
+        for (String path : item.filesWithNoClasses.keySet()) {
+          final PathInfo info = item.filesWithNoClasses.get(path);
+          final VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(info.filePath);
+          if (virtualFile != null) {
+            item.addFileToCheck(info.packageName, info.filePath, virtualFile);
+          }
+        }
+        item.filesWithNoClasses.clear();
+      }
+    }
+    catch (ProcessCanceledException e) {
+      log("Analysis cancelled for ", packageName);
+    }
+    finally {
+      // Don't leave filtered copies of package files behind.
+      while (item.hasFilesToDelete() && !project.isDisposed()) {
+        ApplicationManager.getApplication().invokeAndWait(() -> deleteNextFile(project, item));
+      }
+    }
+  }
+
+  private static boolean allPathsExist(@NotNull Map<String, Set<String>> iconClasses) {
+    for (Set<String> paths : iconClasses.values()) {
+      for (String path : paths) {
+        if (!new File(path).exists()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void addKnownPath(@NotNull String className, @NotNull String path) {
+    synchronized (KnownPaths) {
+      final Set<String> knownPaths = KnownPaths.get(className);
+      if (knownPaths == null) {
+        KnownPaths.put(className, new THashSet<>(Collections.singleton(path)));
+      }
+      else {
+        knownPaths.add(path);
+      }
+    }
+  }
+
   // Analyze the next item in the queue. Leave it in the queue until analysis is complete.
   // Any switch to dumb mode during a read action or a write action will cancel this analysis,
   // which will restart with the same item.
@@ -167,7 +291,7 @@ public class FontPreviewProcessor {
     }
     final Application app = ApplicationManager.getApplication();
     if (item.hasFilesToRewrite()) {
-      app.invokeLater(() -> rewriteNextFile(project, item));
+      rewriteNextFile(project, item);
       return true;
     }
     else if (item.hasClasses()) {
@@ -187,7 +311,7 @@ public class FontPreviewProcessor {
       return true;
     }
     else if (item.hasFilesToDelete()) {
-      app.invokeLater(() -> deleteNextFile(project, item));
+      app.invokeAndWait(() -> deleteNextFile(project, item));
       return true;
     }
     return false;
@@ -217,7 +341,8 @@ public class FontPreviewProcessor {
     final String packageName = info.packageName;
     final String path = file.getPath();
     final int packageIndex = path.indexOf(packageName);
-    if (ANALYZED_PROJECT_FILES.get(item.projectPath).contains(path)) {
+    final Set<String> analyzedProjectFiles = ANALYZED_PROJECT_FILES.get(item.projectPath);
+    if (analyzedProjectFiles == null || analyzedProjectFiles.contains(analyzedFileKey(packageName, path))) {
       item.removeFileToRewrite();
       return;
     }
@@ -226,6 +351,7 @@ public class FontPreviewProcessor {
     final VirtualFile filteredFile = filterImports(file);
     if (filteredFile == null) {
       log("Cannot filter imports in ", file.getName());
+      item.removeFileToRewrite();
       return;
     }
     item.filesWithNoClasses.put(path, new PathInfo(packageName, path));
@@ -246,15 +372,16 @@ public class FontPreviewProcessor {
     final String path = info.originalPath;
     final VirtualFile file = info.file;
     final Set<String> analyzedProjectFiles = ANALYZED_PROJECT_FILES.get(item.projectPath);
-    if (analyzedProjectFiles.contains(path)) {
+    if (analyzedProjectFiles == null || !analyzedProjectFiles.add(analyzedFileKey(packageName, path))) {
+      // Already analyzed for this package.
       item.removeFileToAnalyze();
       return;
     }
     log("Analyzing file ", file.getPath(), " path ", path);
-    analyzedProjectFiles.add(path);
     final PsiFile psiFile = DumbService.getInstance(project).runReadActionInSmartMode(() -> PsiManager.getInstance(project).findFile(file));
     if (psiFile == null) {
       log("Cannot get PSI file for ", file.getName());
+      item.removeFileToAnalyze();
       return;
     }
     final Set<DartComponentName> classNames = new THashSet<>();
@@ -297,13 +424,8 @@ public class FontPreviewProcessor {
     if (path.contains(packageName)) {
       final String name = DumbService.getInstance(project).runReadActionInSmartMode(info.name::getName);
       log("Adding ", name, " -> ", path);
-      final Set<String> knownPaths = KnownPaths.get(name);
-      if (knownPaths == null) {
-        KnownPaths.put(name, new THashSet<>(Collections.singleton(path)));
-      }
-      else {
-        knownPaths.add(path);
-      }
+      addKnownPath(name, path);
+      item.iconClasses.computeIfAbsent(name, (k) -> new THashSet<>()).add(path);
       item.filesWithNoClasses.remove(path);
     }
     item.removeClassToCheck();
@@ -337,7 +459,8 @@ public class FontPreviewProcessor {
           if (next == null || isInSdk(nextPath = next.getPath())) {
             continue;
           }
-          if (ANALYZED_PROJECT_FILES.get(project.getBasePath()).contains(nextPath)) {
+          final Set<String> analyzedProjectFiles = ANALYZED_PROJECT_FILES.get(project.getBasePath());
+          if (analyzedProjectFiles == null || analyzedProjectFiles.contains(analyzedFileKey(packageName, nextPath))) {
             continue;
           }
           item.addFileToAnalyze(packageName, nextPath, next);
@@ -348,6 +471,7 @@ public class FontPreviewProcessor {
     catch (IOException e) {
       // ignored
       log("IOException", e);
+      item.removeFileToCheck();
     }
   }
 
@@ -358,18 +482,32 @@ public class FontPreviewProcessor {
         try {
           log("Deleting file ", filteredFile.getName());
           filteredFile.delete(this); // need write access
-          item.removeFileToDelete();
         }
         catch (IOException e) {
           // ignored
         }
+        item.removeFileToDelete();
       });
     }
   }
 
+  /**
+   * Files are tracked per package, since packages are analyzed in parallel and each package's results are cached
+   * separately. A file skipped because another package analyzed it would be missing from this package's results.
+   */
+  @NotNull
+  private static String analyzedFileKey(@NotNull String packageName, @NotNull String path) {
+    return packageName + ":" + path;
+  }
+
   private static void clearProjectCaches(@NotNull Project project) {
     ANALYZED_PROJECT_FILES.remove(project.getBasePath());
-    WORK_ITEMS.remove(project.getBasePath());
+    final Set<WorkItem> items = WORK_ITEMS.remove(project.getBasePath());
+    if (items != null) {
+      for (WorkItem item : items) {
+        item.isCancelled = true;
+      }
+    }
     FlutterIconLineMarkerProvider.initialize();
   }
 
@@ -461,8 +599,12 @@ public class FontPreviewProcessor {
     final Queue<ClassInfo> classesToAnalyze = new LinkedList<>();
     final Queue<FileInfo> filesToCheck = new LinkedList<>();
     final Map<String, PathInfo> filesWithNoClasses = new THashMap<>();
+    /**
+     * Files declaring each icon class found in the package.
+     */
+    final Map<String, Set<String>> iconClasses = new THashMap<>();
     final String projectPath;
-    boolean isCancelled = false;
+    volatile boolean isCancelled = false;
 
     WorkItem(String packageName) {
       this.projectPath = packageName;
@@ -594,6 +736,55 @@ public class FontPreviewProcessor {
     }
   }
 
+  /**
+   * The resolved dependencies of a project, used to check whether cached package results are still valid.
+   */
+  static class Dependencies {
+    @NotNull private final Map<String, String> versions;
+    @Nullable private final String hash;
+
+    private Dependencies(@NotNull Map<String, String> versions, @Nullable String hash) {
+      this.versions = versions;
+      this.hash = hash;
+    }
+
+    @NotNull
+    static Dependencies forProject(@NotNull Project project) {
+      final List<PubRoot> roots = ReadAction.compute(() -> project.isDisposed() ? Collections.emptyList() : PubRoots.forProject(project));
+      final Map<String, String> versions = new HashMap<>();
+      final Hasher hasher = Hashing.murmur3_128().newHasher();
+      boolean found = false;
+      for (PubRoot root : roots) {
+        final VirtualFile lockFile = root.getRoot().findChild("pubspec.lock");
+        final VirtualFile dependencyFile = lockFile != null ? lockFile : root.getPackageConfigFile();
+        if (dependencyFile == null) {
+          continue;
+        }
+        try {
+          final String contents = new String(dependencyFile.contentsToByteArray(), StandardCharsets.UTF_8);
+          hasher.putString(root.getPath(), StandardCharsets.UTF_8);
+          hasher.putString(contents, StandardCharsets.UTF_8);
+          if (dependencyFile == lockFile) {
+            versions.putAll(FontPackageCache.parseLockedVersions(contents));
+          }
+          found = true;
+        }
+        catch (IOException e) {
+          log("Cannot read ", dependencyFile.getPath());
+        }
+      }
+      return new Dependencies(versions, found ? hasher.hash().toString() : null);
+    }
+
+    /**
+     * Returns the key of packageName in the {@link FontPackageCache}, or null if the dependencies are unknown.
+     */
+    @Nullable
+    String getKey(@NotNull String packageName) {
+      return hash == null ? null : FontPackageCache.getKey(packageName, versions.get(packageName), hash);
+    }
+  }
+
   static class ClassInfo {
     private final String packageName;
     private final String filePath;
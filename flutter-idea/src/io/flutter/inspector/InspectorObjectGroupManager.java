@@ -69,6 +69,13 @@ public class InspectorObjectGroupManager {
     return next;
   }
 
+  /**
+   * Whether data for a candidate next frame is currently being loaded.
+   */
+  public boolean hasNext() {
+    return next != null;
+  }
+
   public void clear(boolean isolateStopped) {
     if (isolateStopped) {
       // The Dart VM will handle GCing the underlying memory.
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.inspector;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Speculatively loads the details subtree for the node the user is likely to
+ * select next.
+ * <p>
+ * Data is loaded into the next group of an {@link InspectorObjectGroupManager}
+ * so that when the user actually selects the node, the owner of the group
+ * manager can claim the pending request and call promoteNext() instead of
+ * paying for another round trip to the device. Prefetches are short lived:
+ * any new prefetch request, or a call to {@link #cancel()}, discards the
+ * previous one.
+ * <p>
+ * Methods from this class must only be invoked from the main UI thread.
+ */
+public class InspectorPrefetcher {
+  /**
+   * Prefetched data older than this is considered stale and is discarded
+   * rather than claimed.
+   */
+  static final long MAX_PREFETCH_AGE_MS = 2000;
+
+  @NotNull private final InspectorObjectGroupManager groups;
+
+  private boolean active;
+  private InspectorInstanceRef pendingRef;
+  private CompletableFuture<DiagnosticsNode> pendingDetails;
+  private long pendingStartTime;
+
+  public InspectorPrefetcher(@NotNull InspectorObjectGroupManager groups) {
+    this.groups = groups;
+  }
+
+  /**
+   * Whether the next group of the underlying group manager is currently
+   * owned by a prefetch.
+   */
+  public boolean isPrefetching() {
+    return active;
+  }
+
+  /**
+   * Start loading the details subtree for node.
+   */
+  public void prefetch(@Nullable DiagnosticsNode node) {
+    if (node == null || node.isProperty() || node.getDartDiagnosticRef().getId() == null) {
+      cancel();
+      return;
+    }
+    final InspectorInstanceRef ref = node.getDartDiagnosticRef();
+    if (ref.equals(pendingRef) && !isStale()) {
+      // Already prefetching this node.
+      return;
+    }
+    cancel();
+    final InspectorService.ObjectGroup group = groups.getNext();
+    active = true;
+    pendingRef = ref;
+    pendingStartTime = System.currentTimeMillis();
+    pendingDetails = group.getDetailsSubtree(node);
+  }
+
+  /**
+   * Returns the pending details subtree future for node if it was prefetched
+   * and is still fresh, otherwise returns null.
+   * <p>
+   * Once claimed, the prefetch is owned by the caller who is responsible for
+   * calling promoteNext() or cancelNext() on the group manager.
+   */
+  @Nullable
+  public CompletableFuture<DiagnosticsNode> claimDetailsSubtree(@Nullable DiagnosticsNode node) {
+    if (node == null || pendingDetails == null || isStale() || !node.getDartDiagnosticRef().equals(pendingRef)) {
+      cancel();
+      return null;
+    }
+    final CompletableFuture<DiagnosticsNode> details = pendingDetails;
+    if (details.isCompletedExceptionally()) {
+      cancel();
+      return null;
+    }
+    release();
+    return details;
+  }
+
+  /**
+   * Discard any pending prefetch freeing the objects it allocated.
+   */
+  public void cancel() {
+    if (!active) {
+      return;
+    }
+    release();
+    groups.cancelNext();
+  }
+
+  /**
+   * Forget any pending prefetch without touching the group manager.
+   * <p>
+   * Use this when the owner of the group manager is clearing it directly.
+   */
+  public void clear() {
+    release();
+  }
+
+  private boolean isStale() {
+    return System.currentTimeMillis() - pendingStartTime > MAX_PREFETCH_AGE_MS;
+  }
+
+  private void release() {
+    active = false;
+    pendingRef = null;
+    pendingDetails = null;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.inspector;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.flutter.utils.AsyncUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Collects read only per-node inspector service extension calls made within a
+ * single UI tick and issues them together.
+ * <p>
+ * {@link EvalOnDartLibrary} only allows one pending request at a time so
+ * expanding a large tree issues one round trip per node. The calls collected
+ * by this class occupy a single slot in that request queue and are pipelined
+ * back-to-back on the wire, so a batch costs roughly one round trip. The
+ * results fan back out to the futures returned to each caller. Identical calls
+ * within a batch are only sent once.
+ * <p>
+ * The widget inspector service extension does not currently expose a batched
+ * method so pipelining is always used.
+ * <p>
+ * Each call times out on its own, so one slow node doesn't fail the rest of
+ * its batch.
+ */
+class InspectorRequestBatcher {
+  /**
+   * Service extension methods that only read state for a single node and so
+   * are safe to reorder relative to each other.
+   */
+  private static final Set<String> BATCHABLE_METHODS = ImmutableSet.of(
+    "getChildren",
+    "getChildrenSummaryTree",
+    "getChildrenDetailsSubtree",
+    "getProperties",
+    "getDetailsSubtree"
+  );
+
+  private static class PendingCall {
+    final InspectorService.ObjectGroup group;
+    final String methodName;
+    final JsonObject params;
+    final CompletableFuture<JsonElement> result = new CompletableFuture<>();
+    volatile boolean sent;
+
+    PendingCall(InspectorService.ObjectGroup group, String methodName, JsonObject params) {
+      this.group = group;
+      this.methodName = methodName;
+      this.params = params;
+    }
+  }
+
+  @NotNull private final EvalOnDartLibrary library;
+  @NotNull private final BiFunction<String, JsonObject, CompletableFuture<JsonElement>> invoker;
+
+  private final Object lock = new Object();
+  private Map<String, PendingCall> pending = new LinkedHashMap<>();
+  private boolean flushScheduled = false;
+
+  InspectorRequestBatcher(@NotNull EvalOnDartLibrary library,
+                          @NotNull BiFunction<String, JsonObject, CompletableFuture<JsonElement>> invoker) {
+    this.library = library;
+    this.invoker = invoker;
+  }
+
+  static boolean isBatchable(String methodName) {
+    return BATCHABLE_METHODS.contains(methodName);
+  }
+
+  /**
+   * Add a call to the current batch, scheduling the batch to be flushed at the
+   * end of the current UI tick.
+   */
+  CompletableFuture<JsonElement> enqueue(@NotNull InspectorService.ObjectGroup group,
+                                         @NotNull String methodName,
+                                         @NotNull JsonObject params) {
+    if (group.isDisposed()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    final String key = group.groupName + ":" + methodName + ":" + params;
+    final boolean scheduleFlush;
+    final PendingCall call;
+    synchronized (lock) {
+      final PendingCall existing = pending.get(key);
+      if (existing != null) {
+        return existing.result;
+      }
+      call = new PendingCall(group, methodName, params);
+      pending.put(key, call);
+      scheduleFlush = !flushScheduled;
+      flushScheduled = true;
+    }
+    if (scheduleFlush) {
+      // Flush even while a modal dialog is showing, so inspector requests don't stall until it closes.
+      AsyncUtils.invokeLaterAnyModality(this::flush);
+    }
+    return call.result;
+  }
+
+  private void flush() {
+    final List<PendingCall> calls;
+    synchronized (lock) {
+      calls = new ArrayList<>(pending.values());
+      pending = new LinkedHashMap<>();
+      flushScheduled = false;
+    }
+    if (calls.isEmpty()) {
+      return;
+    }
+
+    final CompletableFuture<Void> batchDone = library.addRequest(null, "batch of " + calls.size() + " requests", () -> {
+      final List<CompletableFuture<JsonElement>> futures = new ArrayList<>();
+      for (PendingCall call : calls) {
+        // Skip calls from groups disposed while the batch was waiting.
+        if (call.group.isDisposed()) {
+          call.result.complete(null);
+          continue;
+        }
+        call.sent = true;
+        final CompletableFuture<JsonElement> future = invoker.apply(call.methodName, call.params)
+          .orTimeout(EvalOnDartLibrary.DEFAULT_REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        // Track the future returned by whenComplete so the batch is only done
+        // once the result has been handed to the caller.
+        futures.add(future.whenComplete((value, error) -> {
+          if (error != null) {
+            call.result.completeExceptionally(error);
+          }
+          else {
+            call.result.complete(value);
+          }
+        }));
+      }
+      // The batch is done once every call has completed, whether or not it
+      // succeeded.
+      return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).handle((ignored, error) -> null);
+    });
+
+    batchDone.whenComplete((ignored, error) -> {
+      // The request queue may have been disposed before the batch was sent.
+      // Make sure no caller waits forever. Calls that were sent complete on
+      // their own or time out, even if the batch as a whole timed out.
+      for (PendingCall call : calls) {
+        if (!call.sent && !call.result.isDone()) {
+          if (error != null) {
+            call.result.completeExceptionally(error);
+          }
+          else {
+            call.result.complete(null);
+          }
+        }
+      }
+    });
+  }
+}
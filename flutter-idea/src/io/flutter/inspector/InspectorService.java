@@ -51,14 +51,11 @@ import org.dartlang.vm.service.element.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
@@ -195,6 +192,63 @@ public class InspectorService implements Disposable {
   @NotNull private final Set<InspectorServiceClient> clients;
   @NotNull private final EvalOnDartLibrary inspectorLibrary;
   @NotNull private final Set<String> supportedServiceMethods;
+  @NotNull private final ScreenshotCache screenshotCache = new ScreenshotCache();
+  @NotNull private final InspectorRequestBatcher requestBatcher;
+
+  /**
+   * Number of Flutter.Frame events seen so far. Used to determine whether
+   * cached data describing what is rendered on the device is stale.
+   */
+  private volatile int frameNumber = 0;
+
+  /**
+   * Dart property values for inspector values keyed by value id and property
+   * names.
+   * <p>
+   * Inspector value ids are stable across object groups so these caches
+   * survive object group rotation. Property values may change whenever a
+   * frame is rendered so this cache is cleared on every Flutter.Frame event
+   * as well as on reloads and restarts.
+   */
+  private final Map<String, CachedValueProperties> valuePropertiesCache = new ConcurrentHashMap<>();
+
+  /**
+   * Allowed values of enum properties keyed by value id.
+   * <p>
+   * The set of values of an enum can only change when code is reloaded so
+   * this cache is only cleared on reloads and restarts.
+   */
+  private final Map<String, CachedValueProperties> enumValuesCache = new ConcurrentHashMap<>();
+
+  private final FlutterApp.FlutterAppListener appListener = new FlutterApp.FlutterAppListener() {
+    @Override
+    public void notifyAppReloaded() {
+      invalidateValueProperties(true);
+    }
+
+    @Override
+    public void notifyAppRestarted() {
+      invalidateValueProperties(true);
+    }
+  };
+
+  private static class CachedValueProperties {
+    final ObjectGroup group;
+    final CompletableFuture<Map<String, InstanceRef>> future;
+
+    CachedValueProperties(ObjectGroup group, CompletableFuture<Map<String, InstanceRef>> future) {
+      this.group = group;
+      this.future = future;
+    }
+
+    boolean isUsable() {
+      if (future.isCompletedExceptionally()) {
+        return false;
+      }
+      // A pending request from a disposed group will complete with null.
+      return future.isDone() || !group.isDisposed();
+    }
+  }
 
   private final StreamSubscription<Boolean> setPubRootDirectoriesSubscription;
 
@@ -248,6 +302,7 @@ public class InspectorService implements Disposable {
     this.debugProcess = debugProcess;
     this.inspectorLibrary = inspectorLibrary;
     this.supportedServiceMethods = supportedServiceMethods;
+    this.requestBatcher = new InspectorRequestBatcher(inspectorLibrary, this::invokeServiceExtensionHelper);
 
     clients = new HashSet<>();
 
@@ -264,6 +319,7 @@ public class InspectorService implements Disposable {
     });
 
     vmService.streamListen(VmService.EXTENSION_STREAM_ID, VmServiceConsumers.EMPTY_SUCCESS_CONSUMER);
+    app.addStateListener(appListener);
 
     assert (app.getVMServiceManager() != null);
     setPubRootDirectoriesSubscription =
@@ -347,6 +403,18 @@ public class InspectorService implements Disposable {
     return debugProcess.getApp();
   }
 
+  /**
+   * Cache of decoded screenshots shared by all clients of this service.
+   */
+  @NotNull
+  public ScreenshotCache getScreenshotCache() {
+    return screenshotCache;
+  }
+
+  public int getFrameNumber() {
+    return frameNumber;
+  }
+
   public ObjectGroup createObjectGroup(String debugName) {
     return new ObjectGroup(this, debugName);
   }
@@ -360,6 +428,42 @@ public class InspectorService implements Disposable {
   public void dispose() {
     Disposer.dispose(inspectorLibrary);
     Disposer.dispose(setPubRootDirectoriesSubscription);
+    screenshotCache.clear();
+    app.removeStateListener(appListener);
+    invalidateValueProperties(true);
+  }
+
+  private void invalidateValueProperties(boolean codeChanged) {
+    valuePropertiesCache.clear();
+    if (codeChanged) {
+      enumValuesCache.clear();
+    }
+  }
+
+  /**
+   * Returns the cached value properties for key, loading them with the
+   * specified group if they are not cached.
+   * <p>
+   * Only successful non-null results are kept in the cache.
+   */
+  private CompletableFuture<Map<String, InstanceRef>> getCachedValueProperties(
+    Map<String, CachedValueProperties> cache,
+    String key,
+    ObjectGroup group,
+    Supplier<CompletableFuture<Map<String, InstanceRef>>> loader) {
+    final CachedValueProperties cached = cache.get(key);
+    if (cached != null && cached.isUsable()) {
+      return cached.future;
+    }
+    final CompletableFuture<Map<String, InstanceRef>> future = loader.get();
+    final CachedValueProperties entry = new CachedValueProperties(group, future);
+    cache.put(key, entry);
+    future.whenComplete((value, error) -> {
+      if (value == null || error != null) {
+        cache.remove(key, entry);
+      }
+    });
+    return future;
   }
 
   public CompletableFuture<?> forceRefresh() {
@@ -410,6 +514,8 @@ public class InspectorService implements Disposable {
       }
       case VmService.EXTENSION_STREAM_ID: {
         if ("Flutter.Frame".equals(event.getExtensionKind())) {
+          frameNumber++;
+          invalidateValueProperties(false);
           ApplicationManager.getApplication().invokeLater(() -> {
             for (InspectorServiceClient client : clients) {
               client.onFlutterFrame();
@@ -677,6 +783,11 @@ public class InspectorService implements Disposable {
 
     // All calls to invokeVmServiceExtension bottom out to this call.
     CompletableFuture<JsonElement> invokeVmServiceExtension(String methodName, JsonObject paramsMap) {
+      if (InspectorRequestBatcher.isBatchable(methodName)) {
+        // Per-node reads such as expanding children are issued together with
+        // other reads made in the same UI tick.
+        return requestBatcher.enqueue(this, methodName, paramsMap);
+      }
       return getInspectorLibrary().addRequest(
         this,
         methodName,
@@ -885,28 +996,42 @@ public class InspectorService implements Disposable {
       params.addProperty("height", height);
       params.addProperty("maxPixelRatio", maxPixelRatio);
       params.addProperty("groupName", groupName);
+      final int frame = getFrameNumber();
       return nullIfDisposed(() -> {
-        return inspectorLibrary.invokeServiceMethod("ext.flutter.inspector.screenshotAtLocation", params).thenApplyAsync(
+        return inspectorLibrary.invokeServiceMethod("ext.flutter.inspector.screenshotAtLocation", params).thenComposeAsync(
           (JsonObject response) -> {
             if (response == null || response.get("result").isJsonNull()) {
               // No screenshot available.
-              return null;
+              return CompletableFuture.completedFuture(null);
             }
             final JsonObject result = response.getAsJsonObject("result");
-            Screenshot screenshot = null;
+            final ArrayList<DiagnosticsNode> boxes = parseDiagnosticsNodesHelper(result.get("boxes"), null);
+            final ArrayList<DiagnosticsNode> elements = parseDiagnosticsNodesHelper(result.get("elements"), null);
             final JsonElement screenshotJson = result.get("screenshot");
-            if (screenshotJson != null && !screenshotJson.isJsonNull()) {
-              screenshot = getScreenshotFromJson(screenshotJson.getAsJsonObject());
+            if (screenshotJson == null || screenshotJson.isJsonNull()) {
+              return CompletableFuture.completedFuture(new InteractiveScreenshot(null, boxes, elements));
             }
-            return new InteractiveScreenshot(
-              screenshot,
-              parseDiagnosticsNodesHelper(result.get("boxes"), null),
-              parseDiagnosticsNodesHelper(result.get("elements"), null)
-            );
+            final String elementId = elements != null && !elements.isEmpty() ? elements.get(0).getValueRef().getId() : null;
+            final ScreenshotCache.Key key = ScreenshotCache.Key.forLocation(location, elementId, width, height, maxPixelRatio, frame);
+            return screenshotCache.decode(key, screenshotJson.getAsJsonObject())
+              .thenApply((Screenshot screenshot) -> new InteractiveScreenshot(screenshot, boxes, elements));
           });
       });
     }
 
+    /**
+     * Returns a downscaled version of a previously loaded screenshot of the
+     * widget at location to display while the screenshot for the current frame
+     * is loading.
+     */
+    public CompletableFuture<Screenshot> getScreenshotPlaceholderAtLocation(Location location,
+                                                                           int width,
+                                                                           int height,
+                                                                           double maxPixelRatio) {
+      return screenshotCache.getPlaceholder(
+        ScreenshotCache.Key.forLocation(location, null, width, height, maxPixelRatio, getFrameNumber()));
+    }
+
     public CompletableFuture<Screenshot> getScreenshot(InspectorInstanceRef ref, int width, int height, double maxPixelRatio) {
       final JsonObject params = new JsonObject();
       params.addProperty("width", width);
@@ -914,38 +1039,26 @@ public class InspectorService implements Disposable {
       params.addProperty("maxPixelRatio", maxPixelRatio);
       params.addProperty("id", ref.getId());
 
+      // The same widget rendered at the same size for the same frame is
+      // identical so there is no need to ask the device again.
+      final ScreenshotCache.Key key = ScreenshotCache.Key.forValue(ref, width, height, maxPixelRatio, getFrameNumber());
+      final Screenshot cached = screenshotCache.getNow(key);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(cached);
+      }
+
       return nullIfDisposed(
-        () -> inspectorLibrary.invokeServiceMethod("ext.flutter.inspector.screenshot", params).thenApplyAsync((JsonObject response) -> {
+        () -> inspectorLibrary.invokeServiceMethod("ext.flutter.inspector.screenshot", params).thenComposeAsync((JsonObject response) -> {
           if (response == null || response.get("result").isJsonNull()) {
             // No screenshot avaiable.
-            return null;
+            return CompletableFuture.completedFuture(null);
           }
           final JsonObject result = response.getAsJsonObject("result");
 
-          return getScreenshotFromJson(result);
+          return screenshotCache.decode(key, result);
         }));
     }
 
-    @NotNull
-    private Screenshot getScreenshotFromJson(JsonObject result) {
-      final String imageString = result.getAsJsonPrimitive("image").getAsString();
-      // create a buffered image
-      final Base64.Decoder decoder = Base64.getDecoder();
-      final byte[] imageBytes = decoder.decode(imageString);
-      final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(imageBytes);
-      final BufferedImage image;
-      try {
-        image = ImageIO.read(byteArrayInputStream);
-        byteArrayInputStream.close();
-      }
-      catch (IOException e) {
-        throw new RuntimeException("Error decoding image: " + e.getMessage());
-      }
-
-      final TransformedRect transformedRect = new TransformedRect(result.getAsJsonObject("transformedRect"));
-      return new Screenshot(image, transformedRect);
-    }
-
     CompletableFuture<InstanceRef> invokeEval(String methodName, InspectorInstanceRef arg) {
       return nullIfDisposed(() -> {
         if (arg == null || arg.getId() == null) {
@@ -997,6 +1110,18 @@ public class InspectorService implements Disposable {
      * The future will immediately complete to null if the inspectorInstanceRef is null.
      */
     public CompletableFuture<Map<String, InstanceRef>> getDartObjectProperties(
+      InspectorInstanceRef inspectorInstanceRef, final String[] propertyNames) {
+      if (inspectorInstanceRef == null || inspectorInstanceRef.getId() == null) {
+        return getDartObjectPropertiesHelper(inspectorInstanceRef, propertyNames);
+      }
+      return nullIfDisposed(() -> getCachedValueProperties(
+        valuePropertiesCache,
+        inspectorInstanceRef.getId() + ":" + String.join(",", propertyNames),
+        this,
+        () -> getDartObjectPropertiesHelper(inspectorInstanceRef, propertyNames)));
+    }
+
+    private CompletableFuture<Map<String, InstanceRef>> getDartObjectPropertiesHelper(
       InspectorInstanceRef inspectorInstanceRef, final String[] propertyNames) {
       return nullIfDisposed(
         () -> toVmServiceInstanceRef(inspectorInstanceRef).thenComposeAsync((InstanceRef instanceRef) -> nullIfDisposed(() -> {
@@ -1370,6 +1495,12 @@ public class InspectorService implements Disposable {
         if (ref == null || ref.getId() == null) {
           return CompletableFuture.completedFuture(null);
         }
+        return getCachedValueProperties(enumValuesCache, ref.getId(), this, () -> getEnumPropertyValuesHelper(ref));
+      });
+    }
+
+    private CompletableFuture<Map<String, InstanceRef>> getEnumPropertyValuesHelper(InspectorInstanceRef ref) {
+      return nullIfDisposed(() -> {
         return getInstance(toVmServiceInstanceRef(ref))
           .thenComposeAsync(
             (Instance instance) -> nullIfDisposed(() -> getInspectorLibrary().getClass(instance.getClassRef(), this).thenApplyAsync(
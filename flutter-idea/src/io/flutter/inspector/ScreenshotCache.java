@@ -0,0 +1,259 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.inspector;
+
+import com.google.gson.JsonObject;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Cache of decoded inspector screenshots shared by all clients of an
+ * {@link InspectorService}.
+ * <p>
+ * Screenshots arrive from the device as base64 encoded PNG images. Decoding
+ * them is expensive so it is performed on a background pool and the
+ * resulting images are reused by every view displaying the same widget at
+ * the same size for the same frame. The cache is bounded by the number of
+ * bytes of decoded image data and evicts the least recently used entries
+ * first.
+ */
+public class ScreenshotCache {
+  /**
+   * Maximum bytes of decoded image data to keep alive.
+   */
+  static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  private static final ExecutorService decodeExecutor =
+    AppExecutorUtil.createBoundedApplicationPoolExecutor("Flutter screenshot decoder", 2);
+
+  /**
+   * Identifies a screenshot of a specific widget rendered at a specific size
+   * for a specific frame.
+   */
+  public static class Key {
+    /**
+     * Either the inspector value id or the source location the screenshot is of.
+     */
+    @NotNull final String target;
+    /**
+     * Value id of the element matching the target, if the target is a location.
+     */
+    @Nullable final String variant;
+    final int width;
+    final int height;
+    final double pixelRatio;
+    final int frame;
+
+    Key(@NotNull String target, @Nullable String variant, int width, int height, double pixelRatio, int frame) {
+      this.target = target;
+      this.variant = variant;
+      this.width = width;
+      this.height = height;
+      this.pixelRatio = pixelRatio;
+      this.frame = frame;
+    }
+
+    static Key forValue(@NotNull InspectorInstanceRef ref, int width, int height, double pixelRatio, int frame) {
+      return new Key("value:" + ref.getId(), null, width, height, pixelRatio, frame);
+    }
+
+    static Key forLocation(@Nullable InspectorService.Location location,
+                           @Nullable String elementId,
+                           int width,
+                           int height,
+                           double pixelRatio,
+                           int frame) {
+      final String target = location == null
+                            ? "location:"
+                            : "location:" + location.getPath() + ":" + location.getLine() + ":" + location.getColumn();
+      return new Key(target, elementId, width, height, pixelRatio, frame);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key)other;
+      return width == key.width &&
+             height == key.height &&
+             Double.compare(pixelRatio, key.pixelRatio) == 0 &&
+             frame == key.frame &&
+             target.equals(key.target) &&
+             Objects.equals(variant, key.variant);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(target, variant, width, height, pixelRatio, frame);
+    }
+  }
+
+  private final long maxBytes;
+  private final LinkedHashMap<Key, Screenshot> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<Key, CompletableFuture<Screenshot>> pendingDecodes = new HashMap<>();
+  private long totalBytes;
+
+  public ScreenshotCache() {
+    this(DEFAULT_MAX_BYTES);
+  }
+
+  ScreenshotCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the cached screenshot for key or null if it has not been decoded.
+   */
+  @Nullable
+  public synchronized Screenshot getNow(@NotNull Key key) {
+    return entries.get(key);
+  }
+
+  /**
+   * Decodes the screenshot JSON returned by the inspector service on the
+   * background decode pool.
+   * <p>
+   * Concurrent requests for the same key share a single decode.
+   */
+  @NotNull
+  public CompletableFuture<Screenshot> decode(@NotNull Key key, @NotNull JsonObject json) {
+    final CompletableFuture<Screenshot> future;
+    synchronized (this) {
+      final Screenshot cached = entries.get(key);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(cached);
+      }
+      final CompletableFuture<Screenshot> pending = pendingDecodes.get(key);
+      if (pending != null) {
+        return pending;
+      }
+      future = CompletableFuture.supplyAsync(() -> decodeScreenshot(json), decodeExecutor);
+      pendingDecodes.put(key, future);
+    }
+    return future.whenComplete((screenshot, error) -> {
+      synchronized (this) {
+        pendingDecodes.remove(key);
+        if (screenshot != null) {
+          put(key, screenshot);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns a quick approximation of the screenshot for key while the real
+   * screenshot is loading.
+   * <p>
+   * The most recent cached screenshot of the same target is downscaled to fit
+   * the requested size. The future completes with null if no such screenshot
+   * is cached.
+   */
+  @NotNull
+  public CompletableFuture<Screenshot> getPlaceholder(@NotNull Key key) {
+    final Screenshot exact = getNow(key);
+    if (exact != null) {
+      return CompletableFuture.completedFuture(exact);
+    }
+    Screenshot best = null;
+    int bestFrame = Integer.MIN_VALUE;
+    synchronized (this) {
+      for (Map.Entry<Key, Screenshot> entry : entries.entrySet()) {
+        final Key candidate = entry.getKey();
+        if (candidate.target.equals(key.target) && candidate.frame <= key.frame && candidate.frame >= bestFrame) {
+          best = entry.getValue();
+          bestFrame = candidate.frame;
+        }
+      }
+    }
+    if (best == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    final Screenshot source = best;
+    return CompletableFuture.supplyAsync(() -> scaleToFit(source, key.width, key.height), decodeExecutor);
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    totalBytes = 0;
+  }
+
+  synchronized long getTotalBytes() {
+    return totalBytes;
+  }
+
+  private void put(@NotNull Key key, @NotNull Screenshot screenshot) {
+    final Screenshot previous = entries.put(key, screenshot);
+    if (previous != null) {
+      totalBytes -= sizeInBytes(previous.image);
+    }
+    totalBytes += sizeInBytes(screenshot.image);
+    final Iterator<Map.Entry<Key, Screenshot>> iterator = entries.entrySet().iterator();
+    // Always keep the most recent entry even if it exceeds the budget.
+    while (totalBytes > maxBytes && entries.size() > 1 && iterator.hasNext()) {
+      final Map.Entry<Key, Screenshot> eldest = iterator.next();
+      totalBytes -= sizeInBytes(eldest.getValue().image);
+      iterator.remove();
+    }
+  }
+
+  static long sizeInBytes(@Nullable BufferedImage image) {
+    if (image == null) {
+      return 0;
+    }
+    return (long)image.getWidth() * image.getHeight() * 4;
+  }
+
+  @NotNull
+  static Screenshot decodeScreenshot(@NotNull JsonObject result) {
+    final String imageString = result.getAsJsonPrimitive("image").getAsString();
+    final byte[] imageBytes = Base64.getDecoder().decode(imageString);
+    final BufferedImage image;
+    try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(imageBytes)) {
+      image = ImageIO.read(byteArrayInputStream);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Error decoding image: " + e.getMessage());
+    }
+
+    final TransformedRect transformedRect = new TransformedRect(result.getAsJsonObject("transformedRect"));
+    return new Screenshot(image, transformedRect);
+  }
+
+  @NotNull
+  private static Screenshot scaleToFit(@NotNull Screenshot source, int width, int height) {
+    final BufferedImage image = source.image;
+    if (image == null || width <= 0 || height <= 0) {
+      return source;
+    }
+    final double scale = Math.min(1.0, Math.min((double)width / image.getWidth(), (double)height / image.getHeight()));
+    if (scale >= 1.0) {
+      return source;
+    }
+    final int scaledWidth = Math.max(1, (int)Math.round(image.getWidth() * scale));
+    final int scaledHeight = Math.max(1, (int)Math.round(image.getHeight() * scale));
+    final BufferedImage scaled = new BufferedImage(scaledWidth, scaledHeight, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = scaled.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.drawImage(image, 0, 0, scaledWidth, scaledHeight, null);
+    }
+    finally {
+      g.dispose();
+    }
+    return new Screenshot(scaled, source.transformedRect);
+  }
+}
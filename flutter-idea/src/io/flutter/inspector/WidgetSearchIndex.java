@@ -0,0 +1,259 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.inspector;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Incremental full text index over the {@link DiagnosticsNode}s loaded in an
+ * inspector tree.
+ * <p>
+ * Each entry is keyed by a handle supplied by the owner of the tree (for
+ * example the Swing tree node displaying the diagnostic) so that the index can
+ * be updated by the same code that adds, replaces and removes tree nodes. The
+ * cost of an update is proportional to the number of tokens of the changed
+ * node, not to the size of the tree.
+ * <p>
+ * Widget runtime types, descriptions, creation locations and keys are
+ * indexed. Queries match tokens exactly, by prefix, or fuzzily as a
+ * subsequence of a token (so "elvbtn" finds "ElevatedButton"). Fuzzy matching
+ * only scans the distinct tokens in the index, which is far smaller than the
+ * number of nodes for real widget trees.
+ * <p>
+ * Methods from this class must only be invoked from the main UI thread.
+ */
+public class WidgetSearchIndex<T> {
+  private static final int EXACT_MATCH = 3;
+  private static final int PREFIX_MATCH = 2;
+  private static final int FUZZY_MATCH = 1;
+
+  private static class Entry<T> {
+    final T handle;
+    final String[] tokens;
+    final long order;
+
+    Entry(T handle, String[] tokens, long order) {
+      this.handle = handle;
+      this.tokens = tokens;
+      this.order = order;
+    }
+  }
+
+  private final Map<T, Entry<T>> entries = new HashMap<>();
+  private final TreeMap<String, Set<Entry<T>>> postings = new TreeMap<>();
+  private long nextOrder;
+
+  public int size() {
+    return entries.size();
+  }
+
+  public void clear() {
+    entries.clear();
+    postings.clear();
+    nextOrder = 0;
+  }
+
+  /**
+   * Index node under handle, replacing whatever was previously indexed for
+   * that handle.
+   * <p>
+   * Properties are not indexed on their own. Instead the key property of a
+   * widget is indexed as part of the widget.
+   */
+  public void update(@NotNull T handle, @Nullable DiagnosticsNode node) {
+    if (node == null || node.isProperty()) {
+      remove(handle);
+      return;
+    }
+    update(handle, tokensFor(node));
+  }
+
+  void update(@NotNull T handle, @NotNull Collection<String> tokens) {
+    final Entry<T> existing = entries.get(handle);
+    if (existing != null && Arrays.asList(existing.tokens).equals(new ArrayList<>(tokens))) {
+      return;
+    }
+    remove(handle);
+    if (tokens.isEmpty()) {
+      return;
+    }
+    final Entry<T> entry = new Entry<>(handle, tokens.toArray(new String[0]), existing != null ? existing.order : nextOrder++);
+    entries.put(handle, entry);
+    for (String token : entry.tokens) {
+      postings.computeIfAbsent(token, (key) -> new HashSet<>()).add(entry);
+    }
+  }
+
+  public void remove(@NotNull T handle) {
+    final Entry<T> entry = entries.remove(handle);
+    if (entry == null) {
+      return;
+    }
+    for (String token : entry.tokens) {
+      final Set<Entry<T>> matches = postings.get(token);
+      if (matches != null) {
+        matches.remove(entry);
+        if (matches.isEmpty()) {
+          postings.remove(token);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns up to limit handles matching every whitespace separated term in
+   * query, best matches first.
+   * <p>
+   * Exact token matches rank above prefix matches which rank above fuzzy
+   * matches. Ties are broken by the order nodes were first indexed, which
+   * follows the order of the tree.
+   */
+  @NotNull
+  public List<T> search(@Nullable String query, int limit) {
+    if (query == null || limit <= 0) {
+      return Collections.emptyList();
+    }
+    final String[] terms = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    Map<Entry<T>, Integer> scores = null;
+    for (String term : terms) {
+      if (term.isEmpty()) {
+        continue;
+      }
+      final Map<Entry<T>, Integer> termScores = scoreTerm(term);
+      if (scores == null) {
+        scores = termScores;
+      }
+      else {
+        final Map<Entry<T>, Integer> combined = new HashMap<>();
+        for (Map.Entry<Entry<T>, Integer> score : scores.entrySet()) {
+          final Integer termScore = termScores.get(score.getKey());
+          if (termScore != null) {
+            combined.put(score.getKey(), score.getValue() + termScore);
+          }
+        }
+        scores = combined;
+      }
+      if (scores.isEmpty()) {
+        return Collections.emptyList();
+      }
+    }
+    if (scores == null) {
+      return Collections.emptyList();
+    }
+    return topResults(scores, limit);
+  }
+
+  private Map<Entry<T>, Integer> scoreTerm(@NotNull String term) {
+    final Map<Entry<T>, Integer> scores = new HashMap<>();
+    for (Map.Entry<String, Set<Entry<T>>> posting : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+      final int score = posting.getKey().equals(term) ? EXACT_MATCH : PREFIX_MATCH;
+      for (Entry<T> entry : posting.getValue()) {
+        scores.merge(entry, score, Math::max);
+      }
+    }
+    if (scores.isEmpty() && term.length() > 1) {
+      for (Map.Entry<String, Set<Entry<T>>> posting : postings.entrySet()) {
+        if (isFuzzyMatch(term, posting.getKey())) {
+          for (Entry<T> entry : posting.getValue()) {
+            scores.put(entry, FUZZY_MATCH);
+          }
+        }
+      }
+    }
+    return scores;
+  }
+
+  private List<T> topResults(@NotNull Map<Entry<T>, Integer> scores, int limit) {
+    final Comparator<Map.Entry<Entry<T>, Integer>> best =
+      Comparator.<Map.Entry<Entry<T>, Integer>>comparingInt(Map.Entry::getValue).reversed()
+        .thenComparingLong((score) -> score.getKey().order);
+    // Keep only the best limit results rather than sorting every match.
+    final PriorityQueue<Map.Entry<Entry<T>, Integer>> worstFirst = new PriorityQueue<>(best.reversed());
+    for (Map.Entry<Entry<T>, Integer> score : scores.entrySet()) {
+      worstFirst.add(score);
+      if (worstFirst.size() > limit) {
+        worstFirst.poll();
+      }
+    }
+    final List<Map.Entry<Entry<T>, Integer>> sorted = new ArrayList<>(worstFirst);
+    sorted.sort(best);
+    final List<T> results = new ArrayList<>(sorted.size());
+    for (Map.Entry<Entry<T>, Integer> score : sorted) {
+      results.add(score.getKey().handle);
+    }
+    return results;
+  }
+
+  /**
+   * Whether the characters of term appear in order in token, starting with
+   * the first character of token.
+   */
+  static boolean isFuzzyMatch(@NotNull String term, @NotNull String token) {
+    if (token.isEmpty() || token.charAt(0) != term.charAt(0) || term.length() > token.length()) {
+      return false;
+    }
+    int i = 0;
+    for (int j = 0; j < token.length() && i < term.length(); ++j) {
+      if (token.charAt(j) == term.charAt(i)) {
+        i++;
+      }
+    }
+    return i == term.length();
+  }
+
+  @NotNull
+  static List<String> tokensFor(@NotNull DiagnosticsNode node) {
+    final LinkedHashSet<String> tokens = new LinkedHashSet<>();
+    addWords(tokens, node.getWidgetRuntimeType());
+    addWords(tokens, node.getDescription());
+    if (node.hasCreationLocation()) {
+      final InspectorSourceLocation location = node.getCreationLocation();
+      final String file = location.getFile();
+      if (file != null) {
+        final String fileName = file.substring(file.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        tokens.add(fileName);
+        tokens.add(fileName + ":" + location.getLine());
+      }
+    }
+    for (DiagnosticsNode property : node.getInlineProperties()) {
+      if ("key".equals(property.getName())) {
+        addWords(tokens, property.getDescription());
+      }
+    }
+    return new ArrayList<>(tokens);
+  }
+
+  /**
+   * Adds each word of text as a token along with the humps of camel case
+   * words so that "ElevatedButton" can be found by searching for "button".
+   */
+  static void addWords(@NotNull Collection<String> tokens, @Nullable String text) {
+    if (text == null) {
+      return;
+    }
+    for (String word : text.split("[^\\p{Alnum}_$]+")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      tokens.add(word.toLowerCase(Locale.ROOT));
+      int start = 0;
+      for (int i = 1; i < word.length(); ++i) {
+        if (Character.isUpperCase(word.charAt(i)) && !Character.isUpperCase(word.charAt(i - 1))) {
+          if (start > 0) {
+            tokens.add(word.substring(start, i).toLowerCase(Locale.ROOT));
+          }
+          start = i;
+        }
+      }
+      if (start > 0) {
+        tokens.add(word.substring(start).toLowerCase(Locale.ROOT));
+      }
+    }
+  }
+}
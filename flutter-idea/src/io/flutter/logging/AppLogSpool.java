@@ -0,0 +1,388 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An append-only record of everything an app logged, kept on disk so that long sessions don't hold their whole
+ * history in memory or lose it when the console is trimmed.
+ * <p>
+ * Lines are written with their time and source to memory-mapped segment files. Each segment keeps the offsets of
+ * its lines, so any line can be read by number, and a filter of the words it contains, so that a search only reads
+ * the segments that may have matches. Once the spool reaches its size limit the oldest segments are deleted.
+ * <p>
+ * Methods from this class may be invoked on any thread.
+ */
+public class AppLogSpool implements Disposable {
+  private static final Logger LOG = Logger.getInstance(AppLogSpool.class);
+
+  public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+  public static final int DEFAULT_MAX_SEGMENTS = 64;
+
+  /**
+   * Each record is the time (8 bytes), source (1 byte) and length (4 bytes) followed by the UTF-8 text.
+   */
+  private static final int HEADER_SIZE = 13;
+
+  /**
+   * The number of bits in the word filter of each segment.
+   */
+  private static final int FILTER_BITS = 1 << 18;
+
+  public enum Source {
+    STDOUT,
+    LOGGING,
+    FLUTTER_ERROR
+  }
+
+  public static class Line {
+    public final int index;
+    public final long timestamp;
+    @NotNull public final Source source;
+    @NotNull public final String text;
+
+    Line(int index, long timestamp, @NotNull Source source, @NotNull String text) {
+      this.index = index;
+      this.timestamp = timestamp;
+      this.source = source;
+      this.text = text;
+    }
+
+    @Override
+    public String toString() {
+      return text;
+    }
+  }
+
+  private static class Segment {
+    @NotNull final Path path;
+    @NotNull final MappedByteBuffer buffer;
+    final int firstLine;
+    final long[] filter = new long[FILTER_BITS / 64];
+    int[] offsets = new int[1024];
+    int lineCount;
+    int size;
+
+    Segment(@NotNull Path path, @NotNull MappedByteBuffer buffer, int firstLine) {
+      this.path = path;
+      this.buffer = buffer;
+      this.firstLine = firstLine;
+    }
+
+    @NotNull
+    Line read(@NotNull int[] offsets, int localIndex) {
+      final int offset = offsets[localIndex];
+      final long timestamp = buffer.getLong(offset);
+      final Source source = Source.values()[buffer.get(offset + 8)];
+      final byte[] bytes = new byte[buffer.getInt(offset + 9)];
+      buffer.get(offset + HEADER_SIZE, bytes);
+      return new Line(firstLine + localIndex, timestamp, source, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    boolean mayContain(@NotNull int[] wordHashes) {
+      for (int hash : wordHashes) {
+        if (!isSet(filter, hash) || !isSet(filter, secondHash(hash))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * An unchanging view of a segment that can be read without holding the lock.
+   */
+  private static class SegmentView {
+    @NotNull final Segment segment;
+    @NotNull final int[] offsets;
+    final int lineCount;
+
+    SegmentView(@NotNull Segment segment) {
+      this.segment = segment;
+      this.offsets = segment.offsets;
+      this.lineCount = segment.lineCount;
+    }
+  }
+
+  private final int segmentSize;
+  private final int maxSegments;
+  private final List<Segment> segments = new ArrayList<>();
+
+  @Nullable private Path directory;
+  private int endLine;
+  private boolean failed;
+  private boolean disposed;
+
+  public AppLogSpool() {
+    this(DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS);
+  }
+
+  AppLogSpool(int segmentSize, int maxSegments) {
+    assert segmentSize > HEADER_SIZE * 2 && maxSegments > 0;
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+  }
+
+  /**
+   * Records some output. Each line of text is stored separately, without its line terminator.
+   */
+  public void append(@NotNull Source source, @NotNull String text) {
+    final long timestamp = System.currentTimeMillis();
+    int start = 0;
+    final int length = text.endsWith("\n") ? text.length() - 1 : text.length();
+    while (start <= length) {
+      int end = text.indexOf('\n', start);
+      if (end < 0 || end > length) {
+        end = length;
+      }
+      final int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+      appendLine(timestamp, source, text.substring(start, lineEnd));
+      start = end + 1;
+    }
+  }
+
+  private synchronized void appendLine(long timestamp, @NotNull Source source, @NotNull String line) {
+    if (failed || disposed) {
+      return;
+    }
+
+    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+    final int maxLength = segmentSize - HEADER_SIZE;
+    if (bytes.length > maxLength) {
+      // No char takes more than 3 bytes in UTF-8, so this fits.
+      bytes = line.substring(0, maxLength / 3).getBytes(StandardCharsets.UTF_8);
+    }
+
+    Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    if (segment == null || segment.size + HEADER_SIZE + bytes.length > segmentSize) {
+      try {
+        segment = addSegment();
+      }
+      catch (IOException e) {
+        LOG.warn("Unable to write the app log to disk; history is only kept in the console", e);
+        failed = true;
+        return;
+      }
+    }
+
+    final int offset = segment.size;
+    segment.buffer.putLong(offset, timestamp);
+    segment.buffer.put(offset + 8, (byte)source.ordinal());
+    segment.buffer.putInt(offset + 9, bytes.length);
+    segment.buffer.put(offset + HEADER_SIZE, bytes);
+    segment.size += HEADER_SIZE + bytes.length;
+
+    if (segment.lineCount == segment.offsets.length) {
+      segment.offsets = Arrays.copyOf(segment.offsets, segment.offsets.length * 2);
+    }
+    segment.offsets[segment.lineCount++] = offset;
+    for (int hash : wordHashes(words(line))) {
+      set(segment.filter, hash);
+      set(segment.filter, secondHash(hash));
+    }
+    endLine++;
+  }
+
+  @NotNull
+  private Segment addSegment() throws IOException {
+    if (directory == null) {
+      directory = Files.createTempDirectory("flutter-app-log");
+    }
+    if (segments.size() == maxSegments) {
+      deleteSegment(segments.remove(0));
+    }
+
+    final Path path = directory.resolve("segment-" + endLine + ".log");
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // The mapping stays valid after the channel is closed.
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+    final Segment segment = new Segment(path, buffer, endLine);
+    segments.add(segment);
+    return segment;
+  }
+
+  private static void deleteSegment(@NotNull Segment segment) {
+    try {
+      Files.deleteIfExists(segment.path);
+    }
+    catch (IOException e) {
+      // This can fail while the file is still mapped on some platforms.
+      segment.path.toFile().deleteOnExit();
+    }
+  }
+
+  /**
+   * Returns the number of the oldest line still kept.
+   */
+  public synchronized int getStartLine() {
+    return segments.isEmpty() ? endLine : segments.get(0).firstLine;
+  }
+
+  /**
+   * Returns one past the number of the newest line.
+   */
+  public synchronized int getEndLine() {
+    return endLine;
+  }
+
+  /**
+   * Returns true once the spool's files have been deleted. Nothing is recorded or returned after that.
+   */
+  public synchronized boolean isDisposed() {
+    return disposed;
+  }
+
+  @Nullable
+  public Line getLine(int index) {
+    final List<Line> lines = getLines(index, 1);
+    return lines.isEmpty() || lines.get(0).index != index ? null : lines.get(0);
+  }
+
+  /**
+   * Reads up to count lines starting at line number from, or at the oldest line if that has been deleted.
+   */
+  @NotNull
+  public List<Line> getLines(int from, int count) {
+    final List<Line> lines = new ArrayList<>();
+    for (SegmentView view : snapshot()) {
+      final int start = Math.max(from, view.segment.firstLine) - view.segment.firstLine;
+      for (int i = start; i < view.lineCount && lines.size() < count; i++) {
+        lines.add(view.segment.read(view.offsets, i));
+      }
+      if (lines.size() == count) {
+        break;
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Finds lines at or after fromLine that contain all of the words in query, ignoring case.
+   */
+  @NotNull
+  public List<Line> search(@NotNull String query, int fromLine, int maxResults) {
+    final List<String> words = words(query);
+    final List<Line> results = new ArrayList<>();
+    if (words.isEmpty()) {
+      return results;
+    }
+    final int[] hashes = wordHashes(words);
+
+    for (SegmentView view : snapshot()) {
+      if (view.segment.firstLine + view.lineCount <= fromLine || !view.segment.mayContain(hashes)) {
+        continue;
+      }
+      final int start = Math.max(fromLine, view.segment.firstLine) - view.segment.firstLine;
+      for (int i = start; i < view.lineCount; i++) {
+        final Line line = view.segment.read(view.offsets, i);
+        if (words(line.text).containsAll(words)) {
+          results.add(line);
+          if (results.size() == maxResults) {
+            return results;
+          }
+        }
+      }
+    }
+    return results;
+  }
+
+  @NotNull
+  private synchronized List<SegmentView> snapshot() {
+    final List<SegmentView> views = new ArrayList<>();
+    for (Segment segment : segments) {
+      views.add(new SegmentView(segment));
+    }
+    return views;
+  }
+
+  @Override
+  public synchronized void dispose() {
+    disposed = true;
+    for (Segment segment : segments) {
+      deleteSegment(segment);
+    }
+    segments.clear();
+    if (directory != null) {
+      directory.toFile().deleteOnExit();
+      try {
+        Files.deleteIfExists(directory);
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Splits text into lower case words of letters and digits.
+   */
+  @NotNull
+  static List<String> words(@NotNull String text) {
+    final List<String> words = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      final boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (isWordChar && start < 0) {
+        start = i;
+      }
+      else if (!isWordChar && start >= 0) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Returns the hashes of the words to put in the word filters.
+   * <p>
+   * Numbers are left out since counters and timestamps would fill the filters with words that are rarely searched for.
+   */
+  @NotNull
+  private static int[] wordHashes(@NotNull List<String> words) {
+    return words.stream().filter((word) -> !isNumber(word)).mapToInt(String::hashCode).toArray();
+  }
+
+  private static boolean isNumber(@NotNull String word) {
+    for (int i = 0; i < word.length(); i++) {
+      if (!Character.isDigit(word.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int secondHash(int hash) {
+    return Integer.rotateLeft(hash * 0x9E3779B9, 16);
+  }
+
+  private static void set(@NotNull long[] filter, int hash) {
+    final int bit = hash & (FILTER_BITS - 1);
+    filter[bit >>> 6] |= 1L << bit;
+  }
+
+  private static boolean isSet(@NotNull long[] filter, int hash) {
+    final int bit = hash & (FILTER_BITS - 1);
+    return (filter[bit >>> 6] & (1L << bit)) != 0;
+  }
+}
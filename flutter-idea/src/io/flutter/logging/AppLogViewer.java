@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Shows the full output history of an app from its {@link AppLogSpool}.
+ * <p>
+ * Only the lines scrolled into view are read from the spool.
+ */
+public class AppLogViewer extends DialogWrapper {
+  private static final int PAGE_SIZE = 256;
+  private static final int MAX_SEARCH_RESULTS = 10000;
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+  @NotNull private final AppLogSpool spool;
+  @NotNull private final JBList<AppLogSpool.Line> list = new JBList<>();
+  @NotNull private final SearchTextField searchField = new SearchTextField(false);
+  private int searchCount;
+
+  public AppLogViewer(@Nullable Project project, @NotNull AppLogSpool spool) {
+    super(project, false);
+    this.spool = spool;
+    setTitle("App Log");
+    setModal(false);
+
+    // A fixed cell size lets the list render without reading every line.
+    list.setPrototypeCellValue(new AppLogSpool.Line(0, 0, AppLogSpool.Source.STDOUT, "X".repeat(160)));
+    list.setCellRenderer(new LineRenderer());
+    list.setModel(new SpoolListModel(spool));
+
+    searchField.addKeyboardListener(new KeyAdapter() {
+      @Override
+      public void keyPressed(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+          search(searchField.getText());
+        }
+      }
+    });
+
+    init();
+  }
+
+  private void search(@NotNull String query) {
+    final int count = ++searchCount;
+    if (query.trim().isEmpty()) {
+      list.setModel(new SpoolListModel(spool));
+      return;
+    }
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      final List<AppLogSpool.Line> results = spool.search(query, spool.getStartLine(), MAX_SEARCH_RESULTS);
+      ApplicationManager.getApplication().invokeLater(() -> {
+        // Ignore the results of searches that have been replaced.
+        if (count == searchCount) {
+          final DefaultListModel<AppLogSpool.Line> model = new DefaultListModel<>();
+          model.addAll(results);
+          list.setModel(model);
+        }
+      }, ModalityState.any());
+    });
+  }
+
+  @Nullable
+  @Override
+  protected JComponent createCenterPanel() {
+    final JPanel panel = new JPanel(new BorderLayout(0, JBUI.scale(4)));
+    panel.add(searchField, BorderLayout.NORTH);
+    final JBScrollPane scrollPane = new JBScrollPane(list);
+    scrollPane.setPreferredSize(JBUI.size(900, 500));
+    panel.add(scrollPane, BorderLayout.CENTER);
+    return panel;
+  }
+
+  @Nullable
+  @Override
+  public JComponent getPreferredFocusedComponent() {
+    return searchField;
+  }
+
+  /**
+   * The lines in the spool when the model was created, read a page at a time.
+   */
+  private static class SpoolListModel extends AbstractListModel<AppLogSpool.Line> {
+    @NotNull private final AppLogSpool spool;
+    private final int startLine;
+    private final int size;
+
+    @NotNull private List<AppLogSpool.Line> page = List.of();
+
+    SpoolListModel(@NotNull AppLogSpool spool) {
+      this.spool = spool;
+      this.startLine = spool.getStartLine();
+      this.size = spool.getEndLine() - startLine;
+    }
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public AppLogSpool.Line getElementAt(int index) {
+      final int line = startLine + index;
+      if (!isInPage(line)) {
+        page = spool.getLines(line - line % PAGE_SIZE, PAGE_SIZE);
+      }
+      if (isInPage(line)) {
+        return page.get(line - page.get(0).index);
+      }
+      // The line was deleted from the spool after the model was created.
+      return new AppLogSpool.Line(line, 0, AppLogSpool.Source.STDOUT, "");
+    }
+
+    private boolean isInPage(int line) {
+      return !page.isEmpty() && line >= page.get(0).index && line <= page.get(page.size() - 1).index;
+    }
+  }
+
+  private static class LineRenderer extends ColoredListCellRenderer<AppLogSpool.Line> {
+    @Override
+    protected void customizeCellRenderer(@NotNull JList<? extends AppLogSpool.Line> list,
+                                         AppLogSpool.Line line,
+                                         int index,
+                                         boolean selected,
+                                         boolean hasFocus) {
+      if (line == null) {
+        return;
+      }
+      if (line.timestamp != 0) {
+        append(TIME_FORMAT.format(Instant.ofEpochMilli(line.timestamp)) + "  ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+      }
+      append(line.text, line.source == AppLogSpool.Source.FLUTTER_ERROR
+                        ? SimpleTextAttributes.ERROR_ATTRIBUTES
+                        : SimpleTextAttributes.REGULAR_ATTRIBUTES);
+    }
+  }
+}
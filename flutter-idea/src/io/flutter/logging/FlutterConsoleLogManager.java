@@ -32,6 +32,7 @@ import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.openapi.wm.ex.ToolWindowManagerEx;
 import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.concurrency.QueueProcessor;
 import io.flutter.FlutterInitializer;
 import io.flutter.FlutterUtils;
@@ -56,12 +57,19 @@ import org.dartlang.vm.service.element.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -84,6 +92,23 @@ public class FlutterConsoleLogManager {
   private static QueueProcessor<Runnable> queue;
   private static final AtomicInteger queueLength = new AtomicInteger();
 
+  /**
+   * The maximum number of errors waiting to be rendered; errors beyond this are counted but not rendered.
+   */
+  private static final int MAX_PENDING_ERRORS = 100;
+
+  /**
+   * The number of errors of each kind rendered before later errors of that kind are suppressed.
+   */
+  private static final int MAX_RENDERED_ERRORS_PER_STORM = 3;
+
+  /**
+   * The time without an error of a kind after which its storm is considered over.
+   */
+  private static final long ERROR_STORM_QUIET_MILLIS = 2000;
+
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
   /**
    * Set our preferred settings for the run console.
    */
@@ -105,6 +130,10 @@ public class FlutterConsoleLogManager {
 
   private CompletableFuture<InspectorService.ObjectGroup> objectGroup;
 
+  private final FlutterErrorStorms errorStorms = new FlutterErrorStorms(MAX_RENDERED_ERRORS_PER_STORM, ERROR_STORM_QUIET_MILLIS);
+  private final List<DiagnosticsNode> pendingErrors = new ArrayList<>();
+  private final AtomicBoolean isErrorStormCheckScheduled = new AtomicBoolean();
+
   public FlutterConsoleLogManager(@NotNull ConsoleView console, @NotNull FlutterApp app) {
     this.console = console;
     this.app = app;
@@ -172,23 +201,34 @@ public class FlutterConsoleLogManager {
       final DiagnosticsNode diagnosticsNode = new DiagnosticsNode(jsonObject, objectGroup, app, false, null);
 
       if (FlutterSettings.getInstance().isShowStructuredErrors()) {
-        queueLength.incrementAndGet();
+        // Errors can be reported every frame, so collapse repeated errors and render the rest in batches.
+        final long now = System.currentTimeMillis();
+        final String errorSummary = getErrorSummary(diagnosticsNode);
+        final String id = errorSummary == null ? null : FlutterErrorHelper.getAnalyticsId(errorSummary);
+        final String summary = errorSummary == null ? diagnosticsNode.toString() : errorSummary;
+        // Keep every error in the app's history, including those not rendered in the console.
+        app.getLogSpool().append(AppLogSpool.Source.FLUTTER_ERROR, summary);
+        if (!errorStorms.shouldRender(id, summary, now)) {
+          scheduleErrorStormCheck();
+          return;
+        }
 
-        queue.add(() -> {
-          try {
-            processFlutterErrorEvent(diagnosticsNode);
+        final boolean scheduleRender;
+        synchronized (pendingErrors) {
+          if (pendingErrors.size() >= MAX_PENDING_ERRORS) {
+            errorStorms.addDropped(id, summary, now);
+            scheduleRender = false;
           }
-          catch (Throwable t) {
-            LOG.warn(t);
+          else {
+            pendingErrors.add(diagnosticsNode);
+            queueLength.incrementAndGet();
+            scheduleRender = pendingErrors.size() == 1;
           }
-          finally {
-            queueLength.decrementAndGet();
-
-            synchronized (queueLength) {
-              queueLength.notifyAll();
-            }
-          }
-        });
+        }
+        if (scheduleRender) {
+          queue.add(this::renderPendingErrors);
+        }
+        scheduleErrorStormCheck();
       }
     }
     catch (Throwable t) {
@@ -196,6 +236,66 @@ public class FlutterConsoleLogManager {
     }
   }
 
+  private void renderPendingErrors() {
+    final List<DiagnosticsNode> errors;
+    synchronized (pendingErrors) {
+      errors = new ArrayList<>(pendingErrors);
+      pendingErrors.clear();
+    }
+    for (DiagnosticsNode error : errors) {
+      try {
+        processFlutterErrorEvent(error);
+      }
+      catch (Throwable t) {
+        LOG.warn(t);
+      }
+      finally {
+        queueLength.decrementAndGet();
+      }
+    }
+    synchronized (queueLength) {
+      queueLength.notifyAll();
+    }
+  }
+
+  private void scheduleErrorStormCheck() {
+    if (isErrorStormCheckScheduled.compareAndSet(false, true)) {
+      AppExecutorUtil.getAppScheduledExecutorService()
+        .schedule(this::checkErrorStorms, ERROR_STORM_QUIET_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void checkErrorStorms() {
+    isErrorStormCheckScheduled.set(false);
+    final List<FlutterErrorStorms.Summary> summaries = errorStorms.takeEnded(System.currentTimeMillis());
+    if (!summaries.isEmpty()) {
+      queue.add(() -> {
+        for (FlutterErrorStorms.Summary summary : summaries) {
+          final String similar = summary.count == 1 ? " similar error suppressed" : " similar errors suppressed";
+          console.print(
+            "\n" + summary.count + similar +
+            " (" + TIME_FORMAT.format(Instant.ofEpochMilli(summary.firstMillis)) +
+            " - " + TIME_FORMAT.format(Instant.ofEpochMilli(summary.lastMillis)) + "): ",
+            TITLE_CONTENT_TYPE);
+          console.print(summary.description + "\n", SUBTLE_CONTENT_TYPE);
+        }
+      });
+    }
+    if (!errorStorms.isEmpty()) {
+      scheduleErrorStormCheck();
+    }
+  }
+
+  @Nullable
+  private static String getErrorSummary(@NotNull DiagnosticsNode diagnosticsNode) {
+    for (DiagnosticsNode property : diagnosticsNode.getInlineProperties()) {
+      if (property.getLevel() == DiagnosticLevel.summary) {
+        return property.getDescription();
+      }
+    }
+    return null;
+  }
+
   /**
    * Wait until all pending work has completed.
    */
@@ -458,9 +558,13 @@ public class FlutterConsoleLogManager {
   }
 
   public void handleLoggingEvent(@NotNull Event event) {
+    if (event.getLogRecord() == null) return;
+
+    // Store the record right away so that the structured view is complete even when the console falls behind.
+    final int row = app.getLoggingRecords().add(event);
     queue.add(() -> {
       try {
-        processLoggingEvent(event);
+        printLoggingRecord(event, row);
       }
       catch (Throwable t) {
         LOG.warn(t);
@@ -482,9 +586,13 @@ public class FlutterConsoleLogManager {
 
   @VisibleForTesting
   public void processLoggingEvent(@NotNull Event event) {
-    final LogRecord logRecord = event.getLogRecord();
-    if (logRecord == null) return;
+    if (event.getLogRecord() == null) return;
+
+    printLoggingRecord(event, app.getLoggingRecords().add(event));
+  }
 
+  private void printLoggingRecord(@NotNull Event event, int row) {
+    final LogRecord logRecord = event.getLogRecord();
     final VmService service = app.getVmService();
     if (service == null) {
       return;
@@ -497,7 +605,8 @@ public class FlutterConsoleLogManager {
 
     final String name = loggerName.getValueAsString().isEmpty() ? "log" : loggerName.getValueAsString();
     final String prefix = "[" + name + "] ";
-    final String messageStr = getFullStringValue(service, isolateRef.getId(), message);
+    final String messageStr = getMessageBody(row, message);
+    app.getLogSpool().append(AppLogSpool.Source.LOGGING, prefix + messageStr);
 
     console.print(prefix, SUBTLE_CONTENT_TYPE);
     console.print(messageStr + "\n", NORMAL_CONTENT_TYPE);
@@ -563,6 +672,27 @@ public class FlutterConsoleLogManager {
     }
   }
 
+  /**
+   * Returns the full message of a logging record, using the body cached by the record store if there is one.
+   */
+  private String getMessageBody(int row, @NotNull InstanceRef message) {
+    final LoggingRecordStore records = app.getLoggingRecords();
+    if (row < records.getStartRow()) {
+      // The record has already been overwritten.
+      return stringValueFromStringRef(message);
+    }
+    try {
+      return records.getBody(row).get(1, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return formatTruncatedString(message);
+    }
+    catch (ExecutionException | TimeoutException e) {
+      return formatTruncatedString(message);
+    }
+  }
+
   private String stringValueFromStringRef(InstanceRef ref) {
     return ref.getValueAsStringIsTruncated() ? formatTruncatedString(ref) : ref.getValueAsString();
   }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Collapses repeated Flutter errors, such as a layout overflow reported every frame, so that they
+ * don't flood the console.
+ * <p>
+ * Errors are grouped by {@link FlutterErrorHelper#getAnalyticsId}. The first few errors of a group
+ * are rendered and the rest are only counted. Once no error of the group has been seen for the quiet
+ * period the storm has ended, and a summary of the suppressed errors is returned by {@link #takeEnded}.
+ */
+class FlutterErrorStorms {
+  static class Summary {
+    @NotNull final String description;
+    final int count;
+    final long firstMillis;
+    final long lastMillis;
+
+    Summary(@NotNull String description, int count, long firstMillis, long lastMillis) {
+      this.description = description;
+      this.count = count;
+      this.firstMillis = firstMillis;
+      this.lastMillis = lastMillis;
+    }
+  }
+
+  private static class Storm {
+    @NotNull final String description;
+    int rendered;
+    int suppressed;
+    long firstSuppressedMillis;
+    long lastSuppressedMillis;
+    long lastSeenMillis;
+
+    Storm(@NotNull String description) {
+      this.description = description;
+    }
+  }
+
+  private final int maxRendered;
+  private final long quietMillis;
+  private final Map<String, Storm> storms = new HashMap<>();
+
+  FlutterErrorStorms(int maxRendered, long quietMillis) {
+    this.maxRendered = maxRendered;
+    this.quietMillis = quietMillis;
+  }
+
+  /**
+   * Records an error and returns whether it should be rendered.
+   */
+  synchronized boolean shouldRender(@Nullable String id, @NotNull String description, long nowMillis) {
+    if (id == null) {
+      return true;
+    }
+    final Storm storm = storms.computeIfAbsent(id, (k) -> new Storm(description));
+    storm.lastSeenMillis = nowMillis;
+    if (storm.rendered < maxRendered) {
+      storm.rendered++;
+      return true;
+    }
+    suppress(storm, nowMillis);
+    return false;
+  }
+
+  /**
+   * Records an error that was dropped without being rendered, e.g. because too many errors were waiting.
+   */
+  synchronized void addDropped(@Nullable String id, @NotNull String description, long nowMillis) {
+    final Storm storm = storms.computeIfAbsent(id == null ? description : id, (k) -> new Storm(description));
+    storm.lastSeenMillis = nowMillis;
+    suppress(storm, nowMillis);
+  }
+
+  private static void suppress(@NotNull Storm storm, long nowMillis) {
+    if (storm.suppressed == 0) {
+      storm.firstSuppressedMillis = nowMillis;
+    }
+    storm.suppressed++;
+    storm.lastSuppressedMillis = nowMillis;
+  }
+
+  /**
+   * Removes the storms that have ended and returns summaries of those with suppressed errors.
+   */
+  @NotNull
+  synchronized List<Summary> takeEnded(long nowMillis) {
+    final List<Summary> summaries = new ArrayList<>();
+    final Iterator<Storm> iterator = storms.values().iterator();
+    while (iterator.hasNext()) {
+      final Storm storm = iterator.next();
+      if (nowMillis - storm.lastSeenMillis < quietMillis) {
+        continue;
+      }
+      iterator.remove();
+      if (storm.suppressed > 0) {
+        summaries.add(new Summary(storm.description, storm.suppressed, storm.firstSuppressedMillis, storm.lastSuppressedMillis));
+      }
+    }
+    return summaries;
+  }
+
+  synchronized boolean isEmpty() {
+    return storms.isEmpty();
+  }
+}
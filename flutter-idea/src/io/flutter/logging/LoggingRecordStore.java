@@ -0,0 +1,379 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import org.dartlang.vm.service.VmService;
+import org.dartlang.vm.service.consumer.GetObjectConsumer;
+import org.dartlang.vm.service.element.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The records an app sent on the {@code Logging} stream, e.g. from {@code package:logging}.
+ * <p>
+ * Records are kept in columns of primitives so that millions of them can be stored and filtered by level and logger
+ * cheaply. Logger names are interned, and a message is kept as the UTF-8 bytes of the preview the VM sent, in a
+ * single array shared by all records; a preview is only decoded when its row is asked for. When the VM truncated a
+ * message its full body is only fetched when asked for, and recently fetched bodies are cached.
+ * <p>
+ * Once the store is full the oldest records are overwritten. Rows are numbered from the first record ever added,
+ * so a row number stays valid until its record is overwritten.
+ * <p>
+ * Methods from this class may be invoked on any thread.
+ */
+public class LoggingRecordStore {
+  public static final int DEFAULT_CAPACITY = 1 << 20;
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int INITIAL_PREVIEW_BYTES = 64 * 1024;
+  private static final int MAX_CACHED_BODIES = 1000;
+
+  /**
+   * Fetches the full value of a string from the VM.
+   */
+  public interface BodyResolver {
+    @NotNull
+    CompletableFuture<String> resolve(@NotNull String isolateId, @NotNull String objectId, int length);
+  }
+
+  private final int capacity;
+  @NotNull private final BodyResolver resolver;
+
+  private int[] levels = new int[INITIAL_CAPACITY];
+  private long[] times = new long[INITIAL_CAPACITY];
+  private int[] loggers = new int[INITIAL_CAPACITY];
+  private int[] isolates = new int[INITIAL_CAPACITY];
+  private int[] lengths = new int[INITIAL_CAPACITY];
+  /**
+   * Where each preview starts in {@link #previewBytes}, and its length in bytes.
+   */
+  private int[] previewStarts = new int[INITIAL_CAPACITY];
+  private int[] previewLengths = new int[INITIAL_CAPACITY];
+  /**
+   * The id of each truncated message, or null if the preview is the whole message.
+   */
+  private String[] messageIds = new String[INITIAL_CAPACITY];
+
+  /**
+   * Logger names and isolate ids, by their index.
+   */
+  private final List<String> names = new ArrayList<>();
+  private final Map<String, Integer> nameIndexes = new HashMap<>();
+
+  /**
+   * Full messages by isolate and object id, in least recently used order.
+   */
+  private final LinkedHashMap<String, String> bodies = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * The previews of the stored rows, oldest first, in a ring that ends just before {@link #previewEnd}.
+   */
+  private byte[] previewBytes = new byte[INITIAL_PREVIEW_BYTES];
+  private int previewEnd;
+  private int previewBytesUsed;
+
+  private int endRow;
+
+  public LoggingRecordStore(@NotNull BodyResolver resolver) {
+    this(DEFAULT_CAPACITY, resolver);
+  }
+
+  LoggingRecordStore(int capacity, @NotNull BodyResolver resolver) {
+    this.capacity = capacity;
+    this.resolver = resolver;
+  }
+
+  /**
+   * Adds a record from a Logging event and returns its row.
+   */
+  public int add(@NotNull Event event) {
+    final LogRecord record = event.getLogRecord();
+    final InstanceRef loggerName = record.getLoggerName();
+    final InstanceRef message = record.getMessage();
+    final String name = loggerName.getValueAsString() == null || loggerName.getValueAsString().isEmpty()
+                        ? "log"
+                        : loggerName.getValueAsString();
+    return add(record.getLevel(), event.getTimestamp(), name, event.getIsolate().getId(),
+               message.getValueAsString() == null ? "" : message.getValueAsString(),
+               message.getValueAsStringIsTruncated() ? message.getId() : null, message.getLength());
+  }
+
+  synchronized int add(int level,
+                       long time,
+                       @NotNull String loggerName,
+                       @NotNull String isolateId,
+                       @NotNull String preview,
+                       @Nullable String messageId,
+                       int length) {
+    if (endRow == levels.length && levels.length < capacity) {
+      grow(Math.min(capacity, levels.length * 2));
+    }
+    final int row = endRow++;
+    final int index = row % capacity;
+    if (row >= capacity) {
+      // The oldest record's preview is at the start of the ring.
+      previewBytesUsed -= previewLengths[index];
+    }
+    levels[index] = level;
+    times[index] = time;
+    loggers[index] = intern(loggerName);
+    isolates[index] = intern(isolateId);
+    addPreview(row, preview.getBytes(StandardCharsets.UTF_8));
+    messageIds[index] = messageId;
+    lengths[index] = length;
+    return row;
+  }
+
+  private void grow(int newCapacity) {
+    levels = Arrays.copyOf(levels, newCapacity);
+    times = Arrays.copyOf(times, newCapacity);
+    loggers = Arrays.copyOf(loggers, newCapacity);
+    isolates = Arrays.copyOf(isolates, newCapacity);
+    lengths = Arrays.copyOf(lengths, newCapacity);
+    previewStarts = Arrays.copyOf(previewStarts, newCapacity);
+    previewLengths = Arrays.copyOf(previewLengths, newCapacity);
+    messageIds = Arrays.copyOf(messageIds, newCapacity);
+  }
+
+  private void addPreview(int row, byte[] bytes) {
+    if (previewBytesUsed + bytes.length > previewBytes.length) {
+      growPreviews(row, Math.max(previewBytes.length * 2, previewBytesUsed + bytes.length));
+    }
+    final int index = row % capacity;
+    previewStarts[index] = previewEnd;
+    previewLengths[index] = bytes.length;
+    final int firstPart = Math.min(bytes.length, previewBytes.length - previewEnd);
+    System.arraycopy(bytes, 0, previewBytes, previewEnd, firstPart);
+    System.arraycopy(bytes, firstPart, previewBytes, 0, bytes.length - firstPart);
+    previewEnd = (previewEnd + bytes.length) % previewBytes.length;
+    previewBytesUsed += bytes.length;
+  }
+
+  /**
+   * Moves the previews of the rows before the given one to the start of a larger ring.
+   */
+  private void growPreviews(int row, int newLength) {
+    final int oldLength = previewBytes.length;
+    final int oldStart = Math.floorMod(previewEnd - previewBytesUsed, oldLength);
+    final byte[] bytes = new byte[newLength];
+    final int firstPart = Math.min(previewBytesUsed, oldLength - oldStart);
+    System.arraycopy(previewBytes, oldStart, bytes, 0, firstPart);
+    System.arraycopy(previewBytes, 0, bytes, firstPart, previewBytesUsed - firstPart);
+    for (int stored = Math.max(0, row - capacity + 1); stored < row; stored++) {
+      final int index = stored % capacity;
+      previewStarts[index] = Math.floorMod(previewStarts[index] - oldStart, oldLength);
+    }
+    previewBytes = bytes;
+    previewEnd = previewBytesUsed;
+  }
+
+  @NotNull
+  private String decodePreview(int index) {
+    final int start = previewStarts[index];
+    final int length = previewLengths[index];
+    if (start + length <= previewBytes.length) {
+      return new String(previewBytes, start, length, StandardCharsets.UTF_8);
+    }
+    final byte[] bytes = new byte[length];
+    final int firstPart = previewBytes.length - start;
+    System.arraycopy(previewBytes, start, bytes, 0, firstPart);
+    System.arraycopy(previewBytes, 0, bytes, firstPart, length - firstPart);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int intern(@NotNull String name) {
+    return nameIndexes.computeIfAbsent(name, (key) -> {
+      names.add(key);
+      return names.size() - 1;
+    });
+  }
+
+  /**
+   * Returns the oldest row still stored.
+   */
+  public synchronized int getStartRow() {
+    return Math.max(0, endRow - capacity);
+  }
+
+  /**
+   * Returns one past the newest row.
+   */
+  public synchronized int getEndRow() {
+    return endRow;
+  }
+
+  public synchronized int getLevel(int row) {
+    return levels[checkRow(row)];
+  }
+
+  public synchronized long getTime(int row) {
+    return times[checkRow(row)];
+  }
+
+  @NotNull
+  public synchronized String getLoggerName(int row) {
+    return names.get(loggers[checkRow(row)]);
+  }
+
+  /**
+   * Returns the message as sent with the record, which may be truncated.
+   */
+  @NotNull
+  public synchronized String getPreview(int row) {
+    return decodePreview(checkRow(row));
+  }
+
+  /**
+   * Returns the full message if it is known without asking the VM.
+   */
+  @Nullable
+  public synchronized String getCachedBody(int row) {
+    final int index = checkRow(row);
+    if (messageIds[index] == null) {
+      return decodePreview(index);
+    }
+    return bodies.get(bodyKey(index));
+  }
+
+  /**
+   * Returns the full message, fetching it from the VM if necessary.
+   * <p>
+   * If it can't be fetched, the result is the preview followed by "...".
+   */
+  @NotNull
+  public CompletableFuture<String> getBody(int row) {
+    final String isolateId;
+    final String messageId;
+    final String preview;
+    final int length;
+    final String key;
+    synchronized (this) {
+      final String cached = getCachedBody(row);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(cached);
+      }
+      final int index = checkRow(row);
+      isolateId = names.get(isolates[index]);
+      messageId = messageIds[index];
+      preview = decodePreview(index);
+      length = lengths[index];
+      key = bodyKey(index);
+    }
+    return resolver.resolve(isolateId, messageId, length).handle((body, error) -> {
+      if (body == null) {
+        return preview + "...";
+      }
+      synchronized (this) {
+        bodies.put(key, body);
+        if (bodies.size() > MAX_CACHED_BODIES) {
+          bodies.remove(bodies.keySet().iterator().next());
+        }
+      }
+      return body;
+    });
+  }
+
+  @NotNull
+  private String bodyKey(int index) {
+    return names.get(isolates[index]) + "/" + messageIds[index];
+  }
+
+  /**
+   * Returns the logger names seen so far, in the order they were first used.
+   */
+  @NotNull
+  public synchronized List<String> getLoggerNames() {
+    final Set<Integer> used = new LinkedHashSet<>();
+    for (int row = getStartRow(); row < endRow; row++) {
+      used.add(loggers[row % capacity]);
+    }
+    final List<String> result = new ArrayList<>();
+    for (int index : used) {
+      result.add(names.get(index));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the rows with at least the given level, from the given logger if it isn't null.
+   */
+  @NotNull
+  public synchronized int[] filter(int minLevel, @Nullable String loggerName) {
+    final int logger;
+    if (loggerName == null) {
+      logger = -1;
+    }
+    else {
+      final Integer index = nameIndexes.get(loggerName);
+      if (index == null) {
+        return new int[0];
+      }
+      logger = index;
+    }
+
+    int[] rows = new int[64];
+    int count = 0;
+    for (int row = getStartRow(); row < endRow; row++) {
+      final int index = row % capacity;
+      if (levels[index] >= minLevel && (logger < 0 || loggers[index] == logger)) {
+        if (count == rows.length) {
+          rows = Arrays.copyOf(rows, count * 2);
+        }
+        rows[count++] = row;
+      }
+    }
+    return Arrays.copyOf(rows, count);
+  }
+
+  private int checkRow(int row) {
+    if (row < getStartRow() || row >= endRow) {
+      throw new IndexOutOfBoundsException("row " + row + " is not stored");
+    }
+    return row % capacity;
+  }
+
+  /**
+   * Returns a resolver that fetches strings from the given service, when there is one.
+   */
+  @NotNull
+  public static BodyResolver vmServiceResolver(@NotNull Supplier<VmService> service) {
+    return (isolateId, objectId, length) -> {
+      final CompletableFuture<String> result = new CompletableFuture<>();
+      final VmService vmService = service.get();
+      if (vmService == null) {
+        result.complete(null);
+        return result;
+      }
+      vmService.getObject(isolateId, objectId, 0, length, new GetObjectConsumer() {
+        @Override
+        public void onError(RPCError error) {
+          result.complete(null);
+        }
+
+        @Override
+        public void received(Obj response) {
+          if (response instanceof Instance && ((Instance)response).getKind() == InstanceKind.String) {
+            final Instance instance = (Instance)response;
+            result.complete(instance.getValueAsStringIsTruncated() ? instance.getValueAsString() + "..." : instance.getValueAsString());
+          }
+          else {
+            result.complete(null);
+          }
+        }
+
+        @Override
+        public void received(Sentinel response) {
+          result.complete(null);
+        }
+      });
+      return result;
+    };
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Shows the records in a {@link LoggingRecordStore}, filtered by level and logger.
+ * <p>
+ * Truncated messages are only fetched from the VM for the rows that are rendered.
+ */
+public class LoggingRecordViewer extends DialogWrapper {
+  private static final String ALL_LOGGERS = "All loggers";
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+  /**
+   * Levels from package:logging, which most apps use to write these records.
+   */
+  private enum Level {
+    ALL("All levels", Integer.MIN_VALUE),
+    FINEST("FINEST", 300),
+    FINER("FINER", 400),
+    FINE("FINE", 500),
+    CONFIG("CONFIG", 700),
+    INFO("INFO", 800),
+    WARNING("WARNING", 900),
+    SEVERE("SEVERE", 1000),
+    SHOUT("SHOUT", 1200);
+
+    @NotNull final String label;
+    final int value;
+
+    Level(@NotNull String label, int value) {
+      this.label = label;
+      this.value = value;
+    }
+
+    @NotNull
+    static String nameOf(int value) {
+      String name = String.valueOf(value);
+      for (Level level : values()) {
+        if (level != ALL && value >= level.value) {
+          name = level.label;
+        }
+      }
+      return name;
+    }
+
+    @Override
+    public String toString() {
+      return label;
+    }
+  }
+
+  @NotNull private final LoggingRecordStore records;
+  @NotNull private final ComboBox<Level> levelBox = new ComboBox<>(Level.values());
+  @NotNull private final ComboBox<String> loggerBox = new ComboBox<>();
+  @NotNull private final JBLabel countLabel = new JBLabel();
+  @NotNull private final RecordTableModel model;
+
+  public LoggingRecordViewer(@Nullable Project project, @NotNull LoggingRecordStore records) {
+    super(project, false);
+    this.records = records;
+    this.model = new RecordTableModel(records);
+    setTitle("Logging Records");
+    setModal(false);
+
+    loggerBox.addItem(ALL_LOGGERS);
+    for (String name : records.getLoggerNames()) {
+      loggerBox.addItem(name);
+    }
+    levelBox.addActionListener((e) -> refresh());
+    loggerBox.addActionListener((e) -> refresh());
+    refresh();
+
+    init();
+  }
+
+  private void refresh() {
+    final Level level = (Level)levelBox.getSelectedItem();
+    final String logger = (String)loggerBox.getSelectedItem();
+    final int[] rows = records.filter(level == null ? Integer.MIN_VALUE : level.value,
+                                      logger == null || ALL_LOGGERS.equals(logger) ? null : logger);
+    model.setRows(rows);
+    countLabel.setText(rows.length + " records");
+  }
+
+  @Nullable
+  @Override
+  protected JComponent createCenterPanel() {
+    final JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT, JBUI.scale(8), 0));
+    filters.add(levelBox);
+    filters.add(loggerBox);
+    filters.add(countLabel);
+
+    final JBTable table = new JBTable(model);
+    table.getColumnModel().getColumn(0).setPreferredWidth(JBUI.scale(90));
+    table.getColumnModel().getColumn(1).setPreferredWidth(JBUI.scale(70));
+    table.getColumnModel().getColumn(2).setPreferredWidth(JBUI.scale(120));
+    table.getColumnModel().getColumn(3).setPreferredWidth(JBUI.scale(620));
+
+    final JPanel panel = new JPanel(new BorderLayout(0, JBUI.scale(4)));
+    panel.add(filters, BorderLayout.NORTH);
+    final JBScrollPane scrollPane = new JBScrollPane(table);
+    scrollPane.setPreferredSize(JBUI.size(900, 500));
+    panel.add(scrollPane, BorderLayout.CENTER);
+    return panel;
+  }
+
+  private static class RecordTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Time", "Level", "Logger", "Message"};
+
+    @NotNull private final LoggingRecordStore records;
+    @NotNull private int[] rows = new int[0];
+
+    /**
+     * Rows whose message has been fetched, or is being fetched, so that messages which can't be fetched aren't
+     * requested again each time they are rendered.
+     */
+    private final Set<Integer> requested = new HashSet<>();
+
+    RecordTableModel(@NotNull LoggingRecordStore records) {
+      this.records = records;
+    }
+
+    void setRows(@NotNull int[] rows) {
+      this.rows = rows;
+      fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+      return rows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+      return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int tableRow, int column) {
+      final int row = rows[tableRow];
+      if (row < records.getStartRow()) {
+        return "";
+      }
+      switch (column) {
+        case 0:
+          return TIME_FORMAT.format(Instant.ofEpochMilli(records.getTime(row)));
+        case 1:
+          return Level.nameOf(records.getLevel(row));
+        case 2:
+          return records.getLoggerName(row);
+        default:
+          return getMessage(tableRow, row);
+      }
+    }
+
+    /**
+     * Returns the message if it's known, otherwise starts fetching it and returns the preview.
+     */
+    @NotNull
+    private String getMessage(int tableRow, int row) {
+      final String body = records.getCachedBody(row);
+      if (body != null) {
+        return body;
+      }
+      if (requested.add(row)) {
+        final int[] requestedRows = rows;
+        records.getBody(row).thenAccept((resolved) -> ApplicationManager.getApplication().invokeLater(() -> {
+          // The rows may have been filtered differently while the message was fetched.
+          if (rows == requestedRows) {
+            fireTableCellUpdated(tableRow, 3);
+          }
+        }, ModalityState.any()));
+      }
+      return records.getPreview(row) + "...";
+    }
+  }
+}
@@ -89,8 +89,7 @@ public class FlutterGeneratorPeer {
       if (path != null) {
         FlutterSdk sdk = FlutterSdk.forPath(path);
         if (sdk != null) {
-          sdk.queryConfiguredPlatforms(false);
-          sdk.queryFlutterChannel(false);
+          sdk.refreshConfigValuesIfStale();
         }
       }
     });
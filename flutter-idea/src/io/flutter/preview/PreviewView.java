@@ -6,8 +6,6 @@
 package io.flutter.preview;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.intellij.icons.AllIcons;
 import com.intellij.ide.CommonActionsManager;
 import com.intellij.ide.DefaultTreeExpander;
@@ -35,10 +33,12 @@ import com.intellij.ui.content.ContentFactory;
 import com.intellij.ui.content.ContentManager;
 import com.intellij.ui.speedSearch.SpeedSearchUtil;
 import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.Alarm;
 import com.intellij.util.messages.MessageBusConnection;
 import io.flutter.FlutterInitializer;
 import io.flutter.FlutterUtils;
 import io.flutter.dart.FlutterDartAnalysisServer;
+import io.flutter.dart.FlutterOutlineDiff;
 import io.flutter.dart.FlutterOutlineListener;
 import io.flutter.editor.PropertyEditorPanel;
 import io.flutter.inspector.InspectorGroupManagerService;
@@ -74,6 +74,16 @@ import java.util.*;
 public class PreviewView implements PersistentStateComponent<PreviewViewState> {
   public static final String TOOL_WINDOW_ID = "Flutter Outline";
 
+  /**
+   * Minimum delay between updates of the outline tree while the outline is changing quickly, e.g. when typing.
+   */
+  private static final int OUTLINE_UPDATE_DELAY_MS = 150;
+
+  /**
+   * How far ahead in the existing children of a node to look for a node to reuse for an outline.
+   */
+  private static final int MAX_NODE_LOOKAHEAD = 8;
+
   @NotNull
   private final PreviewViewState state = new PreviewViewState();
 
@@ -94,8 +104,14 @@ public class PreviewView implements PersistentStateComponent<PreviewViewState> {
   private OutlineTree tree;
   private @Nullable PreviewArea previewArea;
 
-  private final Set<FlutterOutline> outlinesWithWidgets = Sets.newHashSet();
-  private final Map<FlutterOutline, DefaultMutableTreeNode> outlineToNodeMap = Maps.newHashMap();
+  // FlutterOutline.hashCode() hashes the whole subtree so outlines are compared by identity.
+  private final Set<FlutterOutline> outlinesWithWidgets = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Map<FlutterOutline, DefaultMutableTreeNode> outlineToNodeMap = new IdentityHashMap<>();
+
+  private final Alarm outlineUpdateAlarm;
+  private final Object pendingOutlineLock = new Object();
+  private FlutterOutline pendingOutline;
+  private String pendingOutlinePath;
 
   private final EventStream<VirtualFile> currentFile;
   private String currentFilePath;
@@ -109,7 +125,7 @@ public class PreviewView implements PersistentStateComponent<PreviewViewState> {
     @Override
     public void outlineUpdated(@NotNull String filePath, @NotNull FlutterOutline outline, @Nullable String instrumentedCode) {
       if (Objects.equals(currentFilePath, filePath)) {
-        ApplicationManager.getApplication().invokeLater(() -> updateOutline(outline));
+        scheduleOutlineUpdate(filePath, outline);
       }
     }
   };
@@ -138,6 +154,7 @@ public class PreviewView implements PersistentStateComponent<PreviewViewState> {
 
   public PreviewView(@NotNull Project project) {
     this.project = project;
+    outlineUpdateAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, project);
     currentFile = new EventStream<>();
     activeOutlines = new EventStream<>(ImmutableList.of());
     flutterAnalysisServer = FlutterDartAnalysisServer.getInstance(project);
@@ -369,21 +386,71 @@ public class PreviewView implements PersistentStateComponent<PreviewViewState> {
     return (DefaultMutableTreeNode)getTreeModel().getRoot();
   }
 
+  /**
+   * Schedules the tree to be updated to outline.
+   * <p>
+   * Updates are throttled so that only the latest outline is applied when outlines arrive faster than
+   * {@link #OUTLINE_UPDATE_DELAY_MS}.
+   */
+  private void scheduleOutlineUpdate(@NotNull String filePath, @NotNull FlutterOutline outline) {
+    synchronized (pendingOutlineLock) {
+      final boolean scheduled = pendingOutline != null;
+      pendingOutline = outline;
+      pendingOutlinePath = filePath;
+      if (!scheduled) {
+        outlineUpdateAlarm.addRequest(this::applyPendingOutline, OUTLINE_UPDATE_DELAY_MS);
+      }
+    }
+  }
+
+  private void applyPendingOutline() {
+    final FlutterOutline outline;
+    final String filePath;
+    synchronized (pendingOutlineLock) {
+      outline = pendingOutline;
+      filePath = pendingOutlinePath;
+      pendingOutline = null;
+      pendingOutlinePath = null;
+    }
+    if (outline != null && Objects.equals(currentFilePath, filePath)) {
+      updateOutline(outline);
+    }
+  }
+
+  private void clearTree() {
+    final DefaultMutableTreeNode rootNode = getRootNode();
+    rootNode.removeAllChildren();
+    outlineToNodeMap.clear();
+    getTreeModel().reload(rootNode);
+  }
+
   private void updateOutline(@NotNull FlutterOutline outline) {
     currentOutline = outline;
 
     final DefaultMutableTreeNode rootNode = getRootNode();
-    rootNode.removeAllChildren();
 
     outlinesWithWidgets.clear();
-    outlineToNodeMap.clear();
+    final List<FlutterOutline> children = outline.getChildren() != null ? outline.getChildren() : Collections.emptyList();
     if (outline.getChildren() != null) {
       computeOutlinesWithWidgets(outline);
-      updateOutlineImpl(rootNode, outline.getChildren());
     }
 
-    getTreeModel().reload(rootNode);
-    tree.expandAll();
+    if (rootNode.getChildCount() == 0) {
+      // There is no tree state to preserve so build the whole tree at once.
+      outlineToNodeMap.clear();
+      addNodes(rootNode, children);
+      getTreeModel().reload(rootNode);
+      tree.expandAll();
+    }
+    else {
+      // Only update the nodes that changed so that expansion and selection are kept and unchanged rows are not
+      // re-rendered.
+      final List<DefaultMutableTreeNode> inserted = new ArrayList<>();
+      updateChildren(rootNode, children, inserted);
+      for (DefaultMutableTreeNode node : inserted) {
+        expandSubtree(node);
+      }
+    }
 
     if (currentEditor != null) {
       final Caret caret = currentEditor.getCaretModel().getPrimaryCaret();
@@ -452,23 +519,151 @@ public class PreviewView implements PersistentStateComponent<PreviewViewState> {
     return hasWidget;
   }
 
-  private void updateOutlineImpl(@NotNull DefaultMutableTreeNode parent, @NotNull List<FlutterOutline> outlines) {
-    int index = 0;
+  @NotNull
+  private List<FlutterOutline> getVisibleOutlines(@Nullable List<FlutterOutline> outlines) {
+    if (outlines == null) {
+      return Collections.emptyList();
+    }
+    if (!FlutterSettings.getInstance().isShowOnlyWidgets()) {
+      return outlines;
+    }
+    final List<FlutterOutline> visible = new ArrayList<>();
     for (final FlutterOutline outline : outlines) {
-      if (FlutterSettings.getInstance().isShowOnlyWidgets() && !outlinesWithWidgets.contains(outline)) {
-        continue;
+      if (outlinesWithWidgets.contains(outline)) {
+        visible.add(outline);
+      }
+    }
+    return visible;
+  }
+
+  /**
+   * Adds nodes for outlines to a parent that is not yet attached to the tree, or that is reloaded afterwards.
+   */
+  private void addNodes(@NotNull DefaultMutableTreeNode parent, @Nullable List<FlutterOutline> outlines) {
+    for (final FlutterOutline outline : getVisibleOutlines(outlines)) {
+      parent.add(createNode(outline));
+    }
+  }
+
+  @NotNull
+  private DefaultMutableTreeNode createNode(@NotNull FlutterOutline outline) {
+    final DefaultMutableTreeNode node = new DefaultMutableTreeNode(new OutlineObject(outline));
+    outlineToNodeMap.put(outline, node);
+    addNodes(node, outline.getChildren());
+    return node;
+  }
+
+  /**
+   * Updates the children of parent to match outlines, notifying the tree model only about the nodes that changed.
+   * <p>
+   * Existing nodes are reused for outlines representing the same widget. Nodes whose outline is identical to the
+   * current outline are unchanged as {@link FlutterOutlineDiff} reuses unchanged subtrees of the previous outline.
+   */
+  private void updateChildren(@NotNull DefaultMutableTreeNode parent,
+                              @Nullable List<FlutterOutline> outlines,
+                              @NotNull List<DefaultMutableTreeNode> inserted) {
+    final List<FlutterOutline> visible = getVisibleOutlines(outlines);
+    final int oldCount = parent.getChildCount();
+    final DefaultMutableTreeNode[] matches = new DefaultMutableTreeNode[visible.size()];
+    final boolean[] kept = new boolean[oldCount];
+    int next = 0;
+    for (int i = 0; i < visible.size(); ++i) {
+      final int match = findMatchingChild(parent, next, visible.get(i));
+      if (match >= 0) {
+        matches[i] = (DefaultMutableTreeNode)parent.getChildAt(match);
+        kept[match] = true;
+        next = match + 1;
       }
+    }
 
-      final OutlineObject object = new OutlineObject(outline);
-      final DefaultMutableTreeNode node = new DefaultMutableTreeNode(object);
-      outlineToNodeMap.put(outline, node);
+    // Remove the nodes that no longer have an outline.
+    int removedCount = 0;
+    for (boolean k : kept) {
+      if (!k) removedCount++;
+    }
+    if (removedCount > 0) {
+      final int[] removedIndices = new int[removedCount];
+      final Object[] removedNodes = new Object[removedCount];
+      int r = 0;
+      for (int j = 0; j < oldCount; ++j) {
+        if (!kept[j]) {
+          removedIndices[r] = j;
+          removedNodes[r] = parent.getChildAt(j);
+          r++;
+        }
+      }
+      for (int j = removedCount - 1; j >= 0; --j) {
+        final DefaultMutableTreeNode node = (DefaultMutableTreeNode)removedNodes[j];
+        unmapSubtree(node);
+        parent.remove(removedIndices[j]);
+      }
+      getTreeModel().nodesWereRemoved(parent, removedIndices, removedNodes);
+    }
 
-      getTreeModel().insertNodeInto(node, parent, index++);
+    // Kept nodes are in the same relative order as their outlines, so inserting new nodes in order puts every node
+    // at its final index.
+    final List<Integer> insertedIndices = new ArrayList<>();
+    for (int i = 0; i < visible.size(); ++i) {
+      final FlutterOutline outline = visible.get(i);
+      final DefaultMutableTreeNode node = matches[i];
+      if (node == null) {
+        final DefaultMutableTreeNode newNode = createNode(outline);
+        parent.insert(newNode, i);
+        insertedIndices.add(i);
+        inserted.add(newNode);
+      }
+      else if (getOutlineOfNode(node) != outline) {
+        final OutlineObject previous = (OutlineObject)node.getUserObject();
+        outlineToNodeMap.remove(previous.outline);
+        node.setUserObject(new OutlineObject(outline, previous));
+        outlineToNodeMap.put(outline, node);
+        getTreeModel().nodeChanged(node);
+        updateChildren(node, outline.getChildren(), inserted);
+      }
+    }
+    if (!insertedIndices.isEmpty()) {
+      final int[] indices = new int[insertedIndices.size()];
+      for (int i = 0; i < indices.length; ++i) {
+        indices[i] = insertedIndices.get(i);
+      }
+      getTreeModel().nodesWereInserted(parent, indices);
+    }
+  }
 
-      if (outline.getChildren() != null) {
-        updateOutlineImpl(node, outline.getChildren());
+  /**
+   * Finds the index of a child of parent at or after start to reuse for outline, preferring a child for the
+   * identical outline.
+   */
+  private static int findMatchingChild(@NotNull DefaultMutableTreeNode parent, int start, @NotNull FlutterOutline outline) {
+    final int end = Math.min(parent.getChildCount(), start + MAX_NODE_LOOKAHEAD);
+    int sameWidget = -1;
+    for (int i = start; i < end; ++i) {
+      final FlutterOutline existing = getOutlineOfNode((DefaultMutableTreeNode)parent.getChildAt(i));
+      if (existing == outline) {
+        return i;
+      }
+      if (sameWidget < 0 && FlutterOutlineDiff.sameIdentity(existing, outline)) {
+        sameWidget = i;
       }
     }
+    return sameWidget;
+  }
+
+  private void unmapSubtree(@NotNull DefaultMutableTreeNode node) {
+    outlineToNodeMap.remove(getOutlineOfNode(node));
+    for (int i = 0; i < node.getChildCount(); ++i) {
+      unmapSubtree((DefaultMutableTreeNode)node.getChildAt(i));
+    }
+  }
+
+  private void expandSubtree(@NotNull DefaultMutableTreeNode node) {
+    if (node.isLeaf()) {
+      return;
+    }
+    tree.expandPath(new TreePath(node.getPath()));
+    for (int i = 0; i < node.getChildCount(); ++i) {
+      expandSubtree((DefaultMutableTreeNode)node.getChildAt(i));
+    }
   }
 
   @NotNull
@@ -545,11 +740,14 @@ public class PreviewView implements PersistentStateComponent<PreviewViewState> {
       }
     }
 
+    synchronized (pendingOutlineLock) {
+      pendingOutline = null;
+      pendingOutlinePath = null;
+    }
+
     // If the tree is already created, clear it now, until the outline for the new file is received.
     if (tree != null) {
-      final DefaultMutableTreeNode rootNode = getRootNode();
-      rootNode.removeAllChildren();
-      getTreeModel().reload(rootNode);
+      clearTree();
     }
 
     // Subscribe for the outline for the new file.
@@ -683,6 +881,8 @@ public class PreviewView implements PersistentStateComponent<PreviewViewState> {
       final FlutterSettings flutterSettings = FlutterSettings.getInstance();
       flutterSettings.setShowOnlyWidgets(!flutterSettings.isShowOnlyWidgets());
       if (currentOutline != null) {
+        // Reused subtrees were filtered with the previous setting so rebuild the whole tree.
+        clearTree();
         updateOutline(currentOutline);
       }
     }
@@ -743,6 +943,17 @@ class OutlineObject {
     this.outline = outline;
   }
 
+  /**
+   * Creates the object for an updated outline of the same widget, reusing the icon of previous.
+   */
+  OutlineObject(FlutterOutline outline, OutlineObject previous) {
+    this.outline = outline;
+    if (Objects.equals(outline.getKind(), previous.outline.getKind()) &&
+        Objects.equals(outline.getClassName(), previous.outline.getClassName())) {
+      this.icon = previous.icon;
+    }
+  }
+
   Icon getIcon() {
     if (outline.getKind().equals(FlutterOutlineKind.DART_ELEMENT)) {
       return null;
@@ -128,6 +128,8 @@ public class FlutterDebugProcess extends DartVmServiceDebugProcess {
     topToolbar.addAction(new RestartFlutterApp(app, canReload));
     topToolbar.addSeparator();
     topToolbar.addAction(new OpenDevToolsAction(app, debugUrlAvailable));
+    topToolbar.addAction(new ShowAppLogAction(app));
+    topToolbar.addAction(new ShowLoggingRecordsAction(app));
 
     settings.addAction(new ReloadAllFlutterApps(app, canReload));
     settings.addAction(new RestartAllFlutterApps(app, canReload));
@@ -246,6 +246,8 @@ public class LaunchState extends CommandLineState {
       super.createActions(console, app.getProcessHandler(), getEnvironment().getExecutor())));
     actions.add(new Separator());
     actions.add(new OpenDevToolsAction(app, observatoryAvailable));
+    actions.add(new ShowAppLogAction(app));
+    actions.add(new ShowLoggingRecordsAction(app));
 
     return new DefaultExecutionResult(console, app.getProcessHandler(), actions.toArray(new AnAction[0]));
   }
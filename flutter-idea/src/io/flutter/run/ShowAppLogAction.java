@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAwareAction;
+import io.flutter.FlutterInitializer;
+import io.flutter.logging.AppLogViewer;
+import io.flutter.run.daemon.FlutterApp;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Opens a searchable view of everything the app has logged, including output trimmed from the console.
+ */
+public class ShowAppLogAction extends DumbAwareAction {
+  private static final String title = "Show Full App Log";
+  private final @NotNull FlutterApp myApp;
+
+  public ShowAppLogAction(@NotNull final FlutterApp app) {
+    super(title, title, AllIcons.Actions.Find);
+    myApp = app;
+  }
+
+  @Override
+  public void update(@NotNull final AnActionEvent e) {
+    // The spool is deleted when the app's console is closed.
+    e.getPresentation().setEnabled(!myApp.getLogSpool().isDisposed());
+  }
+
+  @Override
+  public void actionPerformed(@NotNull final AnActionEvent event) {
+    FlutterInitializer.sendAnalyticsAction(this);
+    new AppLogViewer(event.getProject(), myApp.getLogSpool()).show();
+  }
+}
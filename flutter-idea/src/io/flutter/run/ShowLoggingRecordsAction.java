@@ -0,0 +1,38 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAwareAction;
+import io.flutter.FlutterInitializer;
+import io.flutter.logging.LoggingRecordViewer;
+import io.flutter.run.daemon.FlutterApp;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Opens a table of the records the app sent on the Logging stream, which can be filtered by level and logger.
+ */
+public class ShowLoggingRecordsAction extends DumbAwareAction {
+  private static final String title = "Show Logging Records";
+  private final @NotNull FlutterApp myApp;
+
+  public ShowLoggingRecordsAction(@NotNull final FlutterApp app) {
+    super(title, title, AllIcons.General.Filter);
+    myApp = app;
+  }
+
+  @Override
+  public void update(@NotNull final AnActionEvent e) {
+    e.getPresentation().setEnabled(myApp.getLoggingRecords().getEndRow() > 0);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull final AnActionEvent event) {
+    FlutterInitializer.sendAnalyticsAction(this);
+    new LoggingRecordViewer(event.getProject(), myApp.getLoggingRecords()).show();
+  }
+}
@@ -7,12 +7,15 @@ package io.flutter.run.daemon;
 
 import com.google.common.base.Charsets;
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.intellij.execution.process.ProcessAdapter;
 import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import io.flutter.FlutterUtils;
 import io.flutter.settings.FlutterSettings;
 import io.flutter.utils.JsonUtils;
@@ -24,8 +27,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringReader;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -118,6 +123,10 @@ public class DaemonApi {
    * Receive responses and events from a process until it shuts down.
    */
   void listen(@NotNull ProcessHandler process, @NotNull DaemonEvent.Listener listener) {
+    // Messages are decoded and dispatched in order on another thread so that handling them never blocks reading the
+    // process output.
+    final Executor dispatcher = AppExecutorUtil.createBoundedApplicationPoolExecutor("DaemonApi", 1);
+
     process.addProcessListener(new ProcessAdapter() {
       @Override
       public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
@@ -146,23 +155,28 @@ public class DaemonApi {
 
           stdoutParser.appendOutput(text);
 
-          for (String line : stdoutParser.getAvailableLines()) {
-            final JsonObject obj = parseAndValidateDaemonEvent(line);
-            if (obj != null) {
-              dispatch(obj, listener);
-            }
+          final List<String> lines = stdoutParser.getAvailableLines();
+          if (!lines.isEmpty()) {
+            dispatcher.execute(() -> {
+              for (String line : lines) {
+                dispatch(line, listener);
+              }
+            });
           }
         }
       }
 
       @Override
       public void processWillTerminate(@NotNull ProcessEvent event, boolean willBeDestroyed) {
+        // This is synchronous so listeners can try a graceful shutdown, which needs responses to be dispatched.
         listener.processWillTerminate();
       }
 
       @Override
       public void processTerminated(@NotNull ProcessEvent event) {
-        listener.processTerminated(event.getExitCode());
+        // Deliver this after any messages that are still being dispatched.
+        final int exitCode = event.getExitCode();
+        dispatcher.execute(() -> listener.processTerminated(exitCode));
       }
     });
 
@@ -182,24 +196,105 @@ public class DaemonApi {
       }
     }
     else {
-      final Command cmd = takePending(idField.getAsInt());
-      if (cmd == null) {
-        return;
-      }
+      handleResponse(idField.getAsInt(), obj.get("result"), obj.get("error"), obj.get("trace"));
+    }
+  }
 
-      final JsonElement error = obj.get("error");
-      if (error != null) {
-        final JsonElement trace = obj.get("trace");
-        String message = FLUTTER_ERROR_PREFIX + " " + cmd.method + ": " + error;
-        if (trace != null) {
-          message += "\n" + trace;
+  /**
+   * Decodes a line of output and handles it as either a command's response or an event.
+   * <p>
+   * Events are read straight into {@link DaemonEvent}s without building a JSON tree. Lines
+   * that are not valid daemon messages are ignored.
+   */
+  void dispatch(@NotNull String line, @Nullable DaemonEvent.Listener eventListener) {
+    if (!line.startsWith("[{")) {
+      return;
+    }
+    final String message = line.trim();
+    if (!message.endsWith("}]")) {
+      return;
+    }
+
+    String eventName = null;
+    DaemonEvent event = null;
+    JsonElement params = null;
+    Integer id = null;
+    JsonElement result = null;
+    JsonElement error = null;
+    JsonElement trace = null;
+    try {
+      final JsonReader reader = new JsonReader(new StringReader(message));
+      reader.setLenient(true);
+      reader.beginArray();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "event":
+            eventName = DaemonEvent.readString(reader);
+            break;
+          case "params":
+            if (eventName != null && reader.peek() == JsonToken.BEGIN_OBJECT) {
+              event = DaemonEvent.read(eventName, reader);
+            }
+            else {
+              // The event name comes first in practice, but the order isn't guaranteed.
+              params = JsonParser.parseReader(reader);
+            }
+            break;
+          case "id":
+            if (reader.peek() != JsonToken.NUMBER) {
+              return;
+            }
+            id = reader.nextInt();
+            break;
+          case "result":
+            result = JsonParser.parseReader(reader);
+            break;
+          case "error":
+            error = JsonParser.parseReader(reader);
+            break;
+          case "trace":
+            trace = JsonParser.parseReader(reader);
+            break;
+          default:
+            reader.skipValue();
         }
-        // Be sure to keep this statement in sync with COMPLETION_EXCEPTION_PREFIX.
-        cmd.completeExceptionally(new IOException(message));
       }
-      else {
-        cmd.complete(obj.get("result"));
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.info("Unexpected message from flutter process: " + message);
+      return;
+    }
+
+    if (eventName != null) {
+      if (event == null && params != null && params.isJsonObject()) {
+        event = DaemonEvent.create(eventName, params.getAsJsonObject());
       }
+      if (event != null && eventListener != null) {
+        event.accept(eventListener);
+      }
+    }
+    else if (id != null) {
+      handleResponse(id, result, error, trace);
+    }
+  }
+
+  private void handleResponse(int id, @Nullable JsonElement result, @Nullable JsonElement error, @Nullable JsonElement trace) {
+    final Command cmd = takePending(id);
+    if (cmd == null) {
+      return;
+    }
+
+    if (error != null) {
+      String message = FLUTTER_ERROR_PREFIX + " " + cmd.method + ": " + error;
+      if (trace != null) {
+        message += "\n" + trace;
+      }
+      // Be sure to keep this statement in sync with COMPLETION_EXCEPTION_PREFIX.
+      cmd.completeExceptionally(new IOException(message));
+    }
+    else {
+      cmd.complete(result);
     }
   }
 
@@ -8,12 +8,16 @@ package io.flutter.run.daemon;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.StringReader;
+
 /**
  * <p>A message received from a Flutter process that's not in response to a particular request.
  *
@@ -55,41 +59,118 @@ abstract class DaemonEvent {
   @Nullable
   static DaemonEvent create(@NotNull String eventName, @NotNull JsonObject params) {
     try {
-      switch (eventName) {
-        case "daemon.connected":
-          return GSON.fromJson(params, DaemonConnected.class);
-        case "daemon.log":
-          return GSON.fromJson(params, DaemonLog.class);
-        case "daemon.logMessage":
-          return GSON.fromJson(params, DaemonLogMessage.class);
-        case "daemon.showMessage":
-          return GSON.fromJson(params, DaemonShowMessage.class);
-        case "app.start":
-          return GSON.fromJson(params, AppStarting.class);
-        case "app.debugPort":
-          return GSON.fromJson(params, AppDebugPort.class);
-        case "app.started":
-          return GSON.fromJson(params, AppStarted.class);
-        case "app.log":
-          return GSON.fromJson(params, AppLog.class);
-        case "app.progress":
-          return GSON.fromJson(params, AppProgress.class);
-        case "app.stop":
-          return GSON.fromJson(params, AppStopped.class);
-        case "device.added":
-          return GSON.fromJson(params, DeviceAdded.class);
-        case "device.removed":
-          return GSON.fromJson(params, DeviceRemoved.class);
-        default:
-          return null; // Drop an unknown event.
-      }
+      final JsonReader reader = new JsonReader(new StringReader(params.toString()));
+      reader.setLenient(true);
+      return read(eventName, reader);
     }
-    catch (JsonSyntaxException e) {
+    catch (IOException | RuntimeException e) {
       LOG.info("Unexpected parameters in event from flutter process: " + params);
       return null;
     }
   }
 
+  /**
+   * Reads the parameters of an event, without building a JSON tree or using reflection.
+   * <p>
+   * Returns null for unknown events, whose parameters are skipped. Throws if the parameters
+   * do not match the event.
+   */
+  @Nullable
+  static DaemonEvent read(@NotNull String eventName, @NotNull JsonReader reader) throws IOException {
+    final DaemonEvent event = newEvent(eventName);
+    if (event == null) {
+      reader.skipValue();
+      return null; // Drop an unknown event.
+    }
+    reader.beginObject();
+    while (reader.hasNext()) {
+      event.readField(reader.nextName(), reader);
+    }
+    reader.endObject();
+    return event;
+  }
+
+  @Nullable
+  private static DaemonEvent newEvent(@NotNull String eventName) {
+    switch (eventName) {
+      case "daemon.connected":
+        return new DaemonConnected();
+      case "daemon.log":
+        return new DaemonLog();
+      case "daemon.logMessage":
+        return new DaemonLogMessage();
+      case "daemon.showMessage":
+        return new DaemonShowMessage();
+      case "app.start":
+        return new AppStarting();
+      case "app.debugPort":
+        return new AppDebugPort();
+      case "app.started":
+        return new AppStarted();
+      case "app.log":
+        return new AppLog();
+      case "app.progress":
+        return new AppProgress();
+      case "app.stop":
+        return new AppStopped();
+      case "device.added":
+        return new DeviceAdded();
+      case "device.removed":
+        return new DeviceRemoved();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Reads the value of the named parameter. Unknown parameters are skipped.
+   */
+  void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+    reader.skipValue();
+  }
+
+  // These accept the same values as the Gson type adapters the events used to be read with.
+
+  @Nullable
+  static String readString(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    if (token == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(reader.nextBoolean());
+    }
+    // Throws unless the value is a string or number.
+    return reader.nextString();
+  }
+
+  @Nullable
+  static Boolean readBoolean(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    if (token == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    if (token == JsonToken.STRING) {
+      return Boolean.parseBoolean(reader.nextString());
+    }
+    return reader.nextBoolean();
+  }
+
+  static boolean readBoolean(@NotNull JsonReader reader, boolean defaultValue) throws IOException {
+    final Boolean value = readBoolean(reader);
+    return value == null ? defaultValue : value;
+  }
+
+  static long readLong(@NotNull JsonReader reader, long defaultValue) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return defaultValue;
+    }
+    return reader.nextLong();
+  }
+
   abstract void accept(Listener listener);
 
   @Override
@@ -163,6 +244,20 @@ abstract class DaemonEvent {
     String version;
     long pid;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "version":
+          version = readString(reader);
+          break;
+        case "pid":
+          pid = readLong(reader, 0);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onDaemonConnected(this);
     }
@@ -173,6 +268,20 @@ abstract class DaemonEvent {
     String log;
     boolean error;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "log":
+          log = readString(reader);
+          break;
+        case "error":
+          error = readBoolean(reader, false);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onDaemonLog(this);
     }
@@ -184,6 +293,23 @@ abstract class DaemonEvent {
     String message;
     String stackTrace;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "level":
+          level = readString(reader);
+          break;
+        case "message":
+          message = readString(reader);
+          break;
+        case "stackTrace":
+          stackTrace = readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onDaemonLogMessage(this);
     }
@@ -195,6 +321,23 @@ abstract class DaemonEvent {
     String title;
     String message;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "level":
+          level = readString(reader);
+          break;
+        case "title":
+          title = readString(reader);
+          break;
+        case "message":
+          message = readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onDaemonShowMessage(this);
     }
@@ -213,6 +356,29 @@ abstract class DaemonEvent {
     String launchMode;
     boolean supportsRestart;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "appId":
+          appId = readString(reader);
+          break;
+        case "deviceId":
+          deviceId = readString(reader);
+          break;
+        case "directory":
+          directory = readString(reader);
+          break;
+        case "launchMode":
+          launchMode = readString(reader);
+          break;
+        case "supportsRestart":
+          supportsRestart = readBoolean(reader, false);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onAppStarting(this);
     }
@@ -226,6 +392,23 @@ abstract class DaemonEvent {
     String wsUri;
     String baseUri;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "appId":
+          appId = readString(reader);
+          break;
+        case "wsUri":
+          wsUri = readString(reader);
+          break;
+        case "baseUri":
+          baseUri = readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onAppDebugPort(this);
     }
@@ -235,6 +418,17 @@ abstract class DaemonEvent {
     // "event":"app.started"
     String appId;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "appId":
+          appId = readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onAppStarted(this);
     }
@@ -246,6 +440,23 @@ abstract class DaemonEvent {
     String log;
     boolean error;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "appId":
+          appId = readString(reader);
+          break;
+        case "log":
+          log = readString(reader);
+          break;
+        case "error":
+          error = readBoolean(reader, false);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onAppLog(this);
     }
@@ -281,6 +492,29 @@ abstract class DaemonEvent {
       return finished != null && finished;
     }
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "appId":
+          appId = readString(reader);
+          break;
+        case "id":
+          id = readString(reader);
+          break;
+        case "progressId":
+          progressId = readString(reader);
+          break;
+        case "message":
+          message = readString(reader);
+          break;
+        case "finished":
+          finished = readBoolean(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       if (isStarting()) {
         listener.onAppProgressStarting(this);
@@ -296,6 +530,20 @@ abstract class DaemonEvent {
     String appId;
     String error;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "appId":
+          appId = readString(reader);
+          break;
+        case "error":
+          error = readString(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onAppStopped(this);
     }
@@ -315,6 +563,38 @@ abstract class DaemonEvent {
     @Nullable String platformType;
     @Nullable Boolean ephemeral;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "id":
+          id = readString(reader);
+          break;
+        case "name":
+          name = readString(reader);
+          break;
+        case "platform":
+          platform = readString(reader);
+          break;
+        case "emulatorId":
+          emulatorId = readString(reader);
+          break;
+        case "emulator":
+          emulator = readBoolean(reader);
+          break;
+        case "category":
+          category = readString(reader);
+          break;
+        case "platformType":
+          platformType = readString(reader);
+          break;
+        case "ephemeral":
+          ephemeral = readBoolean(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onDeviceAdded(this);
     }
@@ -327,6 +607,26 @@ abstract class DaemonEvent {
     String platform;
     boolean emulator;
 
+    @Override
+    void readField(@NotNull String field, @NotNull JsonReader reader) throws IOException {
+      switch (field) {
+        case "id":
+          id = readString(reader);
+          break;
+        case "name":
+          name = readString(reader);
+          break;
+        case "platform":
+          platform = readString(reader);
+          break;
+        case "emulator":
+          emulator = readBoolean(reader, false);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+
     void accept(Listener listener) {
       listener.onDeviceRemoved(this);
     }
@@ -147,8 +147,16 @@ class DeviceDaemon {
       return null;
     }
 
+    return chooseCommand(sdk.getHomePath(), androidHome);
+  }
+
+  /**
+   * Returns the command to start the device daemon from a Flutter SDK, or null if the SDK has no flutter tool.
+   */
+  @Nullable
+  static Command chooseCommand(@NotNull String sdkHome, @Nullable String androidHome) {
     try {
-      final String path = FlutterSdkUtil.pathToFlutterTool(sdk.getHomePath());
+      final String path = FlutterSdkUtil.pathToFlutterTool(sdkHome);
       final ImmutableList<String> list;
       if (FlutterUtils.isIntegrationTestingMode()) {
         list = ImmutableList.of("--show-test-device", "daemon");
@@ -156,7 +164,7 @@ class DeviceDaemon {
       else {
         list = ImmutableList.of("daemon");
       }
-      return new Command(sdk.getHomePath(), path, list, androidHome);
+      return new Command(sdkHome, path, list, androidHome);
     }
     catch (ExecutionException e) {
       FlutterUtils.warn(LOG, "Unable to calculate command to watch Flutter devices", e);
@@ -194,6 +202,16 @@ class DeviceDaemon {
       this.androidHome = androidHome;
     }
 
+    @NotNull
+    String getWorkDir() {
+      return workDir;
+    }
+
+    @Nullable
+    String getAndroidHome() {
+      return androidHome;
+    }
+
     /**
      * Launches the daemon.
      *
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.daemon;
+
+import com.google.common.collect.ImmutableList;
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.execution.ExecutionException;
+import com.intellij.ide.AppLifecycleListener;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import io.flutter.run.FlutterDevice;
+import io.flutter.sdk.FlutterSdkUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The device daemons shared by all open projects.
+ * <p>
+ * Projects that need the same {@link DeviceDaemon.Command} share one 'flutter daemon' process, and device changes are
+ * passed on to each of them. A daemon that no project is using is kept for a while before it is shut down, so that
+ * closing and reopening a project doesn't start a new process.
+ * <p>
+ * At startup, the daemon that a project last used is started in the background, so that the device list is usually
+ * ready by the time a project needs it.
+ */
+public class DeviceDaemonPool implements Disposable {
+  private static final Logger LOG = Logger.getInstance(DeviceDaemonPool.class);
+
+  private static final long IDLE_TIMEOUT_SECONDS = TimeUnit.MINUTES.toSeconds(3);
+
+  private static final String LAST_SDK_HOME_KEY = "io.flutter.deviceDaemon.lastSdkHome";
+  private static final String LAST_ANDROID_HOME_KEY = "io.flutter.deviceDaemon.lastAndroidHome";
+
+  /**
+   * The daemons that are running or starting, by their command. Guarded by this.
+   */
+  private final Map<DeviceDaemon.Command, Entry> entries = new HashMap<>();
+
+  private volatile boolean disposed;
+
+  @NotNull
+  public static DeviceDaemonPool getInstance() {
+    return ApplicationManager.getApplication().getService(DeviceDaemonPool.class);
+  }
+
+  /**
+   * Subscribes to the daemon for a command, starting it if it isn't running.
+   * <p>
+   * Returns null if the daemon couldn't be started and shouldn't be retried.
+   *
+   * @param isCancelled    will be polled during startup to see if startup is cancelled.
+   * @param deviceChanged  will be called whenever a device is added or removed.
+   * @param processStopped will be called if the process exits unexpectedly after this method returns.
+   */
+  @Nullable
+  Lease acquire(@NotNull DeviceDaemon.Command command,
+                @NotNull Supplier<Boolean> isCancelled,
+                @NotNull Runnable deviceChanged,
+                @NotNull Consumer<String> processStopped) throws ExecutionException {
+    final Entry entry = beginStart(command);
+    try {
+      final DeviceDaemon daemon = entry.getOrStart(isCancelled);
+      if (daemon == null) {
+        return null;
+      }
+      final Lease lease = new Lease(entry, daemon, deviceChanged, processStopped);
+      entry.leases.add(lease);
+      rememberCommand(command);
+      return lease;
+    }
+    finally {
+      endStart(entry);
+    }
+  }
+
+  /**
+   * Saves a Flutter SDK daemon command so that {@link #prewarm} can start the same one in the next session.
+   * <p>
+   * Bazel daemon scripts are not saved, since they can only be found through a project.
+   */
+  private static void rememberCommand(@NotNull DeviceDaemon.Command command) {
+    final String sdkHome = command.getWorkDir();
+    if (!FlutterSdkUtil.isFlutterSdkHome(sdkHome) ||
+        !command.equals(DeviceDaemon.chooseCommand(sdkHome, command.getAndroidHome()))) {
+      return;
+    }
+    final PropertiesComponent properties = PropertiesComponent.getInstance();
+    properties.setValue(LAST_SDK_HOME_KEY, sdkHome);
+    properties.setValue(LAST_ANDROID_HOME_KEY, command.getAndroidHome());
+  }
+
+  /**
+   * Starts the daemon that a project last used.
+   * <p>
+   * ANDROID_HOME is taken from the project's Android SDK, which can't be looked up without the project. So the saved
+   * command is used as is, and nothing is started if no project has used a daemon yet.
+   * <p>
+   * It is shut down after the idle timeout if no project uses it.
+   */
+  void prewarm() {
+    final PropertiesComponent properties = PropertiesComponent.getInstance();
+    final String sdkHome = properties.getValue(LAST_SDK_HOME_KEY);
+    if (sdkHome == null || !FlutterSdkUtil.isFlutterSdkHome(sdkHome)) {
+      return;
+    }
+    final DeviceDaemon.Command command = DeviceDaemon.chooseCommand(sdkHome, properties.getValue(LAST_ANDROID_HOME_KEY));
+    if (command == null) {
+      return;
+    }
+
+    final Entry entry = beginStart(command);
+    try {
+      entry.getOrStart(() -> disposed);
+    }
+    catch (ExecutionException | CancellationException e) {
+      LOG.info("Unable to start the Flutter device daemon ahead of time", e);
+    }
+    finally {
+      endStart(entry);
+    }
+  }
+
+  @NotNull
+  private synchronized Entry beginStart(@NotNull DeviceDaemon.Command command) {
+    final Entry entry = entries.computeIfAbsent(command, Entry::new);
+    entry.starting++;
+    entry.cancelIdleShutdown();
+    return entry;
+  }
+
+  private synchronized void endStart(@NotNull Entry entry) {
+    entry.starting--;
+    scheduleIdleShutdownIfUnused(entry);
+  }
+
+  private synchronized void release(@NotNull Lease lease) {
+    lease.entry.leases.remove(lease);
+    scheduleIdleShutdownIfUnused(lease.entry);
+  }
+
+  private void scheduleIdleShutdownIfUnused(@NotNull Entry entry) {
+    if (disposed || entry.starting > 0 || !entry.leases.isEmpty() || entries.get(entry.command) != entry) {
+      return;
+    }
+    entry.cancelIdleShutdown();
+    entry.idleShutdown = JobScheduler.getScheduler().schedule(() -> shutDownIfUnused(entry), IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private void shutDownIfUnused(@NotNull Entry entry) {
+    synchronized (this) {
+      if (entry.starting > 0 || !entry.leases.isEmpty() || entries.get(entry.command) != entry) {
+        return;
+      }
+      entries.remove(entry.command);
+    }
+    entry.shutDown();
+  }
+
+  /**
+   * Stops the daemon used by a lease, so that the next {@link #acquire} starts a new process.
+   * <p>
+   * Other projects using the daemon are told that it stopped.
+   */
+  private void shutDown(@NotNull Lease requester) {
+    final Entry entry = requester.entry;
+    synchronized (this) {
+      if (entries.get(entry.command) == entry) {
+        entries.remove(entry.command);
+      }
+      entry.cancelIdleShutdown();
+    }
+    entry.shutDown();
+    for (Lease lease : entry.leases) {
+      if (lease != requester) {
+        lease.processStopped.accept("Flutter device daemon was restarted.");
+      }
+    }
+  }
+
+  @Override
+  public void dispose() {
+    final List<Entry> toShutDown;
+    synchronized (this) {
+      disposed = true;
+      toShutDown = new ArrayList<>(entries.values());
+      entries.clear();
+    }
+    for (Entry entry : toShutDown) {
+      entry.cancelIdleShutdown();
+      entry.shutDown();
+    }
+  }
+
+  /**
+   * A project's use of a shared daemon.
+   */
+  class Lease {
+    @NotNull private final Entry entry;
+    @NotNull private final DeviceDaemon daemon;
+    @NotNull private final Runnable deviceChanged;
+    @NotNull private final Consumer<String> processStopped;
+
+    private Lease(@NotNull Entry entry,
+                  @NotNull DeviceDaemon daemon,
+                  @NotNull Runnable deviceChanged,
+                  @NotNull Consumer<String> processStopped) {
+      this.entry = entry;
+      this.daemon = daemon;
+      this.deviceChanged = deviceChanged;
+      this.processStopped = processStopped;
+    }
+
+    boolean isRunning() {
+      return daemon.isRunning();
+    }
+
+    ImmutableList<FlutterDevice> getDevices() {
+      return daemon.getDevices();
+    }
+
+    /**
+     * Returns true if a different daemon should be used.
+     *
+     * @param next the command that should be running now.
+     */
+    boolean needRestart(@NotNull DeviceDaemon.Command next) {
+      return daemon.needRestart(next);
+    }
+
+    /**
+     * Stops using the daemon. It keeps running for other projects, or until the idle timeout.
+     */
+    void release() {
+      DeviceDaemonPool.this.release(this);
+    }
+
+    /**
+     * Kills the daemon, even if other projects are using it.
+     */
+    void shutDownDaemon() {
+      DeviceDaemonPool.this.shutDown(this);
+    }
+  }
+
+  private static class Entry {
+    @NotNull final DeviceDaemon.Command command;
+    final List<Lease> leases = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of threads waiting for the daemon to start. Guarded by the pool.
+     */
+    int starting;
+    @Nullable ScheduledFuture<?> idleShutdown;
+
+    @Nullable private DeviceDaemon daemon;
+
+    Entry(@NotNull DeviceDaemon.Command command) {
+      this.command = command;
+    }
+
+    /**
+     * Returns the running daemon, or starts one.
+     * <p>
+     * Only one thread starts the daemon at a time; the others wait and then use it.
+     */
+    @Nullable
+    synchronized DeviceDaemon getOrStart(@NotNull Supplier<Boolean> isCancelled) throws ExecutionException {
+      if (daemon == null || !daemon.isRunning()) {
+        daemon = command.start(isCancelled, this::deviceChanged, this::processStopped);
+      }
+      return daemon;
+    }
+
+    void shutDown() {
+      final DeviceDaemon current;
+      synchronized (this) {
+        current = daemon;
+        daemon = null;
+      }
+      if (current != null) {
+        current.shutdown();
+      }
+    }
+
+    void cancelIdleShutdown() {
+      if (idleShutdown != null) {
+        idleShutdown.cancel(false);
+        idleShutdown = null;
+      }
+    }
+
+    private void deviceChanged() {
+      for (Lease lease : leases) {
+        lease.deviceChanged.run();
+      }
+    }
+
+    private void processStopped(@NotNull String details) {
+      for (Lease lease : leases) {
+        lease.processStopped.accept(details);
+      }
+    }
+  }
+
+  /**
+   * Starts a device daemon in the background once the IDE is up.
+   */
+  public static class Prewarmer implements AppLifecycleListener {
+    @Override
+    public void appFrameCreated(@NotNull List<String> commandLineArgs) {
+      if (ApplicationManager.getApplication().isUnitTestMode()) {
+        return;
+      }
+      ApplicationManager.getApplication().executeOnPooledThread(() -> getInstance().prewarm());
+    }
+  }
+}
@@ -11,12 +11,12 @@ import com.intellij.concurrency.JobScheduler;
 import com.intellij.execution.ExecutionException;
 import com.intellij.ide.ActivityTracker;
 import com.intellij.openapi.application.ApplicationInfo;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ex.ProjectRootManagerEx;
 import com.intellij.openapi.util.Disposer;
+import com.intellij.util.Alarm;
 import io.flutter.FlutterMessages;
 import io.flutter.FlutterUtils;
 import io.flutter.bazel.WorkspaceCache;
@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -44,8 +45,10 @@ public class DeviceService {
 
   /**
    * The process used to watch for device list changes (for the device menu). May be null if not running.
+   * <p>
+   * The process is shared with other projects that use the same Flutter SDK.
    */
-  private final Refreshable<DeviceDaemon> deviceDaemon = new Refreshable<>(DeviceDaemon::shutdown);
+  private final Refreshable<DeviceDaemonPool.Lease> deviceDaemon = new Refreshable<>(DeviceDaemonPool.Lease::release);
 
   private final AtomicReference<DeviceSelection> deviceSelection = new AtomicReference<>(DeviceSelection.EMPTY);
 
@@ -53,6 +56,16 @@ public class DeviceService {
 
   private final AtomicLong lastRestartTime = new AtomicLong(0);
 
+  /**
+   * Runs refreshes of the device daemon, so that a burst of configuration changes only causes one refresh.
+   */
+  private final Alarm refreshAlarm;
+
+  /**
+   * Whether listeners have been scheduled to be told about a change that hasn't been reported yet.
+   */
+  private final AtomicBoolean changeEventPending = new AtomicBoolean();
+
   private boolean refreshInProgress = false;
 
   @NotNull
@@ -62,6 +75,7 @@ public class DeviceService {
 
   private DeviceService(@NotNull final Project project) {
     this.project = project;
+    this.refreshAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, project);
 
     deviceDaemon.setDisposeParent(project);
     deviceDaemon.subscribe(this::refreshDeviceSelection);
@@ -116,7 +130,7 @@ public class DeviceService {
    * Returns whether the device list is inactive, loading, or ready.
    */
   public State getStatus() {
-    final DeviceDaemon daemon = deviceDaemon.getNow();
+    final DeviceDaemonPool.Lease daemon = deviceDaemon.getNow();
     if (daemon != null && daemon.isRunning()) {
       return State.READY;
     }
@@ -152,15 +166,22 @@ public class DeviceService {
 
   private synchronized void refreshDeviceSelection() {
     deviceSelection.updateAndGet((old) -> {
-      final DeviceDaemon daemon = deviceDaemon.getNow();
+      final DeviceDaemonPool.Lease daemon = deviceDaemon.getNow();
       final List<FlutterDevice> newDevices = daemon == null ? ImmutableList.of() : daemon.getDevices();
       return old.withDevices(newDevices);
     });
     fireChangeEvent();
   }
 
+  /**
+   * Tells listeners about changes on the UI thread. Changes that arrive before they have run are reported once.
+   */
   private void fireChangeEvent() {
+    if (!changeEventPending.compareAndSet(false, true)) {
+      return;
+    }
     SwingUtilities.invokeLater(() -> {
+      changeEventPending.set(false);
       if (project.isDisposed()) return;
       for (Runnable listener : listeners.get()) {
         try {
@@ -177,21 +198,26 @@ public class DeviceService {
    * Updates the device daemon to what it should be based on current configuration.
    * <p>
    * <p>This might mean starting it, stopping it, or restarting it.
+   * <p>
+   * <p>Requests made within {@link #REFRESH_DELAY_MS} of each other are handled by a single refresh. The delay also
+   * gives the flutter tool a bit more time to start up if it just upgraded the sdk.
    */
   private void refreshDeviceDaemon() {
-    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+    if (refreshAlarm.isDisposed()) return;
+    refreshAlarm.cancelAllRequests();
+    refreshAlarm.addRequest(() -> {
       DumbService.getInstance(project).waitForSmartMode();
       if (project.isDisposed()) return;
       deviceDaemon.refresh(this::chooseNextDaemon);
       refreshInProgress = false;
       ActivityTracker.getInstance().inc();
-    });
+    }, REFRESH_DELAY_MS);
   }
 
   private void daemonStopped(String details) {
     if (project.isDisposed()) return;
 
-    final DeviceDaemon current = deviceDaemon.getNow();
+    final DeviceDaemonPool.Lease current = deviceDaemon.getNow();
     if (current == null || current.isRunning()) {
       // The active daemon didn't die, so it must be some older process. Just log it.
       LOG.info("A Flutter device daemon stopped.\n" + details);
@@ -220,26 +246,18 @@ public class DeviceService {
    * <p>
    * <p>Starts it if needed. If null is returned then the previous daemon will be shut down.
    */
-  private DeviceDaemon chooseNextDaemon(Refreshable.Request<DeviceDaemon> request) {
+  private DeviceDaemonPool.Lease chooseNextDaemon(Refreshable.Request<DeviceDaemonPool.Lease> request) {
     final DeviceDaemon.Command nextCommand = DeviceDaemon.chooseCommand(project);
     if (nextCommand == null) {
       return null; // Unconfigured; shut down if running.
     }
 
-    final DeviceDaemon previous = request.getPrevious();
+    final DeviceDaemonPool.Lease previous = request.getPrevious();
     if (previous != null && !previous.needRestart(nextCommand)) {
       return previous; // Don't do anything; current daemon is what we want.
     }
 
-    // Wait a bit to see if we get cancelled. This is to try to avoid starting a process only to
-    // immediately kill it. Also, delay a bit in case the flutter tool just upgraded the sdk;
-    // we'll need a bit more time to start up.
-    try {
-      Thread.sleep(100);
-    }
-    catch (InterruptedException e) {
-      return previous;
-    }
+    // Refreshes are already debounced; don't start a process only to immediately kill it.
     if (request.isCancelled()) {
       return previous;
     }
@@ -249,7 +267,7 @@ public class DeviceService {
     emulatorManager.refresh();
 
     try {
-      return nextCommand.start(request::isCancelled, this::refreshDeviceSelection, this::daemonStopped);
+      return DeviceDaemonPool.getInstance().acquire(nextCommand, request::isCancelled, this::refreshDeviceSelection, this::daemonStopped);
     }
     catch (ExecutionException executionException) {
       LOG.info("Error starting up the Flutter device daemon", executionException);
@@ -271,12 +289,19 @@ public class DeviceService {
   }
 
   @SuppressWarnings("SameReturnValue")
-  private DeviceDaemon shutDownDaemon(Refreshable.Request<DeviceDaemon> request) {
+  private DeviceDaemonPool.Lease shutDownDaemon(Refreshable.Request<DeviceDaemonPool.Lease> request) {
+    // Other projects may be using the daemon, so releasing it isn't enough to restart it.
+    final DeviceDaemonPool.Lease previous = request.getPrevious();
+    if (previous != null) {
+      previous.shutDownDaemon();
+    }
     // Return null to indicate that a shutdown is requested.
     return null;
   }
 
   public enum State {INACTIVE, LOADING, READY}
 
+  private static final int REFRESH_DELAY_MS = 100;
+
   private static final Logger LOG = Logger.getInstance(DeviceService.class);
 }
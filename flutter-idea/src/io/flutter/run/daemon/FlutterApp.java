@@ -34,7 +34,9 @@ import io.flutter.FlutterUtils;
 import io.flutter.ObservatoryConnector;
 import io.flutter.bazel.Workspace;
 import io.flutter.bazel.WorkspaceCache;
+import io.flutter.logging.AppLogSpool;
 import io.flutter.logging.FlutterConsoleLogManager;
+import io.flutter.logging.LoggingRecordStore;
 import io.flutter.pub.PubRoot;
 import io.flutter.pub.PubRoots;
 import io.flutter.run.FlutterDebugProcess;
@@ -86,6 +88,8 @@ public class FlutterApp implements Disposable {
   private @Nullable String myBaseUri;
   private @Nullable ConsoleView myConsole;
   private FlutterConsoleLogManager myFlutterConsoleLogManager;
+  private final @NotNull AppLogSpool myLogSpool = new AppLogSpool();
+  private final @NotNull LoggingRecordStore myLoggingRecords;
 
   /**
    * The command with which the app was launched.
@@ -144,6 +148,7 @@ public class FlutterApp implements Disposable {
     myDaemonApi = daemonApi;
     myCommand = command;
     maxFileTimestamp = System.currentTimeMillis();
+    myLoggingRecords = new LoggingRecordStore(LoggingRecordStore.vmServiceResolver(this::getVmService));
     myConnector = new ObservatoryConnector() {
       @Override
       public @Nullable
@@ -560,6 +565,10 @@ public class FlutterApp implements Disposable {
 
   public void setConsole(@Nullable ConsoleView console) {
     myConsole = console;
+    if (console != null) {
+      // Keep the full log for as long as the console can be seen, since it is most useful after the app has stopped.
+      Disposer.register(console, myLogSpool);
+    }
   }
 
   @Nullable
@@ -567,6 +576,22 @@ public class FlutterApp implements Disposable {
     return myConsole;
   }
 
+  /**
+   * Returns the full history of the app's output, which may have been trimmed from the console.
+   */
+  @NotNull
+  public AppLogSpool getLogSpool() {
+    return myLogSpool;
+  }
+
+  /**
+   * Returns the records the app sent on the Logging stream.
+   */
+  @NotNull
+  public LoggingRecordStore getLoggingRecords() {
+    return myLoggingRecords;
+  }
+
   /**
    * Transitions to a new state and fires events.
    * <p>
@@ -788,6 +813,9 @@ public class FlutterApp implements Disposable {
 
   @Override
   public void dispose() {
+    if (myConsole == null) {
+      Disposer.dispose(myLogSpool);
+    }
   }
 }
 
@@ -891,6 +919,9 @@ class FlutterAppDaemonEventListener implements DaemonEvent.Listener {
 
   @Override
   public void onAppLog(@NotNull DaemonEvent.AppLog message) {
+    if (message.log != null) {
+      app.getLogSpool().append(AppLogSpool.Source.STDOUT, message.log);
+    }
     final ConsoleView console = app.getConsole();
     if (console == null) return;
     console.print(message.log + "\n", message.error ? ConsoleViewContentType.ERROR_OUTPUT : ConsoleViewContentType.NORMAL_OUTPUT);
@@ -36,7 +36,7 @@ public class AndroidEmulatorManager {
   private final @NotNull Project project;
   private final AtomicReference<ImmutableSet<Runnable>> listeners = new AtomicReference<>(ImmutableSet.of());
 
-  private List<AndroidEmulator> cachedEmulators = new ArrayList<>();
+  private volatile List<AndroidEmulator> cachedEmulators = new ArrayList<>();
 
   private AndroidEmulatorManager(@NotNull Project project) {
     this.project = project;
@@ -80,9 +80,8 @@ public class AndroidEmulatorManager {
         future.complete(Collections.emptyList());
       }
       else {
-        final List<AndroidEmulator> emulators = sdk.getEmulators();
-        emulators.sort((emulator1, emulator2) -> emulator1.getName().compareToIgnoreCase(emulator2.getName()));
-        future.complete(emulators);
+        // The SDK only runs the emulator tool again if its AVDs may have changed.
+        future.complete(sdk.getEmulators());
       }
     });
 
@@ -12,6 +12,8 @@ import com.intellij.execution.process.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import io.flutter.FlutterBundle;
@@ -24,7 +26,11 @@ import io.flutter.utils.MostlySilentColoredProcessHandler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -37,6 +43,19 @@ public class FlutterCommand {
   private static final Set<Type> pubRelatedCommands = new HashSet<>(
     Arrays.asList(Type.PUB_GET, Type.PUB_UPGRADE, Type.PUB_OUTDATED, Type.UPGRADE));
 
+  /**
+   * Commands that a second caller may join while an identical one is running, as long as the pubspec is unchanged.
+   * <p>
+   * This is a fallback for the warm tool host that the flutter tool can't provide: it only saves starting the tool
+   * for a request the running command already covers.
+   */
+  private static final Set<Type> sharedCommands = new HashSet<>(Arrays.asList(Type.PUB_GET, Type.PUB_UPGRADE));
+
+  /**
+   * The shared commands that have been started, by {@link #getRunningKey()}.
+   */
+  private static final Map<String, RunningCommand> runningCommands = new HashMap<>();
+
   @NotNull
   protected final FlutterSdk sdk;
 
@@ -130,9 +149,24 @@ public class FlutterCommand {
    * Shows the output in the tool window's tab corresponding to the passed-in module.
    * Returns the process.
    * <p>
+   * If an identical 'pub get' or 'pub upgrade' is already running and the pubspec hasn't been changed since it
+   * started, its process is returned instead of starting another one. The module's console then shows a note that
+   * the command is already running, while the output stays in the console of the caller that started it. The
+   * processListener is first sent the output printed so far, and onDone is called when the process finishes, even
+   * if it already has.
+   * <p>
    * If unable to start (for example, if a command is already running), returns null.
    */
   public Process startInModuleConsole(@NotNull Module module, @Nullable Runnable onDone, @Nullable ProcessListener processListener) {
+    final RunningCommand running = findRunningCommand();
+    if (running != null) {
+      // The running command reads the same pubspec, so starting the tool again would only repeat its work.
+      LOG.info(getDisplayCommand() + " is already running; waiting for it to finish");
+      FlutterConsoles.displayMessage(module.getProject(), module, getDisplayCommand() + " is already running.\n");
+      running.join(processListener, onDone);
+      return running.handler.getProcess();
+    }
+
     final ColoredProcessHandler handler = startProcessOrShowError(module.getProject());
     if (handler == null) {
       return null;
@@ -207,9 +241,19 @@ public class FlutterCommand {
           if (isPubRelatedCommand()) {
             DartPlugin.setPubActionInProgress(false);
           }
+          synchronized (runningCommands) {
+            runningCommands.values().removeIf((running) -> running.handler == handler);
+          }
         }
       });
       type.sendAnalyticsEvent();
+      if (sharedCommands.contains(type)) {
+        final RunningCommand running = new RunningCommand(handler, readPubspec());
+        handler.addProcessListener(running);
+        synchronized (runningCommands) {
+          runningCommands.put(getRunningKey(), running);
+        }
+      }
       return new FlutterCommandStartResult(handler);
     }
     catch (ExecutionException e) {
@@ -220,6 +264,56 @@ public class FlutterCommand {
     }
   }
 
+  /**
+   * Returns an identical shared command that is still running and was started with the current pubspec, if any.
+   * <p>
+   * If the pubspec has changed since, the running command may resolve the old dependencies, so a new one must be
+   * started. The flutter tool's lock makes it wait for the running one.
+   */
+  @Nullable
+  private RunningCommand findRunningCommand() {
+    if (!sharedCommands.contains(type)) {
+      return null;
+    }
+    final byte[] pubspec = readPubspec();
+    synchronized (runningCommands) {
+      final RunningCommand running = runningCommands.get(getRunningKey());
+      // The OS process is checked since its handler may never be started, for example if the project is closed first.
+      if (running != null && !running.handler.getProcess().isAlive()) {
+        runningCommands.remove(getRunningKey());
+        return null;
+      }
+      if (running != null && !Arrays.equals(running.pubspec, pubspec)) {
+        return null;
+      }
+      return running;
+    }
+  }
+
+  /**
+   * Returns the contents of the pubspec in the working directory, or null if there is none.
+   * <p>
+   * The contents are compared rather than the modification time, which may not change for an edit made within
+   * the same second.
+   */
+  @Nullable
+  private byte[] readPubspec() {
+    if (workDir == null) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(Paths.get(workDir.getPath(), "pubspec.yaml"));
+    }
+    catch (IOException | InvalidPathException e) {
+      return null;
+    }
+  }
+
+  @NotNull
+  private String getRunningKey() {
+    return sdk.getHomePath() + "\n" + (workDir == null ? "" : workDir.getPath()) + "\n" + getDisplayCommand();
+  }
+
   /**
    * Starts a process that runs a flutter command, unless one is already running.
    * <p>
@@ -270,6 +364,99 @@ public class FlutterCommand {
     return type == Type.DOCTOR;
   }
 
+  /**
+   * A shared command's process, with the output it has printed so that callers that join later can be sent all of it.
+   */
+  private static class RunningCommand extends ProcessAdapter {
+    @NotNull final ColoredProcessHandler handler;
+
+    /**
+     * The contents of the pubspec when the command was started.
+     */
+    @Nullable final byte[] pubspec;
+
+    /**
+     * The process's output so far, with the type of each chunk. Guarded by this.
+     */
+    private final List<Pair<ProcessEvent, Key<?>>> output = new ArrayList<>();
+
+    /**
+     * The listeners of the callers that joined after the process started. Guarded by this.
+     */
+    private final List<ProcessListener> joined = new ArrayList<>();
+
+    @Nullable private ProcessEvent terminated;
+
+    RunningCommand(@NotNull ColoredProcessHandler handler, @Nullable byte[] pubspec) {
+      this.handler = handler;
+      this.pubspec = pubspec;
+    }
+
+    /**
+     * Sends the output printed so far to a listener, and then passes on events until the process terminates.
+     * <p>
+     * If the process has already terminated, the listener and onDone are called right away.
+     */
+    void join(@Nullable ProcessListener listener, @Nullable Runnable onDone) {
+      final ProcessListener joiner = new ProcessAdapter() {
+        @Override
+        public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+          if (listener != null) {
+            listener.onTextAvailable(event, outputType);
+          }
+        }
+
+        @Override
+        public void processTerminated(@NotNull ProcessEvent event) {
+          if (listener != null) {
+            listener.processTerminated(event);
+          }
+          if (onDone != null) {
+            onDone.run();
+          }
+        }
+      };
+
+      final ProcessEvent alreadyTerminated;
+      synchronized (this) {
+        for (Pair<ProcessEvent, Key<?>> chunk : output) {
+          joiner.onTextAvailable(chunk.first, chunk.second);
+        }
+        alreadyTerminated = terminated;
+        if (alreadyTerminated == null) {
+          joined.add(joiner);
+        }
+      }
+      if (alreadyTerminated != null) {
+        joiner.processTerminated(alreadyTerminated);
+      }
+    }
+
+    @Override
+    public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+      synchronized (this) {
+        output.add(Pair.create(event, outputType));
+        for (ProcessListener listener : joined) {
+          listener.onTextAvailable(event, outputType);
+        }
+      }
+    }
+
+    @Override
+    public void processTerminated(@NotNull ProcessEvent event) {
+      final List<ProcessListener> toNotify;
+      synchronized (this) {
+        terminated = event;
+        output.clear();
+        toNotify = new ArrayList<>(joined);
+        joined.clear();
+      }
+      for (ProcessListener listener : toNotify) {
+        listener.processTerminated(event);
+      }
+    }
+  }
+
   enum Type {
     ATTACH("Flutter attach", "attach"),
     BUILD("Flutter build", "build"),
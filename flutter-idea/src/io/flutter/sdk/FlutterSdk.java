@@ -7,7 +7,6 @@ package io.flutter.sdk;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSyntaxException;
 import com.intellij.execution.process.*;
 import com.intellij.openapi.diagnostic.Logger;
@@ -49,6 +48,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Arrays.asList;
 
@@ -68,7 +68,8 @@ public class FlutterSdk {
 
   private final @NotNull VirtualFile myHome;
   private final @NotNull FlutterSdkVersion myVersion;
-  private final Map<String, String> cachedConfigValues = new HashMap<>();
+  private final Map<String, String> cachedConfigValues = new ConcurrentHashMap<>();
+  private volatile boolean savedConfigValuesLoaded;
 
   private FlutterSdk(@NotNull final VirtualFile home, @NotNull final FlutterSdkVersion version) {
     myHome = home;
@@ -528,10 +529,44 @@ public class FlutterSdk {
     return FlutterSdkUtil.pathToDartSdk(getHomePath());
   }
 
+  /**
+   * Queries the flutter tool for its config and channel, unless the values saved by an earlier session are still
+   * up to date.
+   * <p>
+   * Do not run this on EDT.
+   */
+  public void refreshConfigValuesIfStale() {
+    if (FlutterSdkMetadataCache.getInstance().get(getHomePath()) != null) {
+      loadSavedConfigValues();
+      return;
+    }
+    fetchFlutterConfig();
+    queryFlutterChannel(false);
+  }
+
+  /**
+   * Adds the values saved by an earlier session to the cached values, if they are still up to date.
+   */
+  private void loadSavedConfigValues() {
+    if (savedConfigValuesLoaded) {
+      return;
+    }
+    savedConfigValuesLoaded = true;
+    final Map<String, String> saved = FlutterSdkMetadataCache.getInstance().get(getHomePath());
+    if (saved != null) {
+      saved.forEach(cachedConfigValues::putIfAbsent);
+    }
+  }
+
+  private void saveConfigValues() {
+    FlutterSdkMetadataCache.getInstance().put(getHomePath(), cachedConfigValues);
+  }
+
   @Nullable
   @NonNls
   public FlutterSdkChannel queryFlutterChannel(boolean useCachedValue) {
     if (useCachedValue) {
+      loadSavedConfigValues();
       final String channel = cachedConfigValues.get("channel");
       if (channel != null) {
         return FlutterSdkChannel.fromText(channel);
@@ -555,6 +590,7 @@ public class FlutterSdk {
     }
 
     cachedConfigValues.put("channel", branch);
+    saveConfigValues();
     return FlutterSdkChannel.fromText(branch);
   }
 
@@ -570,6 +606,7 @@ public class FlutterSdk {
     platforms.add("enable-android");
     platforms.add("enable-ios");
     if (useCachedValue) {
+      loadSavedConfigValues();
       for (String key : PLATFORMS) {
         final String value = cachedConfigValues.get(key);
         if ("true".equals(value)) {
@@ -582,37 +619,19 @@ public class FlutterSdk {
       return platforms;
     }
 
-    final String stdout = returnOutputOfQuery(flutterConfig("--machine"));
-    if (stdout == null) {
+    final Map<String, String> values = fetchFlutterConfig();
+    if (values == null) {
       return platforms;
     }
-    final int startJsonIndex = stdout.indexOf('{');
-    if (startJsonIndex == -1) {
-      return platforms;
-    }
-    try {
-      final JsonElement elem = JsonUtils.parseString(stdout.substring(startJsonIndex));
-      if (elem.isJsonNull()) {
-        FlutterUtils.warn(LOG, FlutterBundle.message("flutter.sdk.invalid.json.error"));
-        return platforms;
+    for (String key : PLATFORMS) {
+      final String value = values.get(key);
+      if ("true".equals(value)) {
+        platforms.add(key);
       }
-
-      final JsonObject obj = elem.getAsJsonObject();
-      for (String key : PLATFORMS) {
-        final JsonPrimitive primitive = obj.getAsJsonPrimitive(key);
-        if (primitive != null) {
-          if ("true".equals(primitive.getAsString())) {
-            platforms.add(key);
-          }
-          else if ("false".equals(primitive.getAsString())) {
-            platforms.remove(key);
-          }
-          cachedConfigValues.put(key, primitive.getAsString());
-        }
+      else if ("false".equals(value)) {
+        platforms.remove(key);
       }
     }
-    catch (JsonSyntaxException ignored) {
-    }
     return platforms;
   }
 
@@ -621,33 +640,55 @@ public class FlutterSdk {
    */
   @Nullable
   public String queryFlutterConfig(String key, boolean useCachedValue) {
-    if (useCachedValue && cachedConfigValues.containsKey(key)) {
-      return cachedConfigValues.get(key);
+    if (useCachedValue) {
+      loadSavedConfigValues();
+      if (cachedConfigValues.containsKey(key)) {
+        return cachedConfigValues.get(key);
+      }
     }
 
+    final Map<String, String> values = fetchFlutterConfig();
+    return values == null ? null : values.get(key);
+  }
+
+  /**
+   * Runs 'flutter config --machine' and caches all of the values it reports.
+   * <p>
+   * Returns the values, or null if the query failed.
+   */
+  @Nullable
+  private Map<String, String> fetchFlutterConfig() {
     final String stdout = returnOutputOfQuery(flutterConfig("--machine"));
-    if (stdout != null) {
-      try {
-        final JsonElement elem = JsonUtils.parseString(stdout.substring(stdout.indexOf('{')));
-        if (elem.isJsonNull()) {
-          FlutterUtils.warn(LOG, FlutterBundle.message("flutter.sdk.invalid.json.error"));
-          return null;
-        }
+    if (stdout == null) {
+      return null;
+    }
+    final int startJsonIndex = stdout.indexOf('{');
+    if (startJsonIndex == -1) {
+      return null;
+    }
+    try {
+      final JsonElement elem = JsonUtils.parseString(stdout.substring(startJsonIndex));
+      if (elem.isJsonNull()) {
+        FlutterUtils.warn(LOG, FlutterBundle.message("flutter.sdk.invalid.json.error"));
+        return null;
+      }
 
-        final JsonObject obj = elem.getAsJsonObject();
-        for (String jsonKey : JsonUtils.getKeySet(obj)) {
-          final JsonElement element = obj.get(jsonKey);
-          if (element == null || element.isJsonNull()) {
-            continue;
-          }
-          final JsonPrimitive primitive = (JsonPrimitive)element;
-          cachedConfigValues.put(jsonKey, primitive.getAsString());
+      final Map<String, String> values = new HashMap<>();
+      final JsonObject obj = elem.getAsJsonObject();
+      for (String jsonKey : JsonUtils.getKeySet(obj)) {
+        final JsonElement element = obj.get(jsonKey);
+        if (element == null || !element.isJsonPrimitive()) {
+          continue;
         }
+        values.put(jsonKey, element.getAsString());
       }
-      catch (JsonSyntaxException ignored) {
-      }
+      cachedConfigValues.putAll(values);
+      saveConfigValues();
+      return values;
+    }
+    catch (JsonSyntaxException ignored) {
+      return null;
     }
-    return null;
   }
 
   // Do not run this on EDT.
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.sdk;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.RoamingType;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Remembers the values reported by 'flutter config' and the channel of each Flutter SDK between sessions.
+ * <p>
+ * Values are saved with the modification times of the SDK's flutter_tools.stamp and the flutter tool's settings
+ * files. They are only returned while those are unchanged; upgrading or switching the SDK rebuilds the tool, and
+ * 'flutter config' rewrites the settings.
+ */
+@State(
+  name = "FlutterSdkMetadata",
+  storages = {@Storage(value = "flutterSdkMetadata.xml", roamingType = RoamingType.DISABLED)}
+)
+public class FlutterSdkMetadataCache implements PersistentStateComponent<FlutterSdkMetadataCache.MetadataState> {
+  public static class SdkMetadata {
+    public String sdkPath = "";
+    public long toolsStampModified;
+    public long settingsModified;
+    public Map<String, String> values = new HashMap<>();
+  }
+
+  public static class MetadataState {
+    public List<SdkMetadata> sdks = new ArrayList<>();
+  }
+
+  private final Map<String, SdkMetadata> sdks = new HashMap<>();
+
+  @NotNull
+  public static FlutterSdkMetadataCache getInstance() {
+    return ApplicationManager.getApplication().getService(FlutterSdkMetadataCache.class);
+  }
+
+  /**
+   * Returns the values saved for an SDK, or null if there are none or they may be out of date.
+   */
+  @Nullable
+  public Map<String, String> get(@NotNull String sdkPath) {
+    final long toolsStampModified = toolsStampModified(sdkPath);
+    final long settingsModified = settingsModified();
+    synchronized (this) {
+      final SdkMetadata metadata = sdks.get(sdkPath);
+      if (metadata == null || metadata.toolsStampModified != toolsStampModified || metadata.settingsModified != settingsModified) {
+        return null;
+      }
+      return new HashMap<>(metadata.values);
+    }
+  }
+
+  /**
+   * Saves the current values for an SDK, replacing any saved before.
+   */
+  public void put(@NotNull String sdkPath, @NotNull Map<String, String> values) {
+    final SdkMetadata metadata = new SdkMetadata();
+    metadata.sdkPath = sdkPath;
+    metadata.toolsStampModified = toolsStampModified(sdkPath);
+    metadata.settingsModified = settingsModified();
+    metadata.values = new HashMap<>(values);
+    synchronized (this) {
+      sdks.put(sdkPath, metadata);
+    }
+  }
+
+  @Override
+  public synchronized MetadataState getState() {
+    final MetadataState state = new MetadataState();
+    state.sdks.addAll(sdks.values());
+    state.sdks.sort(Comparator.comparing((SdkMetadata metadata) -> metadata.sdkPath));
+    return state;
+  }
+
+  @Override
+  public synchronized void loadState(@NotNull MetadataState state) {
+    sdks.clear();
+    for (SdkMetadata metadata : state.sdks) {
+      if (metadata.sdkPath != null && metadata.values != null) {
+        sdks.put(metadata.sdkPath, metadata);
+      }
+    }
+  }
+
+  private static long toolsStampModified(@NotNull String sdkPath) {
+    return new File(sdkPath, "bin/cache/flutter_tools.stamp").lastModified();
+  }
+
+  /**
+   * Returns the latest modification time of the files where the flutter tool may keep its settings.
+   */
+  private static long settingsModified() {
+    long modified = 0;
+    for (File file : settingsFiles()) {
+      modified = Math.max(modified, file.lastModified());
+    }
+    return modified;
+  }
+
+  @NotNull
+  private static List<File> settingsFiles() {
+    final String home = System.getProperty("user.home");
+    final String xdgConfigHome = System.getenv("XDG_CONFIG_HOME");
+    final String appData = System.getenv("APPDATA");
+
+    final List<File> files = new ArrayList<>();
+    files.add(new File(xdgConfigHome == null ? new File(home, ".config") : new File(xdgConfigHome), "flutter/settings"));
+    files.add(new File(home, ".flutter_settings"));
+    if (appData != null) {
+      files.add(new File(appData, "flutter/settings"));
+      files.add(new File(appData, ".flutter_settings"));
+    }
+    return files;
+  }
+}
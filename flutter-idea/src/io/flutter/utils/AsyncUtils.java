@@ -7,6 +7,7 @@ package io.flutter.utils;
 
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.progress.ProcessCanceledException;
 
 import javax.swing.*;
@@ -50,6 +51,20 @@ public class AsyncUtils {
     }
   }
 
+  /**
+   * Like {@link #invokeLater(Runnable)}, but also runs while a modal dialog is showing.
+   */
+  public static void invokeLaterAnyModality(Runnable runnable) {
+    final Application app = ApplicationManager.getApplication();
+    if (app == null || app.isUnitTestMode()) {
+      // This case existing to support unit testing.
+      SwingUtilities.invokeLater(runnable);
+    }
+    else {
+      app.invokeLater(runnable, ModalityState.any());
+    }
+  }
+
   public static void invokeAndWait(Runnable runnable) throws ProcessCanceledException {
     final Application app = ApplicationManager.getApplication();
     if (app == null || app.isUnitTestMode()) {
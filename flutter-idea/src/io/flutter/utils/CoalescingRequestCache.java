@@ -0,0 +1,165 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache of asynchronous request results that issues at most one request at a time.
+ * <p>
+ * A request for a key with a cached result completes immediately. A request for the key
+ * of the request in flight shares its result. Otherwise, if a request is in flight the new
+ * request waits until it completes and replaces (and cancels) any request already waiting,
+ * so callers that only care about the latest key do not flood the server.
+ * <p>
+ * Methods from this class may be invoked on any thread.
+ */
+public class CoalescingRequestCache<K, V> {
+  private final int maxEntries;
+  private final long timeoutMillis;
+  @NotNull private final Predicate<V> isCacheable;
+
+  /**
+   * Cached results in least recently used order.
+   */
+  private final LinkedHashMap<K, V> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+  @Nullable private K inFlightKey;
+  @Nullable private CompletableFuture<V> inFlightResult;
+
+  @Nullable private K pendingKey;
+  @Nullable private Supplier<CompletableFuture<V>> pendingRequest;
+  @Nullable private CompletableFuture<V> pendingResult;
+
+  /**
+   * @param maxEntries    the maximum number of results to cache.
+   * @param timeoutMillis the time after which a request that has not completed no longer blocks other requests.
+   * @param isCacheable   whether a result should be cached. Results that are not cached are requested again.
+   */
+  public CoalescingRequestCache(int maxEntries, long timeoutMillis, @NotNull Predicate<V> isCacheable) {
+    this.maxEntries = maxEntries;
+    this.timeoutMillis = timeoutMillis;
+    this.isCacheable = isCacheable;
+  }
+
+  /**
+   * Returns the result for key, calling request to compute it if it is not cached.
+   * <p>
+   * The returned future is cancelled if the request is superseded before it is sent.
+   */
+  @NotNull
+  public CompletableFuture<V> request(@NotNull K key, @NotNull Supplier<CompletableFuture<V>> request) {
+    final CompletableFuture<V> superseded;
+    final CompletableFuture<V> result;
+    boolean shouldSend = false;
+    synchronized (this) {
+      final V cached = cache.get(key);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(cached);
+      }
+      if (key.equals(pendingKey)) {
+        assert pendingResult != null;
+        pendingRequest = request;
+        return pendingResult;
+      }
+      // Anything waiting is now obsolete.
+      superseded = pendingResult;
+      pendingKey = null;
+      pendingRequest = null;
+      pendingResult = null;
+
+      if (key.equals(inFlightKey)) {
+        assert inFlightResult != null;
+        result = inFlightResult;
+      }
+      else if (inFlightKey != null) {
+        pendingKey = key;
+        pendingRequest = request;
+        pendingResult = new CompletableFuture<>();
+        result = pendingResult;
+      }
+      else {
+        inFlightKey = key;
+        inFlightResult = new CompletableFuture<>();
+        result = inFlightResult;
+        shouldSend = true;
+      }
+    }
+    if (superseded != null) {
+      superseded.cancel(false);
+    }
+    if (shouldSend) {
+      send(key, request, result);
+    }
+    return result;
+  }
+
+  /**
+   * Discards all cached results.
+   */
+  public synchronized void clear() {
+    cache.clear();
+  }
+
+  private void send(@NotNull K key, @NotNull Supplier<CompletableFuture<V>> request, @NotNull CompletableFuture<V> result) {
+    final CompletableFuture<V> response;
+    try {
+      response = request.get();
+    }
+    catch (RuntimeException e) {
+      onResponse(key, result, null, e);
+      return;
+    }
+    if (response == null) {
+      onResponse(key, result, null, null);
+      return;
+    }
+    response.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+      .whenComplete((value, throwable) -> onResponse(key, result, value, throwable));
+  }
+
+  private void onResponse(@NotNull K key, @NotNull CompletableFuture<V> result, @Nullable V value, @Nullable Throwable throwable) {
+    final K nextKey;
+    final Supplier<CompletableFuture<V>> nextRequest;
+    final CompletableFuture<V> nextResult;
+    synchronized (this) {
+      if (throwable == null && value != null && isCacheable.test(value)) {
+        cache.put(key, value);
+        final Iterator<K> iterator = cache.keySet().iterator();
+        while (cache.size() > maxEntries && iterator.hasNext()) {
+          iterator.next();
+          iterator.remove();
+        }
+      }
+      nextKey = pendingKey;
+      nextRequest = pendingRequest;
+      nextResult = pendingResult;
+      pendingKey = null;
+      pendingRequest = null;
+      pendingResult = null;
+      inFlightKey = nextKey;
+      inFlightResult = nextResult;
+    }
+    if (throwable != null) {
+      result.completeExceptionally(throwable);
+    }
+    else {
+      result.complete(value);
+    }
+    if (nextKey != null) {
+      assert nextRequest != null && nextResult != null;
+      send(nextKey, nextRequest, nextResult);
+    }
+  }
+}
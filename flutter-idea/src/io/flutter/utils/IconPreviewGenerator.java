@@ -36,7 +36,12 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.imageio.ImageIO;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
@@ -47,6 +52,23 @@ import org.jetbrains.annotations.Nullable;
 public class IconPreviewGenerator {
   private static final Logger LOG = Logger.getInstance(IconPreviewGenerator.class);
 
+  private static final int MAX_CACHED_GLYPHS = 2048;
+
+  /**
+   * Fonts by file path, shared by all generators. Empty if the font could not be loaded.
+   */
+  private static final Map<String, Optional<Font>> fonts = new ConcurrentHashMap<>();
+
+  /**
+   * Least recently used cache of rendered glyphs.
+   */
+  private static final Map<GlyphKey, Icon> glyphs = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<GlyphKey, Icon> eldest) {
+      return size() > MAX_CACHED_GLYPHS;
+    }
+  };
+
   @NotNull final String fontFilePath;
   int iconSize = 16;
   int fontSize = 16;
@@ -78,13 +100,49 @@ public class IconPreviewGenerator {
   }
 
   public Icon convert(int code) {
-    return runInGraphicsContext((BufferedImage image, Graphics2D graphics, FontRenderContext frc) -> {
+    final GlyphKey key = new GlyphKey(fontFilePath, code, iconSize, fontSize, fontColor.getRGB());
+    synchronized (glyphs) {
+      final Icon cached = glyphs.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    final Icon icon = runInGraphicsContext((BufferedImage image, Graphics2D graphics, FontRenderContext frc) -> {
       char ch = Character.toChars(code)[0];
       String codepoint = Character.toString(ch);
 
       drawGlyph(codepoint, graphics, frc);
       return new ImageIcon(image);
     });
+    if (icon != null) {
+      synchronized (glyphs) {
+        glyphs.put(key, icon);
+      }
+    }
+    return icon;
+  }
+
+  /**
+   * Discards the cached font and glyphs for the font file at fontFilePath, e.g. because the file changed.
+   */
+  public static void invalidateFont(@NotNull String fontFilePath) {
+    fonts.remove(fontFilePath);
+    synchronized (glyphs) {
+      glyphs.keySet().removeIf((key) -> key.fontFilePath.equals(fontFilePath));
+    }
+  }
+
+  @NotNull
+  private static Optional<Font> getFont(@NotNull String fontFilePath) {
+    return fonts.computeIfAbsent(fontFilePath, (path) -> {
+      try (InputStream inputStream = new BufferedInputStream(new FileInputStream(path))) {
+        return Optional.of(Font.createFont(Font.TRUETYPE_FONT, inputStream));
+      }
+      catch (IOException | FontFormatException ex) {
+        FlutterUtils.warn(LOG, ex);
+        return Optional.empty();
+      }
+    });
   }
 
   // Given a file at path-to-font-properties in the format generated by tools_metadata (on github),
@@ -127,17 +185,18 @@ public class IconPreviewGenerator {
     Graphics2D graphics = null;
     //noinspection UndesirableClassUsage
     BufferedImage image = new BufferedImage(iconSize, iconSize, BufferedImage.TYPE_4BYTE_ABGR);
-    try (InputStream inputStream = new FileInputStream(fontFilePath)) {
-      Font font = Font.createFont(Font.TRUETYPE_FONT, inputStream).deriveFont(Font.PLAIN, fontSize);
+    Optional<Font> baseFont = getFont(fontFilePath);
+    if (baseFont.isEmpty()) {
+      return null;
+    }
+    try {
+      Font font = baseFont.get().deriveFont(Font.PLAIN, fontSize);
       graphics = image.createGraphics();
       graphics.setFont(font);
       graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
       FontRenderContext frc = new FontRenderContext(new AffineTransform(), true, true);
       result = callback.fun(image, graphics, frc);
     }
-    catch (IOException | FontFormatException ex) {
-      FlutterUtils.warn(LOG, ex);
-    }
     finally {
       if (graphics != null) graphics.dispose();
     }
@@ -162,6 +221,39 @@ public class IconPreviewGenerator {
     graphics.drawString(codepoint, x0, y0);
   }
 
+  private static class GlyphKey {
+    @NotNull final String fontFilePath;
+    final int codepoint;
+    final int iconSize;
+    final int fontSize;
+    final int color;
+
+    GlyphKey(@NotNull String fontFilePath, int codepoint, int iconSize, int fontSize, int color) {
+      this.fontFilePath = fontFilePath;
+      this.codepoint = codepoint;
+      this.iconSize = iconSize;
+      this.fontSize = fontSize;
+      this.color = color;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof GlyphKey)) return false;
+      final GlyphKey other = (GlyphKey)o;
+      return codepoint == other.codepoint &&
+             iconSize == other.iconSize &&
+             fontSize == other.fontSize &&
+             color == other.color &&
+             fontFilePath.equals(other.fontFilePath);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fontFilePath, codepoint, iconSize, fontSize, color);
+    }
+  }
+
   @Nullable
   public static VirtualFile findAssetMapFor(@NotNull DartComponent dartClass) {
     final ASTNode node = dartClass.getNode();
@@ -7,6 +7,8 @@ package io.flutter.utils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * A class to process regular text output intermixed with newline-delimited JSON.
@@ -15,11 +17,23 @@ import java.util.List;
  * are emitted over the course of multiple calls to appendOutput. Regular lines
  * on the other hand are emitted immediately so users do not have to wait for
  * debug output.
+ * <p>
+ * Output is scanned a chunk at a time, jumping between the characters that can
+ * end a line. Lines contained in a single chunk are copied out of it once;
+ * only lines spanning chunks are accumulated in a buffer.
  */
 public class StdoutJsonParser {
-  private final StringBuilder buffer = new StringBuilder();
+  /**
+   * Buffers larger than this are released after use rather than kept for the next line.
+   */
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+  /**
+   * The start of the current line, from previous calls to appendOutput.
+   */
+  private StringBuilder buffer = new StringBuilder();
   private boolean bufferIsJson = false;
-  private final List<String> lines = new ArrayList<>();
+  private final Queue<String> lines = new ConcurrentLinkedQueue<>();
   private boolean eatNextEol = false;
   private boolean isPotentialWindowsReturn = false;
 
@@ -27,19 +41,51 @@ public class StdoutJsonParser {
    * Write new output to this [StdoutJsonParser].
    */
   public void appendOutput(String string) {
-    for (int i = 0; i < string.length(); ++i) {
+    final int length = string.length();
+    // The current line is buffer followed by string[lineStart, i).
+    int lineStart = 0;
+    int i = 0;
+    // The next position of each character of interest, or length if there is none.
+    int nextNewline = -1;
+    int nextReturn = -1;
+    int nextBracket = -1;
+
+    while (i < length) {
+      if (!eatNextEol && !isPotentialWindowsReturn && buffer.length() + i - lineStart >= 2) {
+        // Only line ends, and brackets in JSON, need to be looked at past the start of a line.
+        if (nextNewline < i) {
+          nextNewline = indexOf(string, '\n', i);
+        }
+        if (nextReturn < i) {
+          nextReturn = indexOf(string, '\r', i);
+        }
+        int next = Math.min(nextNewline, nextReturn);
+        if (bufferIsJson) {
+          if (nextBracket < i) {
+            nextBracket = indexOf(string, ']', i);
+          }
+          next = Math.min(next, nextBracket);
+        }
+        i = next;
+        if (i == length) {
+          break;
+        }
+      }
+
       final char c = string.charAt(i);
 
       if (eatNextEol) {
         eatNextEol = false;
 
         if (c == '\n') {
+          lineStart = ++i;
           continue;
         }
 
         if (c == '\r' && !isPotentialWindowsReturn) {
           eatNextEol = true;
           isPotentialWindowsReturn = true;
+          lineStart = ++i;
           continue;
         }
       }
@@ -48,61 +94,95 @@ public class StdoutJsonParser {
         isPotentialWindowsReturn = false;
 
         if (c != '\n') {
-          flushLine();
+          flushLine(string, lineStart, i);
+          lineStart = i;
         }
       }
 
-      buffer.append(c);
+      // The current line now ends with c.
+      final int lineLength = buffer.length() + i + 1 - lineStart;
 
-      if (!bufferIsJson && buffer.length() == 2 && buffer.charAt(0) == '[' && c == '{') {
+      if (!bufferIsJson && lineLength == 2 && charAt(string, lineStart, 0) == '[' && c == '{') {
         bufferIsJson = true;
       }
-      else if (bufferIsJson && c == ']' && possiblyTerminatesJson(buffer, string, i)) {
-        flushLine();
+      else if (bufferIsJson && c == ']' && possiblyTerminatesJson(string, lineStart, i)) {
+        flushLine(string, lineStart, i + 1);
+        lineStart = i + 1;
       }
 
       if (c == '\n') {
-        flushLine();
+        flushLine(string, lineStart, i + 1);
+        lineStart = i + 1;
       }
 
       if (c == '\r') {
         // Wait and decide whether to flush depending on next character.
         isPotentialWindowsReturn = true;
       }
+
+      i++;
     }
 
     // Eagerly flush if we are not within JSON so regular log text is written as soon as possible.
     if (!bufferIsJson) {
-      flushLine();
+      flushLine(string, lineStart, length);
     }
-    else if (buffer.toString().endsWith("}]")) {
-      eatNextEol = true;
-      flushLine();
+    else {
+      buffer.append(string, lineStart, length);
+      final int bufferLength = buffer.length();
+      if (bufferLength >= 2 && buffer.charAt(bufferLength - 2) == '}' && buffer.charAt(bufferLength - 1) == ']') {
+        eatNextEol = true;
+        flushLine(string, length, length);
+      }
     }
   }
 
-  private boolean possiblyTerminatesJson(StringBuilder output, String input, int inputIndex) {
+  private static int indexOf(String string, char c, int fromIndex) {
+    final int index = string.indexOf(c, fromIndex);
+    return index < 0 ? string.length() : index;
+  }
+
+  /**
+   * Returns the character at index in the current line.
+   */
+  private char charAt(String string, int lineStart, int index) {
+    return index < buffer.length() ? buffer.charAt(index) : string.charAt(lineStart + index - buffer.length());
+  }
+
+  private boolean possiblyTerminatesJson(String input, int lineStart, int inputIndex) {
     // This is an approximate approach to look for json message terminations inside of strings -
     // where the normally terminating eol gets separated from the json.
 
-    if (output.length() < 2 || inputIndex + 1 >= input.length()) {
+    final int lineLength = buffer.length() + inputIndex + 1 - lineStart;
+    if (lineLength < 2 || inputIndex + 1 >= input.length()) {
       return false;
     }
 
     // Look for '}', ']', and a letter
-    final char prev = output.charAt(output.length() - 2);
-    final char current = output.charAt(output.length() - 1);
+    final char prev = charAt(input, lineStart, lineLength - 2);
     final char next = input.charAt(inputIndex + 1);
 
-    return prev == '}' && current == ']' && Character.isAlphabetic(next);
+    return prev == '}' && Character.isAlphabetic(next);
   }
 
-  private void flushLine() {
-    if (buffer.length() > 0) {
-      synchronized (lines) {
-        lines.add(buffer.toString());
+  /**
+   * Ends the current line, which continues in string[start, end).
+   */
+  private void flushLine(String string, int start, int end) {
+    if (buffer.length() == 0) {
+      if (end > start) {
+        lines.add(string.substring(start, end));
+      }
+    }
+    else {
+      buffer.append(string, start, end);
+      lines.add(buffer.toString());
+      if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+        buffer = new StringBuilder();
+      }
+      else {
+        buffer.setLength(0);
       }
-      buffer.setLength(0);
     }
     bufferIsJson = false;
   }
@@ -111,10 +191,11 @@ public class StdoutJsonParser {
    * Read any lines available from the processed output.
    */
   public List<String> getAvailableLines() {
-    synchronized (lines) {
-      final List<String> copy = new ArrayList<>(lines);
-      lines.clear();
-      return copy;
+    final List<String> available = new ArrayList<>();
+    String line;
+    while ((line = lines.poll()) != null) {
+      available.add(line);
     }
+    return available;
   }
 }
@@ -46,6 +46,8 @@ import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.List;
@@ -111,6 +113,18 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
    */
   private final InspectorObjectGroupManager selectionGroups;
 
+  /**
+   * Speculatively loads details subtrees into treeGroups for the node the
+   * user is likely to select next. Only used by details subtree panels.
+   */
+  @Nullable private final InspectorPrefetcher subtreePrefetcher;
+
+  /**
+   * Row selected in the tree before the current selection. Used to guess
+   * which direction the user is arrowing through the tree.
+   */
+  private int lastSelectedRow = -1;
+
   /**
    * Node being highlighted due to the current hover.
    */
@@ -125,6 +139,10 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
   private DefaultMutableTreeNode lastExpanded;
   private boolean isActive = false;
   private final Map<InspectorInstanceRef, DefaultMutableTreeNode> valueToTreeNode = new HashMap<>();
+  /**
+   * Index of the loaded tree used by speed search, kept in sync with the tree nodes.
+   */
+  private final WidgetSearchIndex<DefaultMutableTreeNode> searchIndex = new WidgetSearchIndex<>();
 
   /**
    * When visibleToUser is false we should dispose all allocated objects and
@@ -165,6 +183,7 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
     this.inspectorService = inspectorService;
     this.treeGroups = new InspectorObjectGroupManager(inspectorService, "tree");
     this.selectionGroups = new InspectorObjectGroupManager(inspectorService, "selection");
+    this.subtreePrefetcher = detailsSubtree ? new InspectorPrefetcher(treeGroups) : null;
     this.isApplicable = isApplicable;
     this.detailsSubtree = detailsSubtree;
     this.isSummaryTree = isSummaryTree;
@@ -222,6 +241,19 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
 
     initTree(myRootsTree);
     myRootsTree.getSelectionModel().addTreeSelectionListener(this::selectionChanged);
+    myRootsTree.addFocusListener(new FocusAdapter() {
+      @Override
+      public void focusGained(FocusEvent e) {
+        prefetchLikelyNextSelection();
+      }
+
+      @Override
+      public void focusLost(FocusEvent e) {
+        if (subtreePanel != null) {
+          subtreePanel.cancelPrefetch();
+        }
+      }
+    });
 
     treeScrollPane = (JBScrollPane)ScrollPaneFactory.createScrollPane(myRootsTree);
     treeScrollPane.setAutoscrolls(false);
@@ -491,6 +523,9 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
     // references in this method as that stale data will trigger inspector
     // exceptions.
     programaticSelectionChangeInProgress = true;
+    if (subtreePrefetcher != null) {
+      subtreePrefetcher.clear();
+    }
     treeGroups.clear(isolateStopped);
     selectionGroups.clear(isolateStopped);
 
@@ -509,6 +544,7 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
     }
     programaticSelectionChangeInProgress = false;
     valueToTreeNode.clear();
+    searchIndex.clear();
   }
 
   public void onIsolateStopped() {
@@ -587,10 +623,17 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
                                  DiagnosticsNode detailsSelection,
                                  boolean setSubtreeRoot,
                                  boolean textEditorUpdated) {
-    treeGroups.cancelNext();
-    treeGroups.getNext().safeWhenComplete(detailsSubtree
-                                          ? treeGroups.getNext().getDetailsSubtree(subtreeRoot)
-                                          : treeGroups.getNext().getRoot(treeType), (final DiagnosticsNode n, Throwable error) -> {
+    // Reuse the details subtree if it was already prefetched on hover or
+    // keyboard navigation.
+    CompletableFuture<DiagnosticsNode> rootFuture =
+      subtreePrefetcher != null ? subtreePrefetcher.claimDetailsSubtree(subtreeRoot) : null;
+    if (rootFuture == null) {
+      treeGroups.cancelNext();
+      rootFuture = detailsSubtree
+                   ? treeGroups.getNext().getDetailsSubtree(subtreeRoot)
+                   : treeGroups.getNext().getRoot(treeType);
+    }
+    treeGroups.getNext().safeWhenComplete(rootFuture, (final DiagnosticsNode n, Throwable error) -> {
       if (error != null) {
         FlutterUtils.warn(LOG, error);
         treeGroups.cancelNext();
@@ -617,9 +660,66 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
         getTreeModel().setRoot(null);
       }
       refreshSelection(newSelection, detailsSelection, setSubtreeRoot, textEditorUpdated);
+      if (parentTree != null) {
+        parentTree.prefetchLikelyNextSelection();
+      }
     });
   }
 
+  /**
+   * Speculatively load the details subtree for node so that selecting it is
+   * near instant.
+   * <p>
+   * Prefetches never cancel a non-speculative load already in progress.
+   */
+  void prefetchSubtree(DiagnosticsNode node) {
+    if (subtreePrefetcher == null || !visibleToUser) {
+      return;
+    }
+    if (!subtreePrefetcher.isPrefetching() && treeGroups.hasNext()) {
+      // A real load is in flight.
+      return;
+    }
+    if (node == null || node.equals(subtreeRoot) || hasDiagnosticsValue(node.getValueRef())) {
+      // Selecting the node would not change the root of the details subtree.
+      subtreePrefetcher.cancel();
+      return;
+    }
+    subtreePrefetcher.prefetch(node);
+  }
+
+  void cancelPrefetch() {
+    if (subtreePrefetcher != null) {
+      subtreePrefetcher.cancel();
+    }
+  }
+
+  /**
+   * Prefetch the details subtree for the row the user will most likely
+   * select next when navigating the tree with the keyboard.
+   */
+  void prefetchLikelyNextSelection() {
+    if (subtreePanel == null || !myRootsTree.hasFocus()) {
+      return;
+    }
+    final int row = myRootsTree.getLeadSelectionRow();
+    if (row < 0) {
+      return;
+    }
+    final int direction = lastSelectedRow > row ? -1 : 1;
+    for (int candidate = row + direction; candidate >= 0 && candidate < myRootsTree.getRowCount(); candidate += direction) {
+      final TreePath path = myRootsTree.getPathForRow(candidate);
+      if (path == null) {
+        continue;
+      }
+      final DiagnosticsNode diagnostic = TreeUtils.maybeGetDiagnostic((DefaultMutableTreeNode)path.getLastPathComponent());
+      if (diagnostic != null && !diagnostic.isProperty()) {
+        subtreePanel.prefetchSubtree(diagnostic);
+        return;
+      }
+    }
+  }
+
   private void clearValueToTreeNodeMapping() {
     if (parentTree != null) {
       for (InspectorInstanceRef v : valueToTreeNode.keySet()) {
@@ -627,6 +727,7 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
       }
     }
     valueToTreeNode.clear();
+    searchIndex.clear();
   }
 
   /**
@@ -745,8 +846,22 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
     getTreeModel().nodeChanged(node);
   }
 
+  /**
+   * Remove the descendants of node from the search index before they are
+   * discarded from the tree.
+   */
+  private void removeDescendantsFromIndex(DefaultMutableTreeNode node) {
+    for (int i = 0; i < node.getChildCount(); ++i) {
+      final DefaultMutableTreeNode child = (DefaultMutableTreeNode)node.getChildAt(i);
+      searchIndex.remove(child);
+      removeDescendantsFromIndex(child);
+    }
+  }
+
   void setupTreeNode(DefaultMutableTreeNode node, DiagnosticsNode diagnosticsNode, boolean expandChildren) {
+    removeDescendantsFromIndex(node);
     node.setUserObject(diagnosticsNode);
+    searchIndex.update(node, diagnosticsNode);
     node.setAllowsChildren(diagnosticsNode.hasChildren());
     final InspectorInstanceRef valueRef = diagnosticsNode.getValueRef();
     // Properties do not have unique values so should not go in the valueToTreeNode map.
@@ -924,6 +1039,7 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
               final DiagnosticsNode existingNode = getDiagnosticNode(treeNode);
               if (!identicalDiagnosticsNodes(pathDiagnosticNode, existingNode)) {
                 treeNode.setUserObject(pathDiagnosticNode);
+                searchIndex.update(treeNode, pathDiagnosticNode);
               }
               treeNode.setAllowsChildren(!newChildren.isEmpty());
               for (int j = 0; j < newChildren.size(); ++j) {
@@ -942,7 +1058,9 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
                     model.reload(child);
                   }
                   else {
+                    removeDescendantsFromIndex(child);
                     child.setUserObject(newChild);
+                    searchIndex.update(child, newChild);
                     child.setAllowsChildren(newChild.hasChildren());
                     child.removeAllChildren();
                   }
@@ -1086,6 +1204,7 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
     }
     if (selectedNodes.length > 0) {
       assert (selectedNodes.length == 1);
+      lastSelectedRow = selectedNode != null ? myRootsTree.getRowForPath(new TreePath(selectedNode.getPath())) : -1;
       setSelectedNode(selectedNodes[0]);
 
       final DiagnosticsNode selectedDiagnostic = getSelectedDiagnostic();
@@ -1172,6 +1291,18 @@ public class InspectorPanel extends JPanel implements Disposable, InspectorServi
         }
         return null;
       }
+
+      @Override
+      protected Object findElement(@NotNull String s) {
+        // Look the query up in the index rather than matching every row so
+        // that large trees stay responsive and fuzzy queries jump to the best
+        // match.
+        final List<DefaultMutableTreeNode> matches = searchIndex.search(s, 1);
+        if (!matches.isEmpty() && matches.get(0).getRoot() == getRootNode()) {
+          return new TreePath(matches.get(0).getPath());
+        }
+        return super.findElement(s);
+      }
     };
   }
 
@@ -42,6 +42,9 @@ class InspectorTreeMouseListener extends MouseAdapter {
   public void mouseExited(MouseEvent e) {
     clearTooltip();
     endShowNode();
+    if (panel.subtreePanel != null) {
+      panel.subtreePanel.cancelPrefetch();
+    }
   }
 
   @Override
@@ -83,6 +86,8 @@ class InspectorTreeMouseListener extends MouseAdapter {
       }
       else if (panel.subtreePanel != null) {
         panel.subtreePanel.highlightShowNode(node.getValueRef());
+        // Hovering is a strong signal of what the user will click next.
+        panel.subtreePanel.prefetchSubtree(node);
       }
       panel.highlightShowNode(treeNode);
     }
@@ -58,6 +58,21 @@ public class FlutterConsoleFilterTest {
     assertNotNull(link);
   }
 
+  @Test
+  public void checkPlainLineHasNoLink() {
+    final String line = "Syncing files to device Android SDK built for x86...\n";
+    final Filter.Result link = new FlutterConsoleFilter(fixture.getModule()).applyFilter(line, line.length());
+    assertNull(link);
+  }
+
+  @Test
+  public void checkFileCreatedAfterLookupIsFound() throws Exception {
+    final FlutterConsoleFilter filter = new FlutterConsoleFilter(fixture.getModule());
+    assertNull(filter.fileAtPath("test/later_test.dart:3"));
+    tmp.writeFile("root/test/later_test.dart", "");
+    assertNotNull(filter.fileAtPath("test/later_test.dart:3"));
+  }
+
   @Test(timeout=1000)
   public void checkBadErrorMessage() {
     final Filter.Result link = new FlutterConsoleFilter(fixture.getModule()).applyFilter(backtracker, backtracker.length());
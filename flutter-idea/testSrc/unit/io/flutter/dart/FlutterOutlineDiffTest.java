@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import org.dartlang.analysis.server.protocol.FlutterOutline;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FlutterOutlineDiffTest {
+  @Test
+  public void identicalOutlineIsReused() {
+    final FlutterOutline previous = root(widget("Text", 10), widget("Icon", 20));
+    final FlutterOutlineDiff diff = FlutterOutlineDiff.compute(previous, root(widget("Text", 10), widget("Icon", 20)));
+    assertTrue(diff.isEmpty());
+    assertSame(previous, diff.getOutline());
+    assertTrue(diff.getChangedNodes().isEmpty());
+  }
+
+  @Test
+  public void unchangedSubtreesAreReused() {
+    final FlutterOutline previous = root(widget("Text", 10), widget("Icon", 20));
+    final FlutterOutline fresh = root(widget("Text", 10), widget("Icon", 25));
+    final FlutterOutlineDiff diff = FlutterOutlineDiff.compute(previous, fresh);
+
+    final FlutterOutline outline = diff.getOutline();
+    assertFalse(diff.isEmpty());
+    assertEquals(fresh, outline);
+    assertSame(previous.getChildren().get(0), outline.getChildren().get(0));
+    assertNotSame(previous.getChildren().get(1), outline.getChildren().get(1));
+    assertFalse(diff.isChanged(outline.getChildren().get(0)));
+    assertTrue(diff.isChanged(outline.getChildren().get(1)));
+    assertTrue(diff.isChanged(outline));
+  }
+
+  @Test
+  public void insertedChildDoesNotInvalidateSiblings() {
+    final FlutterOutline previous = root(widget("Text", 10), widget("Icon", 20));
+    final FlutterOutline fresh = root(widget("Padding", 5), widget("Text", 10), widget("Icon", 20));
+    final FlutterOutlineDiff diff = FlutterOutlineDiff.compute(previous, fresh);
+
+    final List<FlutterOutline> children = diff.getOutline().getChildren();
+    assertTrue(diff.isChanged(children.get(0)));
+    assertSame(previous.getChildren().get(0), children.get(1));
+    assertSame(previous.getChildren().get(1), children.get(2));
+    // Only the inserted child and the root are new.
+    assertEquals(2, diff.getChangedNodes().size());
+  }
+
+  @Test
+  public void firstOutlineIsAllChanged() {
+    final FlutterOutline fresh = root(widget("Text", 10));
+    final FlutterOutlineDiff diff = FlutterOutlineDiff.compute(null, fresh);
+    assertNull(diff.getPrevious());
+    assertSame(fresh, diff.getOutline());
+    assertEquals(2, diff.getChangedNodes().size());
+  }
+
+  private static FlutterOutline root(FlutterOutline... children) {
+    return new FlutterOutline("COMPILATION_UNIT", 0, 100, 0, 100, null, null, null, null, null, null, Arrays.asList(children));
+  }
+
+  private static FlutterOutline widget(String className, int offset) {
+    return new FlutterOutline("NEW_INSTANCE", offset, 5, offset, 5, null, null, null, className, null, null, null);
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import com.google.gson.JsonObject;
+import org.dartlang.analysis.server.protocol.FlutterOutline;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class FlutterOutlineReaderTest {
+  @Test
+  public void readsOutlineNotification() {
+    final FlutterOutline child = new FlutterOutline("NEW_INSTANCE", 10, 5, 10, 5, null, null, null, "Text", "child", null, null);
+    final FlutterOutline outline =
+      new FlutterOutline("COMPILATION_UNIT", 0, 100, 0, 100, null, null, null, null, null, null, Collections.singletonList(child));
+
+    final JsonObject params = new JsonObject();
+    params.add("outline", outline.toJson());
+    params.addProperty("file", "/lib/main.dart");
+    final JsonObject json = new JsonObject();
+    json.add("params", params);
+    json.addProperty("event", "flutter.outline");
+
+    final FlutterOutlineReader.Notification notification = FlutterOutlineReader.readNotification(json.toString());
+    assertNotNull(notification);
+    assertEquals("/lib/main.dart", notification.file);
+    assertNull(notification.instrumentedCode);
+    assertEquals(outline, notification.outline);
+  }
+
+  @Test
+  public void ignoresOtherResponses() {
+    assertNull(FlutterOutlineReader.readNotification("{\"event\":\"analysis.errors\",\"params\":{\"file\":\"a.dart\"}}"));
+    assertNull(FlutterOutlineReader.readNotification("{\"id\":\"1\",\"result\":{\"label\":\"\\\"flutter.outline\\\"\"}}"));
+    assertNull(FlutterOutlineReader.readNotification("not json"));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SubscriptionBatcherTest {
+  @Test
+  public void sendsOnlyTheFinalSubscriptions() {
+    final SubscriptionBatcher batcher = new SubscriptionBatcher();
+    batcher.add("OUTLINE", "/a.dart");
+    batcher.add("OUTLINE", "/b.dart");
+    batcher.remove("OUTLINE", "/a.dart");
+    final List<Map<String, List<String>>> requests = batcher.takeChanges();
+    assertEquals(1, requests.size());
+    assertEquals(Collections.singletonList("/b.dart"), requests.get(0).get("OUTLINE"));
+  }
+
+  @Test
+  public void changesThatCancelOutAreNotSent() {
+    final SubscriptionBatcher batcher = new SubscriptionBatcher();
+    batcher.add("OUTLINE", "/a.dart");
+    assertEquals(1, batcher.takeChanges().size());
+
+    batcher.add("OUTLINE", "/b.dart");
+    batcher.remove("OUTLINE", "/b.dart");
+    assertTrue(batcher.takeChanges().isEmpty());
+
+    batcher.reset();
+    assertEquals(1, batcher.takeChanges().size());
+  }
+
+  @Test
+  public void resubscribedFilesAreRemovedAndAddedAgain() {
+    final SubscriptionBatcher batcher = new SubscriptionBatcher();
+    batcher.add("OUTLINE", "/a.dart");
+    batcher.add("OUTLINE", "/b.dart");
+    assertEquals(1, batcher.takeChanges().size());
+
+    batcher.remove("OUTLINE", "/a.dart");
+    batcher.add("OUTLINE", "/a.dart");
+    final List<Map<String, List<String>>> requests = batcher.takeChanges();
+    assertEquals(2, requests.size());
+    assertEquals(Collections.singletonList("/b.dart"), requests.get(0).get("OUTLINE"));
+    assertEquals(Arrays.asList("/b.dart", "/a.dart"), requests.get(1).get("OUTLINE"));
+
+    assertTrue(batcher.takeChanges().isEmpty());
+  }
+}
@@ -16,6 +16,7 @@ import org.junit.Test;
 
 import java.awt.*;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 public class FlutterColorProviderTest extends AbstractDartElementTest {
@@ -185,4 +186,15 @@ public class FlutterColorProviderTest extends AbstractDartElementTest {
     });
   }
 
+  @Test
+  public void returnsSameColorOnRepeatedPasses() throws Exception {
+    run(() -> {
+      final PsiElement testIdentifier = setUpDartElement("main() { Colors.blue; }", "Colors", LeafPsiElement.class);
+      final Color color = new FlutterColorProvider().getColorFrom(testIdentifier);
+      assertNotNull(color);
+      assertEquals(color, new FlutterColorProvider().getColorFrom(testIdentifier));
+      assertEquals(FlutterColors.getColor("blue").getAWTColor(), color);
+    });
+  }
+
 }
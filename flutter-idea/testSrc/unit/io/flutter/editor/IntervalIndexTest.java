@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntervalIndexTest {
+  @Test
+  public void emptyIndex() {
+    final IntervalIndex<int[]> index = create(new ArrayList<>());
+    assertEquals(0, index.size());
+    assertTrue(index.findContaining(5).isEmpty());
+    assertFalse(index.overlapsAny(0, 100));
+  }
+
+  @Test
+  public void intervalsAreClosed() {
+    final int[] interval = {10, 20};
+    final IntervalIndex<int[]> index = create(Arrays.asList(interval));
+    assertTrue(index.findContaining(9).isEmpty());
+    assertEquals(Arrays.asList(interval), index.findContaining(10));
+    assertEquals(Arrays.asList(interval), index.findContaining(20));
+    assertTrue(index.findContaining(21).isEmpty());
+    assertTrue(index.overlapsAny(20, 30));
+    assertFalse(index.overlapsAny(21, 30));
+  }
+
+  @Test
+  public void matchesAreReportedInStartOrder() {
+    final int[] a = {30, 40};
+    final int[] b = {0, 100};
+    final int[] c = {10, 50};
+    final IntervalIndex<int[]> index = create(Arrays.asList(a, b, c));
+    assertEquals(Arrays.asList(b, c, a), index.findContaining(35));
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    final Random random = new Random(42);
+    for (int iteration = 0; iteration < 50; ++iteration) {
+      final List<int[]> intervals = new ArrayList<>();
+      final int count = random.nextInt(200);
+      for (int i = 0; i < count; ++i) {
+        final int start = random.nextInt(1000);
+        intervals.add(new int[]{start, start + random.nextInt(random.nextBoolean() ? 10 : 300)});
+      }
+      final IntervalIndex<int[]> index = create(intervals);
+      for (int query = 0; query < 100; ++query) {
+        final int start = random.nextInt(1200) - 100;
+        final int end = start + random.nextInt(50);
+        final List<int[]> expected = new ArrayList<>();
+        for (int[] interval : intervals) {
+          if (interval[0] <= end && interval[1] >= start) {
+            expected.add(interval);
+          }
+        }
+        expected.sort((x, y) -> Integer.compare(x[0], y[0]));
+        final List<int[]> actual = index.findOverlapping(start, end);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+          assertEquals(expected.get(i)[0], actual.get(i)[0]);
+        }
+        assertTrue(actual.containsAll(expected));
+        assertEquals(!expected.isEmpty(), index.overlapsAny(start, end));
+      }
+    }
+  }
+
+  private static IntervalIndex<int[]> create(List<int[]> intervals) {
+    return IntervalIndex.create(intervals, (interval) -> interval[0], (interval) -> interval[1]);
+  }
+}
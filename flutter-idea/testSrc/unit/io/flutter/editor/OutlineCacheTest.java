@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import org.dartlang.analysis.server.protocol.FlutterOutline;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class OutlineCacheTest {
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void returnsOutlineForSameContents() {
+    final OutlineCache cache = new OutlineCache(null, 1024 * 1024, 0);
+    final FlutterOutline outline = outline("Text");
+    cache.put("/lib/main.dart", OutlineCache.hashContents("abc"), outline);
+    assertEquals(outline, cache.get("/lib/main.dart", OutlineCache.hashContents("abc")));
+  }
+
+  @Test
+  public void changedContentsAreNotServed() {
+    final OutlineCache cache = new OutlineCache(null, 1024 * 1024, 0);
+    cache.put("/lib/main.dart", OutlineCache.hashContents("abc"), outline("Text"));
+    assertNull(cache.get("/lib/main.dart", OutlineCache.hashContents("abcd")));
+    assertNull(cache.get("/lib/other.dart", OutlineCache.hashContents("abc")));
+  }
+
+  @Test
+  public void memoryIsBoundedByBytes() throws IOException {
+    final long entrySize = OutlineCache.encode(outline("Text")).length;
+    final OutlineCache cache = new OutlineCache(null, entrySize * 2, 0);
+    cache.put("/a.dart", 1, outline("Text"));
+    cache.put("/b.dart", 1, outline("Text"));
+    // Touch a so that b is the least recently used.
+    assertNotNull(cache.get("/a.dart", 1));
+    cache.put("/c.dart", 1, outline("Text"));
+    assertTrue(cache.getMemoryBytes() <= entrySize * 2);
+    assertNotNull(cache.get("/a.dart", 1));
+    assertNull(cache.get("/b.dart", 1));
+    assertNotNull(cache.get("/c.dart", 1));
+  }
+
+  @Test
+  public void outlinesArePersistedToDisk() throws IOException {
+    final Path directory = temp.newFolder().toPath();
+    final FlutterOutline outline = outline("Icon");
+    new OutlineCache(directory, 1024 * 1024, 1024 * 1024).put("/lib/main.dart", 42, outline);
+
+    final OutlineCache reopened = new OutlineCache(directory, 1024 * 1024, 1024 * 1024);
+    assertEquals(outline, reopened.get("/lib/main.dart", 42));
+    assertNull(reopened.get("/lib/main.dart", 43));
+  }
+
+  private static FlutterOutline outline(String className) {
+    final FlutterOutline child = new FlutterOutline("NEW_INSTANCE", 10, 5, 10, 5, null, null, null, className, "child", null, null);
+    return new FlutterOutline("COMPILATION_UNIT", 0, 100, 0, 100, null, null, null, null, null, null, Collections.singletonList(child));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import io.flutter.testing.CodeInsightProjectFixture;
+import io.flutter.testing.Testing;
+import org.dartlang.analysis.server.protocol.FlutterOutline;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WidgetIndentGuideDescriptorTest {
+  private static final String fileContents = "Widget build() {\n" +
+                                             "  return Column(children: [\n" +
+                                             "    Text('a'),\n" +
+                                             "  ]);\n" +
+                                             "}\n";
+
+  @Rule
+  public final CodeInsightProjectFixture projectFixture = Testing.makeCodeInsightModule();
+
+  WidgetIndentsHighlightingPass pass;
+  Document document;
+
+  @Before
+  public void setUp() throws Exception {
+    pass = mock(WidgetIndentsHighlightingPass.class);
+    when(pass.getConvertedOffset(anyInt())).thenAnswer((invocation) -> invocation.getArgument(0));
+    when(pass.getConvertedOffset(any(FlutterOutline.class)))
+      .thenAnswer((invocation) -> ((FlutterOutline)invocation.getArgument(0)).getOffset());
+    document = Testing.computeOnDispatchThread(() -> EditorFactory.getInstance().createDocument(fileContents));
+  }
+
+  @Test
+  public void tracksEditsAfterScrollingOutOfViewAndBack() throws Exception {
+    final int columnOffset = fileContents.indexOf("Column");
+    final int textOffset = fileContents.indexOf("Text");
+    final OutlineLocation widget = location("Column", columnOffset, 1, 9, 2);
+    final OutlineLocation child = location("Text", textOffset, 2, 4, 4);
+    final ArrayList<OutlineLocation> childLines = new ArrayList<>();
+    childLines.add(child);
+    final WidgetIndentGuideDescriptor descriptor = new WidgetIndentGuideDescriptor(null, 2, 1, 3, childLines, widget, null);
+
+    // Materialized, then evicted from the viewport, then scrolled back into view.
+    descriptor.trackLocations(document);
+    descriptor.dispose();
+    descriptor.trackLocations(document);
+
+    assertEquals(1, descriptor.childLines.size());
+
+    Testing.runInWriteAction(() -> document.insertString(0, "// comment\n"));
+    assertEquals(textOffset + "// comment\n".length(), child.getGuideOffset());
+    assertEquals(3, child.getLine());
+    assertEquals(columnOffset - 7 + "// comment\n".length(), widget.getGuideOffset());
+
+    descriptor.dispose();
+  }
+
+  @Test
+  public void stopsTrackingWhenDisposed() throws Exception {
+    final int textOffset = fileContents.indexOf("Text");
+    final OutlineLocation child = location("Text", textOffset, 2, 4, 4);
+    final ArrayList<OutlineLocation> childLines = new ArrayList<>();
+    childLines.add(child);
+    final WidgetIndentGuideDescriptor descriptor = new WidgetIndentGuideDescriptor(null, 2, 1, 3, childLines, null, null);
+
+    descriptor.trackLocations(document);
+    descriptor.dispose();
+
+    Testing.runInWriteAction(() -> document.insertString(0, "// comment\n"));
+    assertEquals(textOffset, child.getGuideOffset());
+  }
+
+  private OutlineLocation location(String className, int offset, int line, int column, int indent) {
+    final FlutterOutline node = new FlutterOutline("NEW_INSTANCE", offset, className.length(), offset, className.length(),
+                                                   null, null, null, className, null, null, null);
+    return new OutlineLocation(node, line, column, indent, null, pass);
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.font;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class FontPackageCacheTest {
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void resultsArePersisted() throws IOException {
+    final Path file = temp.newFolder().toPath().resolve("fonts.json");
+    final String key = FontPackageCache.getKey("fluttericon", "2.0.0", "abc");
+    final Map<String, Set<String>> iconClasses = new HashMap<>();
+    iconClasses.put("Typicons", new HashSet<>(Collections.singletonList("/pub/fluttericon-2.0.0/lib/typicons_icons.dart")));
+    new FontPackageCache(file).put(key, iconClasses);
+
+    final FontPackageCache reopened = new FontPackageCache(file);
+    assertEquals(iconClasses, reopened.get(key));
+    assertNull(reopened.get(FontPackageCache.getKey("fluttericon", "2.0.0", "def")));
+    assertNull(reopened.get(FontPackageCache.getKey("fluttericon", "2.0.1", "abc")));
+  }
+
+  @Test
+  public void packagesWithNoIconsArePersisted() throws IOException {
+    final Path file = temp.newFolder().toPath().resolve("fonts.json");
+    new FontPackageCache(file).put("empty@1.0.0#abc", Collections.emptyMap());
+    assertEquals(Collections.emptyMap(), new FontPackageCache(file).get("empty@1.0.0#abc"));
+  }
+
+  @Test
+  public void parsesLockedVersions() {
+    final String lock = "# Generated by pub\n" +
+                        "packages:\n" +
+                        "  cupertino_icons:\n" +
+                        "    dependency: \"direct main\"\n" +
+                        "    description:\n" +
+                        "      name: cupertino_icons\n" +
+                        "      url: \"https://pub.dev\"\n" +
+                        "    source: hosted\n" +
+                        "    version: \"1.0.5\"\n" +
+                        "  flutter:\n" +
+                        "    dependency: \"direct main\"\n" +
+                        "    description: flutter\n" +
+                        "    source: sdk\n" +
+                        "    version: \"0.0.0\"\n" +
+                        "sdks:\n" +
+                        "  dart: \">=2.18.0 <3.0.0\"\n";
+    final Map<String, String> versions = FontPackageCache.parseLockedVersions(lock);
+    assertEquals("1.0.5", versions.get("cupertino_icons"));
+    assertEquals("0.0.0", versions.get("flutter"));
+    assertFalse(versions.containsKey("dart"));
+    assertFalse(versions.containsKey("description"));
+  }
+}
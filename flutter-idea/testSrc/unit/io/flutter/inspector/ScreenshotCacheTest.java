@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.inspector;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import static org.junit.Assert.*;
+
+public class ScreenshotCacheTest {
+  @Test
+  public void decodesAndCaches() throws Exception {
+    final ScreenshotCache cache = new ScreenshotCache();
+    final ScreenshotCache.Key key = ScreenshotCache.Key.forValue(new InspectorInstanceRef("1"), 10, 20, 1.0, 0);
+    assertNull(cache.getNow(key));
+
+    final Screenshot screenshot = cache.decode(key, screenshotJson(10, 20)).get();
+    assertEquals(10, screenshot.image.getWidth());
+    assertEquals(20, screenshot.image.getHeight());
+    assertSame(screenshot, cache.getNow(key));
+    assertSame(screenshot, cache.decode(key, screenshotJson(10, 20)).get());
+  }
+
+  @Test
+  public void keysIncludeFrame() throws Exception {
+    final ScreenshotCache cache = new ScreenshotCache();
+    final InspectorInstanceRef ref = new InspectorInstanceRef("1");
+    cache.decode(ScreenshotCache.Key.forValue(ref, 10, 10, 1.0, 0), screenshotJson(10, 10)).get();
+    assertNull(cache.getNow(ScreenshotCache.Key.forValue(ref, 10, 10, 1.0, 1)));
+    assertNull(cache.getNow(ScreenshotCache.Key.forValue(ref, 10, 10, 2.0, 0)));
+    assertNotNull(cache.getNow(ScreenshotCache.Key.forValue(ref, 10, 10, 1.0, 0)));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedByBytes() throws Exception {
+    // Room for two 10x10 images.
+    final ScreenshotCache cache = new ScreenshotCache(ScreenshotCache.sizeInBytes(new BufferedImage(10, 20, BufferedImage.TYPE_INT_ARGB)));
+    final ScreenshotCache.Key a = ScreenshotCache.Key.forValue(new InspectorInstanceRef("a"), 10, 10, 1.0, 0);
+    final ScreenshotCache.Key b = ScreenshotCache.Key.forValue(new InspectorInstanceRef("b"), 10, 10, 1.0, 0);
+    final ScreenshotCache.Key c = ScreenshotCache.Key.forValue(new InspectorInstanceRef("c"), 10, 10, 1.0, 0);
+    cache.decode(a, screenshotJson(10, 10)).get();
+    cache.decode(b, screenshotJson(10, 10)).get();
+    // Touch a so that b is the least recently used entry.
+    assertNotNull(cache.getNow(a));
+    cache.decode(c, screenshotJson(10, 10)).get();
+
+    assertNotNull(cache.getNow(a));
+    assertNull(cache.getNow(b));
+    assertNotNull(cache.getNow(c));
+    assertEquals(2 * 10 * 10 * 4, cache.getTotalBytes());
+  }
+
+  @Test
+  public void placeholderIsDownscaled() throws Exception {
+    final ScreenshotCache cache = new ScreenshotCache();
+    final InspectorInstanceRef ref = new InspectorInstanceRef("1");
+    cache.decode(ScreenshotCache.Key.forValue(ref, 40, 40, 1.0, 0), screenshotJson(40, 40)).get();
+
+    final Screenshot placeholder = cache.getPlaceholder(ScreenshotCache.Key.forValue(ref, 20, 20, 1.0, 3)).get();
+    assertNotNull(placeholder);
+    assertEquals(20, placeholder.image.getWidth());
+    assertEquals(20, placeholder.image.getHeight());
+
+    assertNull(cache.getPlaceholder(ScreenshotCache.Key.forValue(new InspectorInstanceRef("2"), 20, 20, 1.0, 3)).get());
+  }
+
+  private static JsonObject screenshotJson(int width, int height) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+
+    final JsonObject transformedRect = new JsonObject();
+    transformedRect.addProperty("left", 0);
+    transformedRect.addProperty("top", 0);
+    transformedRect.addProperty("width", width);
+    transformedRect.addProperty("height", height);
+    transformedRect.add("transform", new JsonArray());
+
+    final JsonObject json = new JsonObject();
+    json.addProperty("image", Base64.getEncoder().encodeToString(out.toByteArray()));
+    json.add("transformedRect", transformedRect);
+    return json;
+  }
+}
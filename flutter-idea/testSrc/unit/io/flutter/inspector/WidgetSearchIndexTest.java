@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.inspector;
+
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class WidgetSearchIndexTest {
+  @Test
+  public void indexesCamelCaseHumps() {
+    final WidgetSearchIndex<String> index = new WidgetSearchIndex<>();
+    index.update("button", WidgetSearchIndex.tokensFor(node("ElevatedButton", "ElevatedButton-[<'submit'>]")));
+    index.update("text", WidgetSearchIndex.tokensFor(node("Text", "Text")));
+
+    assertEquals(Collections.singletonList("button"), index.search("button", 10));
+    assertEquals(Collections.singletonList("button"), index.search("submit", 10));
+    assertEquals(Collections.singletonList("text"), index.search("TEXT", 10));
+  }
+
+  @Test
+  public void ranksExactThenPrefixThenFuzzy() {
+    final WidgetSearchIndex<String> index = new WidgetSearchIndex<>();
+    index.update("fuzzy", Collections.singletonList("crossaxismenu"));
+    index.update("prefix", Collections.singletonList("container"));
+    index.update("exact", Collections.singletonList("cont"));
+
+    assertEquals(Arrays.asList("exact", "prefix"), index.search("cont", 10));
+    assertEquals(Collections.singletonList("exact"), index.search("cont", 1));
+    assertEquals(Collections.singletonList("fuzzy"), index.search("cxm", 10));
+  }
+
+  @Test
+  public void requiresEveryTerm() {
+    final WidgetSearchIndex<String> index = new WidgetSearchIndex<>();
+    index.update("a", Arrays.asList("padding", "main.dart"));
+    index.update("b", Arrays.asList("padding", "home.dart"));
+
+    assertEquals(Collections.singletonList("b"), index.search("padding home", 10));
+    assertTrue(index.search("padding settings", 10).isEmpty());
+  }
+
+  @Test
+  public void updatesAndRemovesEntries() {
+    final WidgetSearchIndex<String> index = new WidgetSearchIndex<>();
+    index.update("a", Collections.singletonList("row"));
+    index.update("a", Collections.singletonList("column"));
+    assertTrue(index.search("row", 10).isEmpty());
+    assertEquals(Collections.singletonList("a"), index.search("column", 10));
+
+    index.remove("a");
+    assertTrue(index.search("column", 10).isEmpty());
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  public void fuzzyMatchAnchorsOnFirstCharacter() {
+    assertTrue(WidgetSearchIndex.isFuzzyMatch("elvbtn", "elevatedbutton"));
+    assertFalse(WidgetSearchIndex.isFuzzyMatch("lvbtn", "elevatedbutton"));
+    assertFalse(WidgetSearchIndex.isFuzzyMatch("elevatedbuttons", "elevatedbutton"));
+  }
+
+  private static DiagnosticsNode node(String runtimeType, String description) {
+    final JsonObject json = new JsonObject();
+    json.addProperty("widgetRuntimeType", runtimeType);
+    json.addProperty("description", description);
+    return new DiagnosticsNode(json, CompletableFuture.completedFuture(null), null, false, null);
+  }
+}
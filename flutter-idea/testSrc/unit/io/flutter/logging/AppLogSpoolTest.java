@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class AppLogSpoolTest {
+  private final AppLogSpool spool = new AppLogSpool(200, 3);
+
+  @After
+  public void tearDown() {
+    spool.dispose();
+  }
+
+  @Test
+  public void storesEachLineWithItsSource() {
+    spool.append(AppLogSpool.Source.STDOUT, "first\r\nsecond\n");
+    spool.append(AppLogSpool.Source.LOGGING, "[log] third");
+
+    assertEquals(0, spool.getStartLine());
+    assertEquals(3, spool.getEndLine());
+    assertEquals("[first, second, [log] third]", spool.getLines(0, 10).toString());
+    final AppLogSpool.Line line = spool.getLine(2);
+    assertNotNull(line);
+    assertEquals(AppLogSpool.Source.LOGGING, line.source);
+    assertTrue(line.timestamp > 0);
+  }
+
+  @Test
+  public void dropsTheOldestSegmentsWhenFull() {
+    for (int i = 0; i < 100; i++) {
+      spool.append(AppLogSpool.Source.STDOUT, "line " + i);
+    }
+
+    assertEquals(100, spool.getEndLine());
+    assertTrue(spool.getStartLine() > 0);
+    assertNull(spool.getLine(0));
+    final List<AppLogSpool.Line> lines = spool.getLines(spool.getStartLine(), 1000);
+    assertEquals(100 - spool.getStartLine(), lines.size());
+    assertEquals("line 99", lines.get(lines.size() - 1).text);
+  }
+
+  @Test
+  public void findsLinesContainingAllWords() {
+    for (int i = 0; i < 20; i++) {
+      spool.append(AppLogSpool.Source.STDOUT, i % 5 == 0 ? "Frame " + i + " took too long" : "frame " + i);
+    }
+
+    assertEquals(List.of(0, 5, 10, 15), indexes(spool.search("too LONG", 0, 10)));
+    assertEquals(List.of(10, 15), indexes(spool.search("too long", 6, 10)));
+    assertEquals(List.of(0, 5), indexes(spool.search("took", 0, 2)));
+    assertEquals(List.of(10), indexes(spool.search("frame 10", 0, 10)));
+    // Only whole words match.
+    assertTrue(spool.search("too lon", 0, 10).isEmpty());
+  }
+
+  @Test
+  public void recordsNothingOnceDisposed() {
+    spool.append(AppLogSpool.Source.STDOUT, "before");
+    assertFalse(spool.isDisposed());
+
+    spool.dispose();
+    spool.append(AppLogSpool.Source.STDOUT, "after");
+    assertTrue(spool.isDisposed());
+    assertTrue(spool.getLines(0, 10).isEmpty());
+  }
+
+  private static List<Integer> indexes(List<AppLogSpool.Line> lines) {
+    return lines.stream().map((line) -> line.index).collect(Collectors.toList());
+  }
+}
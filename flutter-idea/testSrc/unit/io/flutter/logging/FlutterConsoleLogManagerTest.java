@@ -29,6 +29,7 @@ import org.junit.Test;
 
 import javax.swing.*;
 import java.io.InputStreamReader;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.not;
@@ -176,6 +177,9 @@ public class FlutterConsoleLogManagerTest {
     when(app.getVmService()).thenAnswer(mock -> mock(VmService.class));
     when(app.getFlutterDebugProcess()).thenAnswer(mock -> mock(FlutterDebugProcess.class));
     when(app.getVMServiceManager()).thenAnswer(mock -> mock(VMServiceManager.class));
+    when(app.getLogSpool()).thenAnswer(mock -> mock(AppLogSpool.class));
+    final LoggingRecordStore records = new LoggingRecordStore((isolateId, objectId, length) -> CompletableFuture.completedFuture(null));
+    when(app.getLoggingRecords()).thenReturn(records);
 
     return app;
   }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FlutterErrorStormsTest {
+  @Test
+  public void repeatedErrorsAreSummarizedWhenTheStormEnds() {
+    final FlutterErrorStorms storms = new FlutterErrorStorms(2, 1000);
+    assertTrue(storms.shouldRender("overflow", "A RenderFlex overflowed", 0));
+    assertTrue(storms.shouldRender("overflow", "A RenderFlex overflowed", 16));
+    for (int i = 2; i < 10; i++) {
+      assertFalse(storms.shouldRender("overflow", "A RenderFlex overflowed", i * 16));
+    }
+    assertTrue(storms.takeEnded(500).isEmpty());
+
+    final List<FlutterErrorStorms.Summary> summaries = storms.takeEnded(2000);
+    assertEquals(1, summaries.size());
+    assertEquals(8, summaries.get(0).count);
+    assertEquals(32, summaries.get(0).firstMillis);
+    assertEquals(144, summaries.get(0).lastMillis);
+    assertEquals("A RenderFlex overflowed", summaries.get(0).description);
+    assertTrue(storms.isEmpty());
+
+    // A new storm renders errors again.
+    assertTrue(storms.shouldRender("overflow", "A RenderFlex overflowed", 3000));
+  }
+
+  @Test
+  public void differentErrorsAreNotCollapsed() {
+    final FlutterErrorStorms storms = new FlutterErrorStorms(1, 1000);
+    assertTrue(storms.shouldRender("overflow", "A RenderFlex overflowed", 0));
+    assertTrue(storms.shouldRender("null", "Null check operator used on a null value", 0));
+    assertTrue(storms.shouldRender(null, "Unknown", 0));
+    assertTrue(storms.shouldRender(null, "Unknown", 0));
+  }
+
+  @Test
+  public void stormsWithoutSuppressedErrorsHaveNoSummary() {
+    final FlutterErrorStorms storms = new FlutterErrorStorms(3, 1000);
+    storms.shouldRender("overflow", "A RenderFlex overflowed", 0);
+    assertTrue(storms.takeEnded(1000).isEmpty());
+    assertTrue(storms.isEmpty());
+  }
+}
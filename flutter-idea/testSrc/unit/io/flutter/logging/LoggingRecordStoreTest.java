@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class LoggingRecordStoreTest {
+  private final List<String> fetched = new ArrayList<>();
+  private final LoggingRecordStore records = new LoggingRecordStore(4, (isolateId, objectId, length) -> {
+    fetched.add(objectId);
+    return CompletableFuture.completedFuture(objectId.equals("objects/missing") ? null : "full " + objectId);
+  });
+
+  @Test
+  public void filtersByLevelAndLogger() {
+    records.add(800, 1, "net", "isolates/1", "connected", null, 9);
+    records.add(1000, 2, "db", "isolates/1", "failed", null, 6);
+    records.add(500, 3, "net", "isolates/1", "retrying", null, 8);
+
+    assertArrayEquals(new int[]{0, 1}, records.filter(800, null));
+    assertArrayEquals(new int[]{0, 2}, records.filter(0, "net"));
+    assertArrayEquals(new int[]{1}, records.filter(900, "db"));
+    assertArrayEquals(new int[0], records.filter(0, "ui"));
+    assertEquals("db", records.getLoggerName(1));
+    assertEquals(List.of("net", "db"), records.getLoggerNames());
+  }
+
+  @Test
+  public void fetchesTruncatedMessagesOnce() throws Exception {
+    records.add(800, 1, "net", "isolates/1", "short", null, 5);
+    records.add(800, 2, "net", "isolates/1", "a long mess", "objects/7", 100);
+
+    assertEquals("short", records.getCachedBody(0));
+    assertNull(records.getCachedBody(1));
+    assertEquals("full objects/7", records.getBody(1).get());
+    assertEquals("full objects/7", records.getCachedBody(1));
+    assertEquals("full objects/7", records.getBody(1).get());
+    assertEquals(List.of("objects/7"), fetched);
+  }
+
+  @Test
+  public void usesThePreviewWhenAMessageCannotBeFetched() throws Exception {
+    records.add(800, 1, "net", "isolates/1", "a long mess", "objects/missing", 100);
+
+    assertEquals("a long mess...", records.getBody(0).get());
+    assertNull(records.getCachedBody(0));
+  }
+
+  @Test
+  public void overwritesTheOldestRecordsWhenFull() {
+    for (int i = 0; i < 6; i++) {
+      records.add(i * 100, i, "log", "isolates/1", "message " + i, null, 9);
+    }
+
+    assertEquals(2, records.getStartRow());
+    assertEquals(6, records.getEndRow());
+    assertEquals("message 5", records.getPreview(5));
+    assertArrayEquals(new int[]{2, 3, 4, 5}, records.filter(0, null));
+    try {
+      records.getPreview(1);
+      fail("expected the record to be overwritten");
+    }
+    catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  @Test
+  public void keepsPreviewsWhenTheirBytesWrapAround() {
+    final String longPreview = "\u00e9".repeat(20000);
+    for (int i = 0; i < 10; i++) {
+      records.add(800, i, "log", "isolates/1", i + longPreview.substring(i * 1000), null, 40000);
+    }
+
+    for (int i = 6; i < 10; i++) {
+      assertEquals(i + longPreview.substring(i * 1000), records.getPreview(i));
+    }
+  }
+}
@@ -110,6 +110,40 @@ public class DaemonApiTest {
     assertNull(result);
   }
 
+  @Test
+  public void canDispatchEventLine() {
+    final List<DaemonEvent.AppLog> events = new ArrayList<>();
+    final DaemonEvent.Listener listener = new DaemonEvent.Listener() {
+      @Override
+      public void onAppLog(DaemonEvent.AppLog event) {
+        events.add(event);
+      }
+    };
+
+    api.dispatch("[{\"event\":\"app.log\",\"params\":{\"appId\":\"foo\",\"log\":\"hello\",\"error\":true,\"extra\":[1]}}]",
+                 listener);
+    // Params before the event name are handled too.
+    api.dispatch("[{\"params\":{\"appId\":\"bar\",\"log\":\"bye\"},\"event\":\"app.log\"}]", listener);
+    api.dispatch("[{\"event\":\"app.log\",\"params\":{\"appId\":", listener);
+
+    assertEquals(2, events.size());
+    assertEquals("foo", events.get(0).appId);
+    assertEquals("hello", events.get(0).log);
+    assertTrue(events.get(0).error);
+    assertEquals("bar", events.get(1).appId);
+    assertFalse(events.get(1).error);
+  }
+
+  @Test
+  public void canDispatchResponseLine() throws Exception {
+    final Future<Boolean> result = api.stopApp("foo");
+    checkSent(result, "app.stop", curly("appId:\"foo\""));
+
+    api.dispatch("[{\"id\":0,\"result\":true}]", null);
+    assertTrue(result.isDone());
+    assertEquals(true, result.get());
+  }
+
   // helpers
 
   private void checkSent(Future<?> result, String expectedMethod, String expectedParamsJson) {
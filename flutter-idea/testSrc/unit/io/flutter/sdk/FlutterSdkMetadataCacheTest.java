@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.sdk;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FlutterSdkMetadataCacheTest {
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void returnsSavedValuesWhileToolIsUnchanged() throws IOException {
+    final String sdkPath = createSdk();
+    final FlutterSdkMetadataCache cache = new FlutterSdkMetadataCache();
+    assertNull(cache.get(sdkPath));
+
+    cache.put(sdkPath, Map.of("channel", "stable", "enable-web", "true"));
+    assertEquals(Map.of("channel", "stable", "enable-web", "true"), cache.get(sdkPath));
+  }
+
+  @Test
+  public void dropsValuesWhenToolIsRebuilt() throws IOException {
+    final String sdkPath = createSdk();
+    final FlutterSdkMetadataCache cache = new FlutterSdkMetadataCache();
+    cache.put(sdkPath, Map.of("channel", "stable"));
+
+    final File stamp = new File(sdkPath, "bin/cache/flutter_tools.stamp");
+    assertTrue(stamp.setLastModified(stamp.lastModified() + 10000));
+    assertNull(cache.get(sdkPath));
+  }
+
+  @Test
+  public void keepsValuesAcrossSessions() throws IOException {
+    final String sdkPath = createSdk();
+    final FlutterSdkMetadataCache cache = new FlutterSdkMetadataCache();
+    cache.put(sdkPath, Map.of("android-sdk", "/android"));
+
+    final FlutterSdkMetadataCache restored = new FlutterSdkMetadataCache();
+    restored.loadState(cache.getState());
+    assertEquals(Map.of("android-sdk", "/android"), restored.get(sdkPath));
+    assertNull(restored.get(createSdk()));
+  }
+
+  private String createSdk() throws IOException {
+    final File sdk = tmp.newFolder();
+    final File cache = new File(sdk, "bin/cache");
+    assertTrue(cache.mkdirs());
+    assertTrue(new File(cache, "flutter_tools.stamp").createNewFile());
+    return sdk.getPath();
+  }
+}
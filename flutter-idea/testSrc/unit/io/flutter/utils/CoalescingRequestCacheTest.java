@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class CoalescingRequestCacheTest {
+  private final List<String> sent = new ArrayList<>();
+  private final List<CompletableFuture<String>> responses = new ArrayList<>();
+  private final CoalescingRequestCache<String, String> cache = new CoalescingRequestCache<>(2, 10000, (value) -> !value.isEmpty());
+
+  private CompletableFuture<String> request(String key) {
+    return cache.request(key, () -> {
+      sent.add(key);
+      final CompletableFuture<String> response = new CompletableFuture<>();
+      responses.add(response);
+      return response;
+    });
+  }
+
+  @Test
+  public void cachedResultsAreNotRequestedAgain() {
+    final CompletableFuture<String> first = request("a");
+    responses.get(0).complete("A");
+    assertEquals("A", first.join());
+    assertEquals("A", request("a").join());
+    assertEquals(1, sent.size());
+  }
+
+  @Test
+  public void onlyOneRequestIsInFlight() {
+    final CompletableFuture<String> a = request("a");
+    final CompletableFuture<String> b = request("b");
+    final CompletableFuture<String> c = request("c");
+    assertEquals(1, sent.size());
+    assertTrue(b.isCancelled());
+
+    responses.get(0).complete("A");
+    assertEquals("A", a.join());
+    // Only the latest request is sent.
+    assertEquals(2, sent.size());
+    assertEquals("c", sent.get(1));
+    responses.get(1).complete("C");
+    assertEquals("C", c.join());
+  }
+
+  @Test
+  public void requestsForTheInFlightKeyShareTheResponse() {
+    final CompletableFuture<String> first = request("a");
+    final CompletableFuture<String> second = request("a");
+    assertEquals(1, sent.size());
+    responses.get(0).complete("A");
+    assertEquals("A", first.join());
+    assertEquals("A", second.join());
+  }
+
+  @Test
+  public void uncacheableResultsAreRequestedAgain() {
+    request("a");
+    responses.get(0).complete("");
+    request("a");
+    assertEquals(2, sent.size());
+  }
+
+  @Test
+  public void failedRequestsDoNotBlockLaterRequests() {
+    final CompletableFuture<String> a = request("a");
+    request("b");
+    responses.get(0).completeExceptionally(new IllegalStateException());
+    assertTrue(a.isCompletedExceptionally());
+    assertEquals(2, sent.size());
+  }
+}
@@ -7,14 +7,14 @@ package io.flutter.utils;
 
 import org.junit.Test;
 
+import javax.swing.*;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class IconPreviewGeneratorTest {
 
@@ -48,4 +48,16 @@ public class IconPreviewGeneratorTest {
     }
     preview.delete();
   }
+
+  @Test
+  public void reusesRenderedGlyphs() {
+    final String fontPath = "testData/utils/CupertinoIcons.ttf";
+    final Icon icon = new IconPreviewGenerator(fontPath).convert(0xf489);
+    assertNotNull(icon);
+    assertSame(icon, new IconPreviewGenerator(fontPath).convert("0xf489"));
+    assertNotSame(icon, new IconPreviewGenerator(fontPath, 16, 16, Color.black).convert(0xf489));
+
+    IconPreviewGenerator.invalidateFont(fontPath);
+    assertNotSame(icon, new IconPreviewGenerator(fontPath).convert(0xf489));
+  }
 }
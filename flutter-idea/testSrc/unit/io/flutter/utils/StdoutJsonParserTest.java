@@ -7,7 +7,12 @@ package io.flutter.utils;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class StdoutJsonParserTest {
   @Test
@@ -129,4 +134,40 @@ public class StdoutJsonParserTest {
       parser.getAvailableLines().toArray()
     );
   }
+
+  @Test
+  public void jsonSplitIntoSingleCharacters() {
+    final String json = "[{\"event\":\"app.log\",\"params\":{\"log\":\"[1, 2] done\"}}]";
+    final StdoutJsonParser parser = new StdoutJsonParser();
+    parser.appendOutput("hello\n");
+    parser.appendOutput("[{");
+    for (int i = 2; i < json.length(); i++) {
+      parser.appendOutput(json.substring(i, i + 1));
+    }
+    parser.appendOutput("\r\nbye\n");
+
+    assertArrayEquals(
+      "validating parser results",
+      new String[]{"hello\n", json, "bye\n"},
+      parser.getAvailableLines().toArray()
+    );
+  }
+
+  @Test
+  public void manyLinesInOneChunk() {
+    final StringBuilder output = new StringBuilder();
+    final List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      final String log = "log " + i + "\n";
+      final String json = "[{\"id\":" + i + "}]\n";
+      output.append(log).append(json);
+      expected.add(log);
+      expected.add(json);
+    }
+    final StdoutJsonParser parser = new StdoutJsonParser();
+    parser.appendOutput(output.toString());
+
+    assertEquals(expected, parser.getAvailableLines());
+    assertTrue(parser.getAvailableLines().isEmpty());
+  }
 }